@@ -0,0 +1,91 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the {@link BookDAO} operations behind the GUI: single and batched inserts,
+ * loading all books, substring search and toggling the favorite flag.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookDAOJmh {
+    /** Books per batch in {@link #addBooks(BookDataset)}. */
+    public static final int BATCH = 100;
+
+    /**
+     * Inserts one book in its own transaction.
+     *
+     * @param data the database
+     * @return the new book
+     */
+    @Benchmark
+    public Book addBook(BookDataset data) {
+        Book book = data.generator.next();
+        data.dao.addBook(book);
+        return book;
+    }
+
+    /**
+     * Inserts a batch of books in one transaction.
+     *
+     * @param data the database
+     * @return the generated IDs
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] addBooks(BookDataset data) {
+        return data.dao.addBooks(data.generator.next(BATCH));
+    }
+
+    /**
+     * Loads every book.
+     *
+     * @param data the database
+     * @return the books
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Book> getAllBooks(BookDataset data) {
+        return data.dao.getAllBooks();
+    }
+
+    /**
+     * Searches a word that occurs in many titles.
+     *
+     * @param data the database
+     * @return the matching books
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Book> searchCommonWord(BookDataset data) {
+        return data.dao.searchBooks("dragon");
+    }
+
+    /**
+     * Searches a word that occurs in few titles.
+     *
+     * @param data the database
+     * @return the matching books
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Book> searchRareWord(BookDataset data) {
+        return data.dao.searchBooks(SyntheticBooks.rareWord(321));
+    }
+
+    /**
+     * Marks a random book as favorite.
+     *
+     * @param data the database
+     */
+    @Benchmark
+    public void setFavorite(BookDataset data) {
+        data.dao.setFavorite(data.randomId(), true);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark state: a temporary database filled with {@link SyntheticBooks}.
+ * <p>
+ * The number of books, the random seed and whether reads go through {@link CachingBookDAO}
+ * are JMH parameters, e.g. {@code -p size=1000,1000000 -p cached=true}. The database is
+ * built once per trial and deleted afterwards; benchmarks that write let it grow.
+ */
+@State(Scope.Benchmark)
+public class BookDataset {
+    /** Number of books in the database. */
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    /** Seed of the book generator. */
+    @Param("42")
+    public long seed;
+
+    /** True to measure through the caching DAO used by the GUI. */
+    @Param("false")
+    public boolean cached;
+
+    /** The settings of the database, to open further DAOs on it. */
+    public DatabaseConfig config;
+    /** The DAO on the filled database. */
+    public BookDAO dao;
+    /** Generator for books written during the benchmark. */
+    public SyntheticBooks generator;
+
+    private Path dir;
+    private Random random;
+
+    /**
+     * Creates and fills the database.
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("jmh-books");
+        config = new DatabaseConfig("jdbc:sqlite:" + dir.resolve("books.db"));
+        dao = cached ? new CachingBookDAO(config) : new BookDAO(config);
+        generator = new SyntheticBooks(seed);
+        generator.fill(dao, size);
+        random = new Random(seed);
+    }
+
+    /**
+     * Closes the DAO and deletes the database.
+     *
+     * @throws IOException if the files cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dao.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Returns a file in the database's temporary directory, which is deleted with it.
+     *
+     * @param name the file name
+     * @return the path
+     */
+    public Path resolve(String name) {
+        return dir.resolve(name);
+    }
+
+    /**
+     * Returns the ID of a random book of the initial data set. IDs are assigned from 1 in a new database.
+     *
+     * @return a book ID
+     */
+    public int randomId() {
+        return 1 + random.nextInt(size);
+    }
+}
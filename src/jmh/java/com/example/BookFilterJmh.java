@@ -0,0 +1,84 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the GUI filter path through {@link BookSearcher}, without the GUI:
+ * keyword filters answered by a loaded search index, genre and favorite filters pushed
+ * down to SQL, and the first keyword filter, which loads the index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookFilterJmh {
+    private static final Runnable NOTHING_QUEUED = () -> { };
+
+    /**
+     * A searcher whose index is loaded before measuring.
+     */
+    @State(Scope.Benchmark)
+    public static class Indexed {
+        BookSearcher searcher;
+
+        /**
+         * Loads the index.
+         *
+         * @param data the database
+         */
+        @Setup(Level.Trial)
+        public void setUp(BookDataset data) {
+            searcher = new BookSearcher(data.dao, NOTHING_QUEUED);
+            searcher.filter(new BookFilter("x", BookFilter.ANY_GENRE, false));
+        }
+    }
+
+    /**
+     * Filters by a keyword with the index loaded.
+     *
+     * @param indexed the searcher
+     * @return the matching books
+     */
+    @Benchmark
+    public List<Book> keyword(Indexed indexed) {
+        return indexed.searcher.filter(new BookFilter("drag", BookFilter.ANY_GENRE, false));
+    }
+
+    /**
+     * Filters by keyword, genre and favorite flag with the index loaded.
+     *
+     * @param indexed the searcher
+     * @return the matching books
+     */
+    @Benchmark
+    public List<Book> keywordGenreFavorite(Indexed indexed) {
+        return indexed.searcher.filter(new BookFilter("the", "Fantasy", true));
+    }
+
+    /**
+     * Filters by genre and favorite flag in the database; no index is ever loaded.
+     *
+     * @param data the database
+     * @return the matching books
+     */
+    @Benchmark
+    public List<Book> genreFavoritePushDown(BookDataset data) {
+        return new BookSearcher(data.dao, NOTHING_QUEUED).filter(new BookFilter("", "Fantasy", true));
+    }
+
+    /**
+     * Runs the first keyword filter of a session, which loads all books into a new index.
+     *
+     * @param data the database
+     * @return the matching books
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Book> firstKeyword(BookDataset data) {
+        return new BookSearcher(data.dao, NOTHING_QUEUED).filter(new BookFilter("drag", BookFilter.ANY_GENRE, false));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of {@link BookSnapshot} against the {@code List<Book>} it replaces, scanning
+ * both with the same filter. The estimated heap per book of both structures is printed when
+ * they are built; run with {@code -prof gc} to see the allocation per scan as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookSnapshotJmh {
+
+    /**
+     * All books of the database, as a list and as a snapshot.
+     */
+    @State(Scope.Benchmark)
+    public static class Rows {
+        List<Book> books;
+        BookSnapshot snapshot;
+
+        /**
+         * Loads the books, builds the snapshot and prints the footprint of both.
+         *
+         * @param data the database
+         */
+        @Setup(Level.Trial)
+        public void setUp(BookDataset data) {
+            books = data.dao.getAllBooks();
+            snapshot = new BookSnapshot(books);
+            int count = Math.max(1, books.size());
+            System.out.printf("%nList<Book> %.1f bytes/book, BookSnapshot %.1f bytes/book%n",
+                (double) BookSnapshot.estimateHeapBytes(books) / count, (double) snapshot.estimateHeapBytes() / count);
+        }
+    }
+
+    /**
+     * The filter to scan with.
+     */
+    @State(Scope.Benchmark)
+    public static class Scan {
+        /** A genre, the favorites, a keyword in many titles or one in few titles. */
+        @Param({"genre", "favorites", "common", "rare"})
+        public String filter;
+
+        BookFilter bookFilter;
+
+        /**
+         * Builds the filter.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            bookFilter = switch (filter) {
+                case "genre" -> new BookFilter("", "Fantasy", false);
+                case "favorites" -> new BookFilter("", BookFilter.ANY_GENRE, true);
+                case "common" -> new BookFilter("dragon", BookFilter.ANY_GENRE, false);
+                case "rare" -> new BookFilter(SyntheticBooks.rareWord(123), BookFilter.ANY_GENRE, false);
+                default -> throw new IllegalArgumentException("unknown filter " + filter);
+            };
+        }
+    }
+
+    /**
+     * Counts the matching books of the list.
+     *
+     * @param rows the books
+     * @param scan the filter
+     * @return the number of matches
+     */
+    @Benchmark
+    public long scanList(Rows rows, Scan scan) {
+        return rows.books.stream().filter(scan.bookFilter::matches).count();
+    }
+
+    /**
+     * Finds the matching rows of the snapshot.
+     *
+     * @param rows the books
+     * @param scan the filter
+     * @return the matching rows
+     */
+    @Benchmark
+    public int[] scanSnapshot(Rows rows, Scan scan) {
+        return rows.snapshot.scan(scan.bookFilter);
+    }
+}
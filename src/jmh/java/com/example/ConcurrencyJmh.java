@@ -0,0 +1,81 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link BookDAO} throughput under concurrent reads and writes.
+ * <p>
+ * Readers look up random books by ID while writers toggle the favorite flag of random books,
+ * four readers to one writer by default. Vary the thread counts with {@code -tg}, e.g.
+ * {@code -tg 16,4} for twenty threads. After each iteration the number of writes the
+ * {@link WriteQueue} committed per transaction is printed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrencyJmh {
+
+    /**
+     * Counts the transactions of the write queue during one iteration.
+     */
+    @State(Scope.Benchmark)
+    public static class WriteGroups {
+        private WriteQueue queue;
+        private long groups;
+        private long writes;
+
+        /**
+         * Records the counters before the iteration.
+         *
+         * @param data the database
+         */
+        @Setup(Level.Iteration)
+        public void start(BookDataset data) {
+            queue = data.dao.getWriteQueue();
+            groups = queue.getGroupCount();
+            writes = queue.getWriteCount();
+        }
+
+        /**
+         * Prints the writes per transaction of the iteration.
+         */
+        @TearDown(Level.Iteration)
+        public void report() {
+            long committed = queue.getGroupCount() - groups;
+            System.out.printf("%n%.1f writes per transaction%n",
+                committed == 0 ? 0 : (double) (queue.getWriteCount() - writes) / committed);
+        }
+    }
+
+    /**
+     * Reads a random book.
+     *
+     * @param data the database
+     * @return the book
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public Book read(BookDataset data) {
+        return data.dao.getBook(1 + ThreadLocalRandom.current().nextInt(data.size));
+    }
+
+    /**
+     * Sets or clears the favorite flag of a random book.
+     *
+     * @param data   the database
+     * @param groups the transaction counter
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void write(BookDataset data, WriteGroups groups) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        data.dao.setFavorite(1 + random.nextInt(data.size), random.nextBoolean());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of {@link CatalogExporter} in each format, against writing the list returned
+ * by {@link BookDAO#getAllBooks()}. Run with {@code -prof gc} to compare the allocation of
+ * streaming the rows with that of loading them all first.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExportJmh {
+
+    /**
+     * The export target.
+     */
+    @State(Scope.Benchmark)
+    public static class Target {
+        /** The file extension, which selects the format and compression. */
+        @Param({"csv", "jsonl", "csv.gz", "jsonl.gz"})
+        public String extension;
+
+        CatalogExporter exporter;
+        Path file;
+
+        /**
+         * Creates the exporter.
+         *
+         * @param data the database
+         */
+        @Setup(Level.Trial)
+        public void setUp(BookDataset data) {
+            exporter = new CatalogExporter(data.dao);
+            file = data.resolve("books." + extension);
+        }
+    }
+
+    /**
+     * Exports all books, streaming them from the database.
+     *
+     * @param target the exporter and file
+     * @return the report
+     * @throws IOException if the file cannot be written
+     */
+    @Benchmark
+    public ExportReport export(Target target) throws IOException {
+        return target.exporter.exportFile(target.file, r -> { });
+    }
+
+    /**
+     * Loads all books and writes them as JSONL, as an export without streaming would.
+     *
+     * @param data the database
+     * @return the file
+     * @throws IOException if the file cannot be written
+     */
+    @Benchmark
+    public Path exportViaList(BookDataset data) throws IOException {
+        List<Book> books = data.dao.getAllBooks();
+        StringBuilder text = new StringBuilder();
+        for (Book book : books) {
+            Json.appendBook(text, book).append('\n');
+        }
+        return Files.writeString(data.resolve("list.jsonl"), text);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of {@link GenreLoader}: parsing and atomically rewriting a genres file of
+ * a given size in a temporary directory, and a lookup answered by the genre cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenreLoaderJmh {
+    /** Number of genres in the file. */
+    @Param({"10", "1000", "100000"})
+    public int genres;
+
+    private Path file;
+    private List<String> names;
+
+    /**
+     * Writes the genres file.
+     *
+     * @throws IOException        if the file cannot be written
+     * @throws XMLStreamException if the XML cannot be written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, XMLStreamException {
+        file = Files.createTempDirectory("jmh-genres").resolve("genres.xml");
+        names = new ArrayList<>(genres);
+        for (int i = 0; i < genres; i++) {
+            names.add("Genre " + i + " & Co");
+        }
+        GenreLoader.write(names, file);
+    }
+
+    /**
+     * Deletes the genres file.
+     *
+     * @throws IOException if it cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.getParent());
+    }
+
+    /**
+     * Parses the file.
+     *
+     * @return the genre names
+     * @throws IOException        if the file cannot be read
+     * @throws XMLStreamException if the file is malformed
+     */
+    @Benchmark
+    public List<String> load() throws IOException, XMLStreamException {
+        return GenreLoader.read(file);
+    }
+
+    /**
+     * Writes the file to a temporary file, forces it to disk and moves it into place.
+     *
+     * @throws IOException        if the file cannot be written
+     * @throws XMLStreamException if the XML cannot be written
+     */
+    @Benchmark
+    public void save() throws IOException, XMLStreamException {
+        GenreLoader.write(names, file);
+    }
+
+    /**
+     * Looks up the application's genres, which after the first call comes from the cache.
+     *
+     * @return the genre names
+     */
+    @Benchmark
+    public List<String> cachedLookup() {
+        return GenreLoader.getGenres();
+    }
+}
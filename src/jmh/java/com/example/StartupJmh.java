@@ -0,0 +1,101 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.JTable;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the GUI's startup steps, each measured once in a fresh JVM: painting the
+ * first screen of the book table, and the first keyword search, answered either from the
+ * database or by scanning a current snapshot file.
+ * <p>
+ * The steps are the ones {@link BookManagerGUI} performs. The table is painted into an
+ * off-screen image, so the benchmark runs without a display. The classes used to fill the
+ * {@link BookDataset} are loaded before measuring, while Swing's are not; more forks give
+ * more samples, e.g. {@code -f 20}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 5, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StartupJmh {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 400;
+
+    /**
+     * A snapshot file of the database, written before measuring.
+     */
+    @State(Scope.Benchmark)
+    public static class SnapshotFile {
+        /** Where the first search reads the books from: "database" or "snapshot". */
+        @Param({"database", "snapshot"})
+        public String source;
+
+        Path file;
+
+        /**
+         * Writes the snapshot file.
+         *
+         * @param data the database
+         */
+        @Setup(Level.Trial)
+        public void setUp(BookDataset data) {
+            file = data.resolve("books.snapshot");
+            new SnapshotStore(data.dao, file, 0, s -> { }).save();
+        }
+    }
+
+    /**
+     * Opens the database, creates the paged table model and paints the first screen.
+     *
+     * @param data the database
+     * @return the painted image
+     */
+    @Benchmark
+    public BufferedImage firstPage(BookDataset data) {
+        try (BookDAO dao = new BookDAO(data.config)) {
+            PagedBookTableModel model = new PagedBookTableModel(dao);
+            try {
+                JTable table = new JTable(model);
+                table.setSize(WIDTH, HEIGHT);
+                // Wait for the blocks of the first screen like the table does after the loader's repaint
+                int visibleRows = Math.min(model.getRowCount(), HEIGHT / table.getRowHeight() + 1);
+                for (int row = 0; row < visibleRows; row++) {
+                    model.getBookAt(row);
+                }
+                BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = image.createGraphics();
+                table.paint(g);
+                g.dispose();
+                return image;
+            } finally {
+                model.close();
+            }
+        }
+    }
+
+    /**
+     * Opens the database and runs the first keyword search of a session.
+     *
+     * @param data     the database
+     * @param snapshot the snapshot file and whether to use it
+     * @return the number of matching books
+     */
+    @Benchmark
+    public int firstSearch(BookDataset data, SnapshotFile snapshot) {
+        try (BookDAO dao = new BookDAO(data.config)) {
+            BookSearcher searcher = new BookSearcher(dao, () -> { });
+            if (snapshot.source.equals("snapshot")) {
+                SnapshotStore store = new SnapshotStore(dao, snapshot.file, SnapshotStore.DEFAULT_DELAY_MILLIS, s -> { });
+                searcher.setSnapshot(store.loadFresh());
+                store.close();
+            }
+            return searcher.filter(new BookFilter("dragon", BookFilter.ANY_GENRE, false)).size();
+        }
+    }
+}
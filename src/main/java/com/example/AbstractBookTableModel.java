@@ -0,0 +1,147 @@
+package com.example;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Common base for table models that display {@link Book} rows in a JTable.
+ * <p>
+ * Defines the columns and synchronizes cell edits with the database through the
+ * provided {@link BookDAO}, or through a {@link BookUpdateQueue} when one is set so that
+ * edits do not block the event dispatch thread. Subclasses decide where the rows come from.
+ */
+public abstract class AbstractBookTableModel extends AbstractTableModel {
+
+    private final String[] columnNames = {"Title", "Author", "Genre", "Favorite"};
+    /** DAO used to persist cell edits. */
+    protected final BookDAO dao;
+    private BookUpdateQueue updateQueue;
+
+    /**
+     * Constructs the model.
+     *
+     * @param dao DAO used to persist updates to the database.
+     */
+    protected AbstractBookTableModel(BookDAO dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Sets the queue that cell edits are written through.
+     *
+     * @param updateQueue the write-behind queue, or null to write each edit synchronously
+     */
+    public void setUpdateQueue(BookUpdateQueue updateQueue) {
+        this.updateQueue = updateQueue;
+    }
+
+    /**
+     * Returns the {@link Book} object at the specified row.
+     *
+     * @param rowIndex The row index.
+     * @return The corresponding {@link Book}.
+     */
+    public abstract Book getBookAt(int rowIndex);
+
+    /**
+     * Returns the {@link Book} at the specified row if it is available without blocking.
+     * <p>
+     * The default implementation delegates to {@link #getBookAt(int)}.
+     *
+     * @param rowIndex The row index.
+     * @return The book, or null if it has not been loaded yet.
+     */
+    protected Book peekBookAt(int rowIndex) {
+        return getBookAt(rowIndex);
+    }
+
+    /**
+     * Returns the number of columns in the table.
+     *
+     * @return Number of columns (always 4).
+     */
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     * Returns the name of the column at the specified index.
+     *
+     * @param column The column index.
+     * @return The column name.
+     */
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    /**
+     * Returns the value at the specified row and column.
+     *
+     * @param rowIndex    Row index.
+     * @param columnIndex Column index.
+     * @return The value for the cell, or null while the row is still loading.
+     */
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Book book = peekBookAt(rowIndex);
+        if (book == null) return null;
+        return switch (columnIndex) {
+            case 0 -> book.getTitle();
+            case 1 -> book.getAuthor();
+            case 2 -> book.getGenre();
+            case 3 -> book.isFavorite();
+            default -> null;
+        };
+    }
+
+    /**
+     * Specifies that all loaded cells in the table are editable.
+     *
+     * @param rowIndex    The row index.
+     * @param columnIndex The column index.
+     * @return true if the row is loaded.
+     */
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return peekBookAt(rowIndex) != null;
+    }
+
+    /**
+     * Updates the value in the specified cell and synchronizes the change with the database,
+     * either directly or through the update queue.
+     *
+     * @param aValue      The new value.
+     * @param rowIndex    The row index.
+     * @param columnIndex The column index.
+     */
+    @Override
+    public void setValueAt(Object aValue, int rowIndex, int columnIndex) {
+        Book book = getBookAt(rowIndex);
+
+        switch (columnIndex) {
+            case 0 -> book.setTitle(aValue.toString());
+            case 1 -> book.setAuthor(aValue.toString());
+            case 2 -> book.setGenre(aValue.toString());
+            case 3 -> book.setFavorite((Boolean) aValue);
+        }
+
+        if (updateQueue != null) {
+            updateQueue.enqueue(book);
+        } else {
+            dao.updateBook(book);
+        }
+        fireTableCellUpdated(rowIndex, columnIndex);
+    }
+
+    /**
+     * Returns the class of data in each column, needed for proper rendering (e.g., checkbox for Boolean).
+     *
+     * @param columnIndex Column index.
+     * @return Class of the column.
+     */
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return (columnIndex == 3) ? Boolean.class : String.class;
+    }
+}
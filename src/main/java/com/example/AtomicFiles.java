@@ -0,0 +1,66 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replaces files atomically by writing a temporary file next to them and moving it into place,
+ * so that readers never see a partly written file.
+ * <p>
+ * The temporary file is created like any other new file, so it gets the process's default
+ * permissions rather than the owner-only ones of {@link Files#createTempFile}; when the target
+ * exists, its POSIX permissions are copied, so a replaced file keeps them.
+ */
+public class AtomicFiles {
+
+    /**
+     * Creates an empty file with a unique name in the directory of a target file.
+     *
+     * @param file the file that will be replaced
+     * @return the new file; the caller writes it and then passes it to {@link #replace}
+     * @throws IOException if the file cannot be created
+     */
+    public static Path createTempSibling(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        while (true) {
+            String name = "." + file.getFileName() + "."
+                + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp";
+            Path temp = dir.resolve(name);
+            try {
+                FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+            } catch (FileAlreadyExistsException e) {
+                continue;
+            }
+            if (Files.exists(file)) {
+                try {
+                    Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(file));
+                } catch (UnsupportedOperationException e) {
+                    // Not a POSIX file system
+                }
+            }
+            return temp;
+        }
+    }
+
+    /**
+     * Moves a temporary file over its target, atomically where the file system supports it.
+     *
+     * @param temp the file created with {@link #createTempSibling}
+     * @param file the file to replace
+     * @throws IOException if the file cannot be moved
+     */
+    public static void replace(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -2,53 +2,116 @@ package com.example;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Data Access Object (DAO) for managing book records in the SQLite database.
+ * <p>
+ * Connections are borrowed from a {@link ConnectionPool} that keeps them open for the
+ * lifetime of the DAO, and SQL statements are prepared once per connection. Reads run in
+ * parallel on the pool's reader connections; writes from any number of threads are
+ * serialised by a {@link WriteQueue} and committed in groups. The DAO is thread-safe.
+ * Genres are stored as IDs into the {@code genres} table and translated through a
+ * {@link GenreDictionary}, so the books of one genre share the same name instance.
+ * Every committed write is published as a {@link DataChangeEvent} on the DAO's {@link ChangeBus}.
+ * Each public operation is timed by the DAO's {@link DaoMetrics} when they are enabled in the
+ * configuration.
+ * Call {@link #close()} on shutdown to release the database file.
  */
-public class BookDAO {
-    private static final String DB_URL = "jdbc:sqlite:books.db";
+public class BookDAO implements AutoCloseable {
+    private static final String COLUMNS = "id, title, author, genre_id, favorite";
+    private static final String INSERT_SQL = "INSERT INTO books(title, author, genre_id, favorite, title_key, author_key, genre_key) " +
+                                             "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_ALL_SQL = "SELECT " + COLUMNS + " FROM books";
+    private static final String PAGE_SQL = "SELECT " + COLUMNS + " FROM books WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String OFFSET_SQL = "SELECT " + COLUMNS + " FROM books ORDER BY id LIMIT ? OFFSET ?";
+    private static final String BY_ID_SQL = "SELECT " + COLUMNS + " FROM books WHERE id = ?";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM books";
+    private static final String STREAM_SQL = "SELECT " + COLUMNS + " FROM books ORDER BY id";
+    private static final String DELETE_SQL = "DELETE FROM books WHERE id = ?";
+    private static final String SEARCH_SQL = "SELECT " + COLUMNS + " FROM books WHERE title LIKE ? OR author LIKE ? " +
+                                             "OR genre_id IN (SELECT id FROM genres WHERE name LIKE ?)";
+    private static final String FAVORITE_SQL = "UPDATE books SET favorite = ? WHERE id = ?";
+    private static final String UPDATE_SQL = "UPDATE books SET title = ?, author = ?, genre_id = ?, favorite = ?, " +
+                                             "title_key = ?, author_key = ?, genre_key = ? WHERE id = ?";
+    private static final String FTS_SEARCH_SQL = "SELECT b.id, b.title, b.author, b.genre_id, b.favorite " +
+                                                 "FROM books_fts JOIN books b ON b.id = books_fts.rowid " +
+                                                 "WHERE books_fts MATCH ? ORDER BY rank";
+    private static final String LAST_ID_SQL = "SELECT last_insert_rowid()";
+    private static final String CHANGE_COUNT_SQL = "SELECT change_count FROM catalog_state WHERE id = 1";
+
+    private final ConnectionPool pool;
+    private final GenreDictionary genres = new GenreDictionary();
+    private final ChangeBus changes = new ChangeBus();
+    private final DaoMetrics metrics;
+    private final WriteQueue writes;
 
     /**
-     * Constructs the BookDAO and creates the books table if it does not exist.
+     * Constructs the BookDAO for the default database and creates or upgrades its schema.
      */
     public BookDAO() {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             Statement stmt = conn.createStatement()) {
+        this(new DatabaseConfig());
+    }
+
+    /**
+     * Constructs the BookDAO for the given database and creates or upgrades its schema.
+     *
+     * @param config connection and pragma settings
+     * @throws IllegalStateException if the database cannot be opened
+     */
+    public BookDAO(DatabaseConfig config) {
+        try {
+            pool = new ConnectionPool(config);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not open database " + config.getUrl(), e);
+        }
+        metrics = new DaoMetrics(config);
 
-            String sql = "CREATE TABLE IF NOT EXISTS books (" +
-                         "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                         "title TEXT NOT NULL, " +
-                         "author TEXT NOT NULL, " +
-                         "genre TEXT, " +
-                         "favorite INTEGER DEFAULT 0)";
-            stmt.execute(sql);
+        try (PooledConnection pc = pool.writer()) {
+            DatabaseSchema.migrate(pc.getConnection());
+            genres.load(pc.getConnection());
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        // A rolled back write may have cached the IDs of genres it inserted; reload before the next write
+        writes = new WriteQueue(pool, pc -> {
+            genres.load(pc.getConnection());
+            return null;
+        });
     }
 
     /**
      * Adds a new book to the database.
      *
-     * @param book the book to add
+     * @param book the book to add; its ID is set to the generated one
      */
     public void addBook(Book book) {
-        String sql = "INSERT INTO books(title, author, genre, favorite) VALUES (?, ?, ?, ?)";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, book.getTitle());
-            pstmt.setString(2, book.getAuthor());
-            pstmt.setString(3, book.getGenre());
-            pstmt.setInt(4, book.isFavorite() ? 1 : 0);
-            pstmt.executeUpdate();
+        long start = metrics.start();
+        try {
+            writes.submit(pc -> {
+                Integer genreId = genreId(pc, book.getGenre());
+                PreparedStatement pstmt = pc.prepare(INSERT_SQL);
+                setColumns(pstmt, book, genreId);
+                pstmt.executeUpdate();
 
+                try (ResultSet rs = pc.prepare(LAST_ID_SQL).executeQuery()) {
+                    if (rs.next()) book.setId(rs.getInt(1));
+                }
+                return null;
+            });
         } catch (SQLException e) {
+            metrics.failed("addBook", start, e);
             e.printStackTrace();
+            return;
         }
+        metrics.succeeded("addBook", start, 1);
+        publish(DataChangeEvent.ofBooks(DataChangeEvent.Type.INSERTED, List.of(book)));
     }
 
     /**
@@ -57,25 +120,18 @@ public class BookDAO {
      * @return a list of all books
      */
     public List<Book> getAllBooks() {
+        long start = metrics.start();
         List<Book> books = new ArrayList<>();
-        String sql = "SELECT * FROM books";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (PooledConnection pc = pool.reader();
+             ResultSet rs = pc.prepare(SELECT_ALL_SQL).executeQuery()) {
 
             while (rs.next()) {
-                Book book = new Book(
-                    rs.getInt("id"),
-                    rs.getString("title"),
-                    rs.getString("author"),
-                    rs.getString("genre"),
-                    rs.getInt("favorite") == 1
-                );
-                books.add(book);
+                books.add(mapRow(rs, genres));
             }
-
+            metrics.succeeded("getAllBooks", start, books.size());
         } catch (SQLException e) {
+            metrics.failed("getAllBooks", start, e);
             e.printStackTrace();
         }
 
@@ -83,22 +139,277 @@ public class BookDAO {
     }
 
     /**
-     * Deletes a book from the database by its ID.
+     * Reads all books ordered by ID into a columnar {@link BookSnapshot}, without creating
+     * a {@link Book} per row. The rows and the snapshot's change counter are read in one
+     * transaction, so they are consistent with each other.
      *
-     * @param id the ID of the book to delete
+     * @return the snapshot; empty if the database cannot be read
      */
-    public void deleteBook(int id) {
-        String sql = "DELETE FROM books WHERE id = ?";
+    public BookSnapshot getSnapshot() {
+        long start = metrics.start();
+        BookSnapshot.Builder builder = new BookSnapshot.Builder(1024);
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PooledConnection pc = pool.reader()) {
+            Connection conn = pc.getConnection();
+            conn.setAutoCommit(false);
+            try {
+                builder.setChangeCount(readChangeCount(pc));
+                try (ResultSet rs = pc.prepare(STREAM_SQL).executeQuery()) {
+                    while (rs.next()) {
+                        int genreId = rs.getInt("genre_id");
+                        String genre = rs.wasNull() ? null : genres.resolveName(genreId, conn);
+                        builder.add(rs.getInt("id"), rs.getString("title"), rs.getString("author"), genre,
+                            rs.getInt("favorite") == 1);
+                    }
+                }
+            } finally {
+                // Ends the read transaction
+                conn.setAutoCommit(true);
+            }
+            BookSnapshot snapshot = builder.build();
+            metrics.succeeded("getSnapshot", start, snapshot.size());
+            return snapshot;
+        } catch (SQLException e) {
+            metrics.failed("getSnapshot", start, e);
+            e.printStackTrace();
+            return new BookSnapshot(List.of());
+        }
+    }
+
+    /**
+     * Reads the database's change counter, which every committed insert, update or delete of
+     * a book or genre increases, whichever process made it.
+     *
+     * @return the counter, or -1 if it cannot be read
+     */
+    public long getChangeCount() {
+        long start = metrics.start();
+        try (PooledConnection pc = pool.reader()) {
+            long count = readChangeCount(pc);
+            metrics.succeeded("getChangeCount", start, 1);
+            return count;
+        } catch (SQLException e) {
+            metrics.failed("getChangeCount", start, e);
+            e.printStackTrace();
+            return -1;
+        }
+    }
 
+    private static long readChangeCount(PooledConnection pc) throws SQLException {
+        try (ResultSet rs = pc.prepare(CHANGE_COUNT_SQL).executeQuery()) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    /**
+     * Retrieves a single book by its ID.
+     *
+     * @param id the book ID
+     * @return the book, or null if there is none
+     */
+    public Book getBook(int id) {
+        long start = metrics.start();
+        try (PooledConnection pc = pool.reader()) {
+            PreparedStatement pstmt = pc.prepare(BY_ID_SQL);
             pstmt.setInt(1, id);
-            pstmt.executeUpdate();
 
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Book book = rs.next() ? mapRow(rs, genres) : null;
+                metrics.succeeded("getBook", start, book == null ? 0 : 1);
+                return book;
+            }
+
+        } catch (SQLException e) {
+            metrics.failed("getBook", start, e);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves one page of books ordered by ID, starting after the given ID.
+     * <p>
+     * Pass {@code 0} for the first page and the ID of the last book of a page to get the next one.
+     * Each page is a single index range lookup, so the cost does not grow with the page number.
+     *
+     * @param afterId only books with a larger ID are returned
+     * @param limit   maximum number of books
+     * @return the books of the page; fewer than {@code limit} means the end was reached
+     */
+    public List<Book> getBooksAfter(int afterId, int limit) {
+        long start = metrics.start();
+        List<Book> books = new ArrayList<>(Math.min(limit, 1024));
+
+        try (PooledConnection pc = pool.reader()) {
+            PreparedStatement pstmt = pc.prepare(PAGE_SQL);
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    books.add(mapRow(rs, genres));
+                }
+            }
+            metrics.succeeded("getBooksAfter", start, books.size());
         } catch (SQLException e) {
+            metrics.failed("getBooksAfter", start, e);
             e.printStackTrace();
         }
+
+        return books;
+    }
+
+    /**
+     * Retrieves books ordered by ID starting at a row position.
+     * <p>
+     * SQLite has to step over the skipped rows, so prefer {@link #getBooksAfter(int, int)}
+     * when the ID of the preceding row is known.
+     *
+     * @param offset number of rows to skip
+     * @param limit  maximum number of books
+     * @return the books at positions {@code offset} to {@code offset + limit - 1}
+     */
+    public List<Book> getBooksAt(int offset, int limit) {
+        long start = metrics.start();
+        List<Book> books = new ArrayList<>(Math.min(limit, 1024));
+
+        try (PooledConnection pc = pool.reader()) {
+            PreparedStatement pstmt = pc.prepare(OFFSET_SQL);
+            pstmt.setInt(1, limit);
+            pstmt.setInt(2, offset);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    books.add(mapRow(rs, genres));
+                }
+            }
+            metrics.succeeded("getBooksAt", start, books.size());
+        } catch (SQLException e) {
+            metrics.failed("getBooksAt", start, e);
+            e.printStackTrace();
+        }
+
+        return books;
+    }
+
+    /**
+     * Counts the books in the database.
+     *
+     * @return the number of rows in the books table
+     */
+    public int countBooks() {
+        long start = metrics.start();
+        try (PooledConnection pc = pool.reader();
+             ResultSet rs = pc.prepare(COUNT_SQL).executeQuery()) {
+            int count = rs.next() ? rs.getInt(1) : 0;
+            metrics.succeeded("countBooks", start, 1);
+            return count;
+
+        } catch (SQLException e) {
+            metrics.failed("countBooks", start, e);
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Streams all books ordered by ID straight from an open result set.
+     * <p>
+     * Only the current row is held in memory. The stream keeps a reader connection
+     * borrowed until it is closed, so always use it in a try-with-resources block:
+     * <pre>
+     * try (Stream&lt;Book&gt; books = dao.streamAllBooks()) {
+     *     books.forEach(...);
+     * }
+     * </pre>
+     *
+     * @return a lazily populated stream of books
+     * @throws IllegalStateException if the query fails, or wrapping a failure while reading a row
+     */
+    public Stream<Book> streamAllBooks() {
+        return stream("streamAllBooks", pc -> pc.prepare(STREAM_SQL));
+    }
+
+    /**
+     * Streams the books that match a query straight from an open result set, in query order.
+     * <p>
+     * Like {@link #streamAllBooks()}, only the current row is held in memory and the stream
+     * must be closed to return its connection.
+     *
+     * @param query the filter, order and page to apply
+     * @return a lazily populated stream of the matching books
+     * @throws IllegalStateException if the query fails, or wrapping a failure while reading a row
+     */
+    public Stream<Book> streamBooks(BookQuery query) {
+        return stream("streamBooks", pc -> bind(pc, query.toSelect(genres)));
+    }
+
+    private Stream<Book> stream(String operation, StatementFactory statement) {
+        long start = metrics.start();
+        PooledConnection pc = null;
+        try {
+            pc = pool.reader();
+            ResultSet rs = statement.prepare(pc).executeQuery();
+            // Only opening the stream is timed; rows are read at the caller's pace
+            metrics.succeeded(operation, start, 0);
+            PooledConnection borrowed = pc;
+            Spliterator<Book> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Book> action) {
+                    try {
+                        if (!rs.next()) return false;
+                        action.accept(mapRow(rs, genres));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Failed to read book row", e);
+                    }
+                }
+            };
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                } finally {
+                    borrowed.close();
+                }
+            });
+        } catch (SQLException e) {
+            metrics.failed(operation, start, e);
+            if (pc != null) pc.close();
+            throw new IllegalStateException("Failed to query books", e);
+        }
+    }
+
+    /**
+     * Prepares and binds the statement of a stream on a borrowed connection.
+     */
+    private interface StatementFactory {
+        PreparedStatement prepare(PooledConnection pc) throws SQLException;
+    }
+
+    /**
+     * Deletes a book from the database by its ID.
+     *
+     * @param id the ID of the book to delete
+     */
+    public void deleteBook(int id) {
+        long start = metrics.start();
+        int rows;
+        try {
+            rows = writes.submit(pc -> {
+                PreparedStatement pstmt = pc.prepare(DELETE_SQL);
+                pstmt.setInt(1, id);
+                return pstmt.executeUpdate();
+            });
+        } catch (SQLException e) {
+            metrics.failed("deleteBook", start, e);
+            e.printStackTrace();
+            return;
+        }
+        metrics.succeeded("deleteBook", start, rows);
+        if (rows > 0) publish(DataChangeEvent.ofIds(DataChangeEvent.Type.DELETED, List.of(id)));
     }
 
     /**
@@ -108,12 +419,11 @@ public class BookDAO {
      * @return a list of matching books
      */
     public List<Book> searchBooks(String keyword) {
+        long start = metrics.start();
         List<Book> books = new ArrayList<>();
-        String sql = "SELECT * FROM books WHERE title LIKE ? OR author LIKE ? OR genre LIKE ?";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
+        try (PooledConnection pc = pool.reader()) {
+            PreparedStatement pstmt = pc.prepare(SEARCH_SQL);
             String likeKeyword = "%" + keyword + "%";
             pstmt.setString(1, likeKeyword);
             pstmt.setString(2, likeKeyword);
@@ -121,24 +431,128 @@ public class BookDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Book book = new Book(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("author"),
-                        rs.getString("genre"),
-                        rs.getInt("favorite") == 1
-                    );
-                    books.add(book);
+                    books.add(mapRow(rs, genres));
                 }
             }
+            metrics.succeeded("searchBooks", start, books.size());
+        } catch (SQLException e) {
+            metrics.failed("searchBooks", start, e);
+            e.printStackTrace();
+        }
+
+        return books;
+    }
 
+    /**
+     * Searches books by keyword in title, author, or genre using the given matching mode.
+     * <p>
+     * {@link SearchMode#TOKEN} and {@link SearchMode#PREFIX} query the FTS5 index and return
+     * the best matches first; {@link SearchMode#SUBSTRING} behaves like {@link #searchBooks(String)}.
+     * A keyword without any word characters falls back to the substring search.
+     *
+     * @param keyword the keyword to search for; several words must all match
+     * @param mode    how words are matched
+     * @return a list of matching books
+     */
+    public List<Book> searchBooks(String keyword, SearchMode mode) {
+        String match = mode == SearchMode.SUBSTRING ? null : toFtsQuery(keyword, mode == SearchMode.PREFIX);
+        if (match == null) {
+            return searchBooks(keyword);
+        }
+
+        long start = metrics.start();
+        List<Book> books = new ArrayList<>();
+
+        try (PooledConnection pc = pool.reader()) {
+            PreparedStatement pstmt = pc.prepare(FTS_SEARCH_SQL);
+            pstmt.setString(1, match);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    books.add(mapRow(rs, genres));
+                }
+            }
+            metrics.succeeded("searchBooksFts", start, books.size());
+        } catch (SQLException e) {
+            metrics.failed("searchBooksFts", start, e);
+            e.printStackTrace();
+        }
+
+        return books;
+    }
+
+    /**
+     * Finds the books that match all criteria of a query, in one SQL statement.
+     *
+     * @param query the filter, order and page to apply
+     * @return the matching books in query order
+     */
+    public List<Book> findBooks(BookQuery query) {
+        long start = metrics.start();
+        List<Book> books = new ArrayList<>();
+
+        try (PooledConnection pc = pool.reader()) {
+            PreparedStatement pstmt = bind(pc, query.toSelect(genres));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    books.add(mapRow(rs, genres));
+                }
+            }
+            metrics.succeeded("findBooks", start, books.size());
         } catch (SQLException e) {
+            metrics.failed("findBooks", start, e);
             e.printStackTrace();
         }
 
         return books;
     }
 
+    /**
+     * Counts the books that match the criteria of a query, ignoring its order and page.
+     *
+     * @param query the filter to apply
+     * @return the number of matching books
+     */
+    public int countBooks(BookQuery query) {
+        long start = metrics.start();
+        try (PooledConnection pc = pool.reader()) {
+            PreparedStatement pstmt = bind(pc, query.toCount(genres));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int count = rs.next() ? rs.getInt(1) : 0;
+                metrics.succeeded("countQuery", start, 1);
+                return count;
+            }
+
+        } catch (SQLException e) {
+            metrics.failed("countQuery", start, e);
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Returns SQLite's plan for the statement of a query, one line per plan step.
+     *
+     * @param query the query to explain
+     * @return the {@code detail} column of {@code EXPLAIN QUERY PLAN}
+     * @throws SQLException if the statement cannot be prepared
+     */
+    List<String> explainQueryPlan(BookQuery query) throws SQLException {
+        BookQuery.Sql sql = query.toSelect(genres);
+        List<String> plan = new ArrayList<>();
+        try (PooledConnection pc = pool.reader()) {
+            PreparedStatement pstmt = bind(pc, new BookQuery.Sql("EXPLAIN QUERY PLAN " + sql.text, sql.params, sql.fullText));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString("detail"));
+                }
+            }
+        }
+        return plan;
+    }
+
     /**
      * Updates the favorite status of a book by its ID.
      *
@@ -146,17 +560,438 @@ public class BookDAO {
      * @param isFavorite true to mark as favorite, false otherwise
      */
     public void setFavorite(int bookId, boolean isFavorite) {
-        String sql = "UPDATE books SET favorite = ? WHERE id = ?";
+        long start = metrics.start();
+        int rows;
+        try {
+            rows = writes.submit(pc -> {
+                PreparedStatement pstmt = pc.prepare(FAVORITE_SQL);
+                pstmt.setInt(1, isFavorite ? 1 : 0);
+                pstmt.setInt(2, bookId);
+                return pstmt.executeUpdate();
+            });
+        } catch (SQLException e) {
+            metrics.failed("setFavorite", start, e);
+            e.printStackTrace();
+            notWritten(List.of(bookId));
+            return;
+        }
+        metrics.succeeded("setFavorite", start, rows);
+        if (rows > 0) {
+            publish(DataChangeEvent.ofIds(DataChangeEvent.Type.UPDATED, List.of(bookId)));
+        } else {
+            notWritten(List.of(bookId));
+        }
+    }
+
+    /**
+     * Updates title, author, genre and favorite status of an existing book.
+     *
+     * @param book the book to update, identified by its ID
+     */
+    public void updateBook(Book book) {
+        long start = metrics.start();
+        int rows;
+        try {
+            rows = writes.submit(pc -> {
+                Integer genreId = genreId(pc, book.getGenre());
+                PreparedStatement pstmt = pc.prepare(UPDATE_SQL);
+                setColumns(pstmt, book, genreId);
+                pstmt.setInt(8, book.getId());
+                return pstmt.executeUpdate();
+            });
+        } catch (SQLException e) {
+            metrics.failed("updateBook", start, e);
+            e.printStackTrace();
+            notWritten(List.of(book.getId()));
+            return;
+        }
+        metrics.succeeded("updateBook", start, rows);
+        if (rows > 0) {
+            publish(DataChangeEvent.ofBooks(DataChangeEvent.Type.UPDATED, List.of(book)));
+        } else {
+            notWritten(List.of(book.getId()));
+        }
+    }
+
+    /**
+     * Adds several books in a single transaction using the configured batch size.
+     *
+     * @param books the books to add; their IDs are set on success
+     * @return the generated IDs in iteration order, or an empty array if the transaction failed
+     * @see #addBooks(Collection, int)
+     */
+    public int[] addBooks(Collection<Book> books) {
+        return addBooks(books, pool.getConfig().getBatchSize());
+    }
+
+    /**
+     * Adds several books in a single transaction, sending them to SQLite in JDBC batches.
+     * <p>
+     * Either all books are stored or none. The IDs of a batch are derived from
+     * {@code last_insert_rowid()}: with {@code AUTOINCREMENT} and the single writer
+     * connection holding the transaction, the rows of one batch receive consecutive IDs.
+     *
+     * @param books     the books to add; their IDs are set on success
+     * @param chunkSize number of rows per JDBC batch
+     * @return the generated IDs in iteration order, or an empty array if the transaction failed
+     */
+    public int[] addBooks(Collection<Book> books, int chunkSize) {
+        if (books.isEmpty()) return new int[0];
+        long start = metrics.start();
+        int[] ids = new int[books.size()];
+
+        try {
+            writes.submit(pc -> {
+                resolveGenres(pc, books);
+                PreparedStatement pstmt = pc.prepare(INSERT_SQL);
+                List<Book> chunk = new ArrayList<>(Math.min(chunkSize, books.size()));
+                int next = 0;
+                for (Book book : books) {
+                    setColumns(pstmt, book, genres.idOf(book.getGenre()));
+                    pstmt.addBatch();
+                    chunk.add(book);
+                    if (chunk.size() == chunkSize) {
+                        next = flushInserts(pc, pstmt, chunk, ids, next);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    flushInserts(pc, pstmt, chunk, ids, next);
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            metrics.failed("addBooks", start, e);
+            e.printStackTrace();
+            return new int[0];
+        }
+        metrics.succeeded("addBooks", start, ids.length);
+
+        int i = 0;
+        for (Book book : books) {
+            book.setId(ids[i++]);
+        }
+        publish(DataChangeEvent.ofBooks(DataChangeEvent.Type.INSERTED, new ArrayList<>(books)));
+        return ids;
+    }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Updates several books in a single transaction using the configured batch size.
+     *
+     * @param books the books to update, identified by their IDs
+     * @return the number of rows updated for each book in iteration order: 1, or 0 if the book
+     *         no longer exists or the transaction failed
+     * @see #updateBooks(Collection, int)
+     */
+    public int[] updateBooks(Collection<Book> books) {
+        return updateBooks(books, pool.getConfig().getBatchSize());
+    }
 
-            pstmt.setInt(1, isFavorite ? 1 : 0);
-            pstmt.setInt(2, bookId);
-            pstmt.executeUpdate();
+    /**
+     * Updates several books in a single transaction, sending them to SQLite in JDBC batches.
+     * <p>
+     * Books that no longer exist are skipped; the others are still written and published.
+     *
+     * @param books     the books to update, identified by their IDs
+     * @param chunkSize number of rows per JDBC batch
+     * @return the number of rows updated for each book in iteration order: 1, or 0 if the book
+     *         no longer exists or the transaction failed
+     */
+    public int[] updateBooks(Collection<Book> books, int chunkSize) {
+        if (books.isEmpty()) return new int[0];
+        long start = metrics.start();
+        int[] counts = new int[books.size()];
 
+        try {
+            writes.submit(pc -> {
+                resolveGenres(pc, books);
+                PreparedStatement pstmt = pc.prepare(UPDATE_SQL);
+                int pending = 0;
+                int done = 0;
+                for (Book book : books) {
+                    setColumns(pstmt, book, genres.idOf(book.getGenre()));
+                    pstmt.setInt(8, book.getId());
+                    pstmt.addBatch();
+                    if (++pending == chunkSize) {
+                        done = copyCounts(pstmt.executeBatch(), counts, done);
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    copyCounts(pstmt.executeBatch(), counts, done);
+                }
+                return null;
+            });
         } catch (SQLException e) {
+            metrics.failed("updateBooks", start, e);
             e.printStackTrace();
+            notWritten(idsOf(books));
+            return new int[books.size()];
         }
+
+        List<Book> updated = new ArrayList<>(books.size());
+        List<Integer> missing = new ArrayList<>();
+        int i = 0;
+        for (Book book : books) {
+            if (counts[i++] > 0) {
+                updated.add(book);
+            } else {
+                missing.add(book.getId());
+            }
+        }
+        metrics.succeeded("updateBooks", start, updated.size());
+        if (!missing.isEmpty()) notWritten(missing);
+        if (!updated.isEmpty()) publish(DataChangeEvent.ofBooks(DataChangeEvent.Type.UPDATED, updated));
+        return counts;
     }
+
+    /**
+     * Deletes several books in a single transaction using the configured batch size.
+     *
+     * @param ids the IDs of the books to delete
+     * @return the number of deleted rows, or 0 if the transaction failed
+     * @see #deleteBooks(Collection, int)
+     */
+    public int deleteBooks(Collection<Integer> ids) {
+        return deleteBooks(ids, pool.getConfig().getBatchSize());
+    }
+
+    /**
+     * Deletes several books in a single transaction, sending them to SQLite in JDBC batches.
+     * Only the IDs of books that existed are published.
+     *
+     * @param ids       the IDs of the books to delete
+     * @param chunkSize number of rows per JDBC batch
+     * @return the number of deleted rows, or 0 if the transaction failed
+     */
+    public int deleteBooks(Collection<Integer> ids, int chunkSize) {
+        if (ids.isEmpty()) return 0;
+        long start = metrics.start();
+        int[] counts = new int[ids.size()];
+
+        try {
+            writes.submit(pc -> {
+                PreparedStatement pstmt = pc.prepare(DELETE_SQL);
+                int pending = 0;
+                int done = 0;
+                for (int id : ids) {
+                    pstmt.setInt(1, id);
+                    pstmt.addBatch();
+                    if (++pending == chunkSize) {
+                        done = copyCounts(pstmt.executeBatch(), counts, done);
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    copyCounts(pstmt.executeBatch(), counts, done);
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            metrics.failed("deleteBooks", start, e);
+            e.printStackTrace();
+            return 0;
+        }
+
+        List<Integer> deleted = new ArrayList<>(ids.size());
+        int i = 0;
+        for (int id : ids) {
+            if (counts[i++] > 0) deleted.add(id);
+        }
+        metrics.succeeded("deleteBooks", start, deleted.size());
+        if (!deleted.isEmpty()) {
+            publish(DataChangeEvent.ofIds(DataChangeEvent.Type.DELETED, deleted));
+        }
+        return deleted.size();
+    }
+
+    /**
+     * Called on the thread that requested a write, after the write has committed and before it
+     * is published. Subclasses override this to drop state derived from the changed rows.
+     *
+     * @param event the committed change
+     */
+    protected void committed(DataChangeEvent event) {
+    }
+
+    /**
+     * Called on the thread that requested an update when it failed or changed no row. The
+     * caller may already have edited its {@link Book} instances, so subclasses override this
+     * to drop state that could hold those edits.
+     *
+     * @param ids the IDs of the books that were not written
+     */
+    protected void notWritten(List<Integer> ids) {
+    }
+
+    /**
+     * Returns the operation metrics of this DAO, which record nothing unless enabled in the configuration.
+     *
+     * @return the metrics
+     */
+    public DaoMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the queue that serialises this DAO's writes, e.g. to read how they were grouped.
+     *
+     * @return the write queue
+     */
+    public WriteQueue getWriteQueue() {
+        return writes;
+    }
+
+    /**
+     * Returns the bus on which committed writes of this DAO are published.
+     *
+     * @return the change bus
+     */
+    public ChangeBus getChangeBus() {
+        return changes;
+    }
+
+    /**
+     * Returns the genre dictionary shared by all books read through this DAO.
+     *
+     * @return the dictionary of stored genres
+     */
+    public GenreDictionary getGenres() {
+        return genres;
+    }
+
+    private void publish(DataChangeEvent event) {
+        committed(event);
+        changes.publish(event);
+    }
+
+    /**
+     * Closes all pooled connections and unregisters the metrics. The DAO cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        writes.close();
+        metrics.close();
+        pool.close();
+    }
+
+    /**
+     * Creates a {@link Book} from the current row of a result set.
+     *
+     * @param rs     the result set positioned on a row with the columns of the books table
+     * @param genres dictionary that translates the genre ID into its shared name
+     * @return the mapped book
+     * @throws SQLException if a column cannot be read
+     */
+    static Book mapRow(ResultSet rs, GenreDictionary genres) throws SQLException {
+        int genreId = rs.getInt("genre_id");
+        String genre = rs.wasNull() ? null : genres.resolveName(genreId, rs.getStatement().getConnection());
+        return new Book(
+            rs.getInt("id"),
+            rs.getString("title"),
+            rs.getString("author"),
+            genre,
+            rs.getInt("favorite") == 1
+        );
+    }
+
+    /**
+     * Converts free text into an FTS5 query that requires every word, quoting each word
+     * so that FTS5 operators in user input are taken literally.
+     *
+     * @param keyword the user's input
+     * @param prefix  true to match words as token prefixes
+     * @return the MATCH expression, or null if the input contains no words
+     */
+    static String toFtsQuery(String keyword, boolean prefix) {
+        if (keyword == null) return null;
+        StringBuilder query = new StringBuilder();
+        for (String word : keyword.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (query.length() > 0) query.append(' ');
+            query.append('"').append(word).append('"');
+            if (prefix) query.append('*');
+        }
+        return query.length() == 0 ? null : query.toString();
+    }
+
+    /**
+     * Looks up or creates the genre ID of a name.
+     *
+     * @return the ID, or null for a book without genre
+     */
+    private Integer genreId(PooledConnection pc, String name) throws SQLException {
+        return name == null ? null : genres.resolveId(name, pc.getConnection());
+    }
+
+    /**
+     * Stores and caches every genre of the books before the batch writes its rows, so that the
+     * rows can take their genre IDs from the dictionary. Runs inside the write's savepoint; if
+     * the write rolls back, the write queue reloads the dictionary before the next write.
+     */
+    private void resolveGenres(PooledConnection pc, Collection<Book> books) throws SQLException {
+        for (Book book : books) {
+            genreId(pc, book.getGenre());
+        }
+    }
+
+    private static List<Integer> idsOf(Collection<Book> books) {
+        List<Integer> ids = new ArrayList<>(books.size());
+        for (Book book : books) {
+            ids.add(book.getId());
+        }
+        return ids;
+    }
+
+    private static PreparedStatement bind(PooledConnection pc, BookQuery.Sql sql) throws SQLException {
+        PreparedStatement pstmt = pc.prepare(sql.text);
+        for (int i = 0; i < sql.params.size(); i++) {
+            pstmt.setObject(i + 1, sql.params.get(i));
+        }
+        return pstmt;
+    }
+
+    /**
+     * Binds the columns of a book, including the sort keys, to parameters 1 to 7 of an insert or update.
+     */
+    private static void setColumns(PreparedStatement pstmt, Book book, Integer genreId) throws SQLException {
+        pstmt.setString(1, book.getTitle());
+        pstmt.setString(2, book.getAuthor());
+        setGenreId(pstmt, 3, genreId);
+        pstmt.setInt(4, book.isFavorite() ? 1 : 0);
+        pstmt.setBytes(5, BookOrder.collationKey(book.getTitle()));
+        pstmt.setBytes(6, BookOrder.collationKey(book.getAuthor()));
+        pstmt.setBytes(7, BookOrder.collationKey(book.getGenre()));
+    }
+
+    private static void setGenreId(PreparedStatement pstmt, int index, Integer genreId) throws SQLException {
+        if (genreId == null) {
+            pstmt.setNull(index, Types.INTEGER);
+        } else {
+            pstmt.setInt(index, genreId);
+        }
+    }
+
+    private static int flushInserts(PooledConnection pc, PreparedStatement pstmt,
+                                    List<Book> chunk, int[] ids, int next) throws SQLException {
+        pstmt.executeBatch();
+        int lastId;
+        try (ResultSet rs = pc.prepare(LAST_ID_SQL).executeQuery()) {
+            rs.next();
+            lastId = rs.getInt(1);
+        }
+        int firstId = lastId - chunk.size() + 1;
+        for (int i = 0; i < chunk.size(); i++) {
+            ids[next++] = firstId + i;
+        }
+        chunk.clear();
+        return next;
+    }
+
+    private static int copyCounts(int[] batch, int[] counts, int offset) {
+        for (int c : batch) {
+            counts[offset++] = Math.max(c, 0);
+        }
+        return offset;
+    }
+
 }
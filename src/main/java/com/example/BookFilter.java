@@ -0,0 +1,117 @@
+package com.example;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * The keyword, genre and "favorites only" filter of the book list, and the order of the results.
+ * <p>
+ * Instances are immutable snapshots of the filter controls and the sorted column, so they can
+ * be handed to a background thread and evaluated without touching Swing components.
+ */
+public class BookFilter {
+    /** Genre value that matches every genre. */
+    public static final String ANY_GENRE = "-";
+
+    private final String keyword;
+    private final String genre;
+    private final boolean favoritesOnly;
+    private final String lowerKeyword;
+    private final BookOrder order;
+
+    /**
+     * Constructs a filter.
+     *
+     * @param keyword       substring to look for in title, author or genre; empty for any
+     * @param genre         genre to match exactly, or {@link #ANY_GENRE}
+     * @param favoritesOnly true to keep only favorite books
+     */
+    public BookFilter(String keyword, String genre, boolean favoritesOnly) {
+        this(keyword, genre, favoritesOnly, BookOrder.ID);
+    }
+
+    /**
+     * Constructs a filter whose results are sorted.
+     *
+     * @param keyword       substring to look for in title, author or genre; empty for any
+     * @param genre         genre to match exactly, or {@link #ANY_GENRE}
+     * @param favoritesOnly true to keep only favorite books
+     * @param order         the order of the results
+     */
+    public BookFilter(String keyword, String genre, boolean favoritesOnly, BookOrder order) {
+        this.keyword = keyword == null ? "" : keyword.trim();
+        this.genre = genre == null ? ANY_GENRE : genre;
+        this.favoritesOnly = favoritesOnly;
+        this.lowerKeyword = this.keyword.toLowerCase(Locale.ROOT);
+        this.order = order;
+    }
+
+    /** @return the keyword, trimmed */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /** @return the genre, or {@link #ANY_GENRE} */
+    public String getGenre() {
+        return genre;
+    }
+
+    /** @return true if only favorite books are kept */
+    public boolean isFavoritesOnly() {
+        return favoritesOnly;
+    }
+
+    /** @return the order of the results */
+    public BookOrder getOrder() {
+        return order;
+    }
+
+    /** @return true if the filter keeps every book, whatever the order */
+    public boolean isEmpty() {
+        return keyword.isEmpty() && genre.equals(ANY_GENRE) && !favoritesOnly;
+    }
+
+    /**
+     * Tests a single book against the filter, with the same semantics as {@link #apply}.
+     *
+     * @param book the book to test
+     * @return true if the book passes the filter
+     */
+    public boolean matches(Book book) {
+        return (contains(book.getTitle()) || contains(book.getAuthor()) || contains(book.getGenre()))
+            && (genre.equals(ANY_GENRE) || genre.equals(book.getGenre()))
+            && (!favoritesOnly || book.isFavorite());
+    }
+
+    private boolean contains(String field) {
+        return field != null && field.toLowerCase(Locale.ROOT).contains(lowerKeyword);
+    }
+
+    /**
+     * Converts the filter into a database query with substring keyword matching.
+     *
+     * @return a query that selects the same books in the same order
+     */
+    public BookQuery toQuery() {
+        BookQuery query = new BookQuery();
+        query.setOrder(order);
+        query.setKeyword(keyword);
+        query.setGenre(genre.equals(ANY_GENRE) ? null : genre);
+        query.setFavoritesOnly(favoritesOnly);
+        return query;
+    }
+
+    /**
+     * Applies the filter to the books of an index.
+     *
+     * @param index the indexed books
+     * @return the matching books in the filter's order
+     */
+    public List<Book> apply(BookSearchIndex index) {
+        return index.search(keyword, order).stream()
+            .filter(b -> genre.equals(ANY_GENRE) || genre.equals(b.getGenre()))
+            .filter(b -> !favoritesOnly || b.isFavorite())
+            .collect(Collectors.toList());
+    }
+}
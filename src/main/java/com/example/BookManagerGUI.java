@@ -3,16 +3,40 @@ package com.example;
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.JTableHeader;
+import javax.swing.table.TableCellRenderer;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * GUI for managing a collection of books.
- * Supports adding, deleting, filtering, and genre management.
+ * Supports adding, deleting, filtering, sorting by column, and genre management.
  */
 public class BookManagerGUI extends JFrame {
+    /**
+     * Time from the start of the constructor within which the first page should be painted;
+     * later startup milestones are logged as warnings. Set with {@code bookmanager.startup.budgetMillis}.
+     */
+    public static final long STARTUP_BUDGET_MILLIS = Long.getLong("bookmanager.startup.budgetMillis", 1000);
+
+    /** The sort key of each table column. */
+    private static final BookQuery.SortKey[] COLUMN_SORT_KEYS = {
+        BookQuery.SortKey.TITLE, BookQuery.SortKey.AUTHOR, BookQuery.SortKey.GENRE, BookQuery.SortKey.FAVORITE
+    };
+
     private JTextField titleField;
     private JTextField authorField;
     private JTextField searchField;
@@ -21,23 +45,52 @@ public class BookManagerGUI extends JFrame {
     private JCheckBox favoriteFilter;
     private JButton resetButton;
     private JButton manageGenresButton;
+    private JButton addButton;
+    private JButton deleteButton;
+    private JMenuItem importItem;
+    private JProgressBar progressBar;
 
     private BookTableModel tableModel;
+    private PagedBookTableModel pagedModel;
     private JTable bookTable;
 
+    private JLabel statusLabel;
+
     private BookDAO dao;
-    private List<Book> allBooks;
+    private SearchScheduler<BookFilter, List<Book>> searchScheduler;
+    private BookUpdateQueue updateQueue;
+    private BookSearcher searcher;
+    private SnapshotStore snapshots;
+    // The filter of the last search; only accessed on the EDT
+    private BookFilter activeFilter;
+    // Changed by clicking a column header
+    private BookOrder order = BookOrder.ID;
+    private final ChangeBus.Listener bookListener = this::loadChanges;
+    // Runs the GUI's database work off the EDT in submission order: writes, flushes of the
+    // update queue, and reading back the books of changes that only carry IDs
+    private final ExecutorService changeLoader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "book-change-loader");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ChangeBus.Listener genreListener = events -> reloadGenres();
+    private final StartupTimer startup;
+    // Set on the EDT by the first paint of the paged model
+    private boolean firstPagePainted;
 
     /**
-     * Constructs the main GUI for the Book Manager application.
+     * Constructs the main GUI for the Book Manager application and starts loading the books.
+     * <p>
+     * The window is shown right away with its controls disabled. Opening the database, which
+     * creates or upgrades the schema, and loading the first page of rows run on a background
+     * thread; the table and the controls are enabled as soon as that page is ready. Genres and
+     * the catalogue snapshot for searching follow in the background, with a progress bar in
+     * the status line. Each phase is timed by a {@link StartupTimer}.
      */
     public BookManagerGUI() {
         super("Book Manager");
-        dao = new BookDAO();
-
-        // Load genres from XML
-        List<String> genres = GenreLoader.loadGenres();
-        genres.add(0, "-");
+        startup = new StartupTimer(STARTUP_BUDGET_MILLIS);
+        StartupTimer.Phase windowPhase = startup.phase("window");
 
         // Top panel for filtering
         JPanel searchPanel = new JPanel();
@@ -48,7 +101,8 @@ public class BookManagerGUI extends JFrame {
             public void changedUpdate(DocumentEvent e) { searchBooks(); }
         });
 
-        genreFilterBox = new JComboBox<>(genres.toArray(new String[0]));
+        // The genres are filled in once they are loaded
+        genreFilterBox = new JComboBox<>(new String[] {BookFilter.ANY_GENRE});
         genreFilterBox.addActionListener(e -> searchBooks());
 
         favoriteFilter = new JCheckBox("Favorites only");
@@ -63,11 +117,7 @@ public class BookManagerGUI extends JFrame {
         });
 
         manageGenresButton = new JButton("Manage Genres");
-        manageGenresButton.addActionListener(e -> {
-            new GenreManagerDialog(this).setVisible(true);
-            reloadGenres();
-            refreshBookList();
-        });
+        manageGenresButton.addActionListener(e -> new GenreManagerDialog(this).setVisible(true));
 
         searchPanel.add(new JLabel("Keyword:"));
         searchPanel.add(searchField);
@@ -80,9 +130,9 @@ public class BookManagerGUI extends JFrame {
         JPanel inputPanel = new JPanel(new GridLayout(4, 2));
         titleField = new JTextField(15);
         authorField = new JTextField(15);
-        genreInputBox = new JComboBox<>(genres.subList(1, genres.size()).toArray(new String[0]));
+        genreInputBox = new JComboBox<>();
 
-        JButton addButton = new JButton("Add Book");
+        addButton = new JButton("Add Book");
         addButton.addActionListener(this::addBook);
 
         inputPanel.add(new JLabel("Title:"));
@@ -94,31 +144,238 @@ public class BookManagerGUI extends JFrame {
         inputPanel.add(new JLabel());
         inputPanel.add(addButton);
 
-        // Table for books
-        allBooks = dao.getAllBooks();
-        tableModel = new BookTableModel(allBooks, dao);
-        bookTable = new JTable(tableModel);
+        // Table for books: an empty model until the first page is loaded
+        bookTable = new JTable(new BookTableModel(List.of(), null)) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                if (pagedModel != null && getModel() == pagedModel && !firstPagePainted) {
+                    firstPagePainted = true;
+                    startup.milestone("first page painted");
+                }
+            }
+        };
+        installSortableHeader(bookTable.getTableHeader());
         JScrollPane tableScrollPane = new JScrollPane(bookTable);
+        tableScrollPane.getViewport().addChangeListener(e -> prefetchVisibleRows());
 
-        // Bottom delete button
-        JButton deleteButton = new JButton("Delete Selected");
+        // Bottom delete button, status line and startup progress
+        deleteButton = new JButton("Delete Selected");
         deleteButton.addActionListener(this::deleteSelectedBook);
+        statusLabel = new JLabel("Opening database...");
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(0, 8, 0, 8));
+        progressBar = new JProgressBar(0, StartupWorker.STEPS);
+        progressBar.setStringPainted(true);
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(progressBar, BorderLayout.EAST);
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(deleteButton, BorderLayout.CENTER);
+        bottomPanel.add(statusPanel, BorderLayout.EAST);
+
+        // Menu bar
+        JMenuBar menuBar = new JMenuBar();
+        JMenu fileMenu = new JMenu("File");
+        importItem = new JMenuItem("Import Catalog...");
+        importItem.addActionListener(this::importCatalog);
+        fileMenu.add(importItem);
+        menuBar.add(fileMenu);
+        setJMenuBar(menuBar);
 
         // Layout
         setLayout(new BorderLayout());
         add(searchPanel, BorderLayout.NORTH);
         add(inputPanel, BorderLayout.WEST);
         add(tableScrollPane, BorderLayout.CENTER);
-        add(deleteButton, BorderLayout.SOUTH);
+        add(bottomPanel, BorderLayout.SOUTH);
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                shutDown();
+            }
+        });
         setSize(800, 500);
         setLocationRelativeTo(null);
+        setControlsEnabled(false);
+        setGenreControlsEnabled(false);
         setVisible(true);
+        windowPhase.close();
+        startup.milestone("window shown");
+
+        new StartupWorker(new DatabaseConfig()).execute();
     }
 
     /**
-     * Adds a new book to the list and database.
+     * Loads the database, the first page, the genres and the snapshot in the background and
+     * installs each in the window as soon as it is ready.
+     */
+    private class StartupWorker extends SwingWorker<Void, Runnable> {
+        /** Number of progress steps. */
+        static final int STEPS = 4;
+
+        private final DatabaseConfig config;
+
+        StartupWorker(DatabaseConfig config) {
+            this.config = config;
+        }
+
+        @Override
+        @SuppressWarnings("try") // The phases are only opened to be timed until closed
+        protected Void doInBackground() {
+            BookDAO opened;
+            try (StartupTimer.Phase phase = startup.phase("open database")) {
+                opened = new CachingBookDAO(config);
+            }
+            step(1, "Loading books...");
+
+            PagedBookTableModel paged;
+            try (StartupTimer.Phase phase = startup.phase("first page")) {
+                paged = new PagedBookTableModel(opened);
+                // Load the first block here rather than leaving the first paint with empty cells
+                if (paged.getRowCount() > 0) paged.getBookAt(0);
+            }
+            publish(() -> showFirstPage(opened, paged));
+            step(2, "Loading genres...");
+
+            try (StartupTimer.Phase phase = startup.phase("genres")) {
+                GenreLoader.getGenres();
+            }
+            publish(() -> {
+                reloadGenres();
+                setGenreControlsEnabled(true);
+            });
+            step(3, "Loading search snapshot...");
+
+            if (config.getSnapshotFile() != null) {
+                SnapshotStore store;
+                BookSnapshot snapshot;
+                try (StartupTimer.Phase phase = startup.phase("snapshot")) {
+                    store = new SnapshotStore(opened, Path.of(config.getSnapshotFile()),
+                        SnapshotStore.DEFAULT_DELAY_MILLIS, saved -> {
+                            // Read the change count here on the snapshot writer rather than on the EDT
+                            boolean current = saved.getChangeCount() == opened.getChangeCount();
+                            SwingUtilities.invokeLater(() -> snapshotSaved(saved, current));
+                        });
+                    snapshot = store.loadFresh();
+                }
+                boolean current = snapshot != null && snapshot.getChangeCount() == opened.getChangeCount();
+                publish(() -> {
+                    snapshots = store;
+                    if (snapshot != null) snapshotSaved(snapshot, current);
+                });
+            }
+            step(STEPS, "Ready");
+            return null;
+        }
+
+        private void step(int done, String text) {
+            publish(() -> {
+                progressBar.setValue(done);
+                progressBar.setString(text);
+            });
+        }
+
+        @Override
+        protected void process(List<Runnable> steps) {
+            steps.forEach(Runnable::run);
+        }
+
+        @Override
+        protected void done() {
+            progressBar.setVisible(false);
+            try {
+                get();
+            } catch (InterruptedException | ExecutionException ex) {
+                statusLabel.setText("Startup failed");
+                JOptionPane.showMessageDialog(BookManagerGUI.this, "Could not load the books: " + ex.getCause(),
+                    "Startup", JOptionPane.ERROR_MESSAGE);
+            }
+            startup.milestone("startup complete");
+            statusLabel.setToolTipText("<html><pre>" + startup.getSummary() + "</pre></html>");
+            startup.finish();
+        }
+    }
+
+    /**
+     * Installs the DAO and the paged model with its first page, and enables the controls.
+     * Runs on the event dispatch thread.
+     *
+     * @param opened the DAO
+     * @param paged  the paged model of all books
+     */
+    private void showFirstPage(BookDAO opened, PagedBookTableModel paged) {
+        dao = opened;
+        updateQueue = new BookUpdateQueue(dao, 500, 100, this::reportFailedUpdates);
+        searcher = new BookSearcher(dao, updateQueue::flush);
+        searchScheduler = new SearchScheduler<>(searcher::filter, this::showFilteredBooks, 150);
+
+        // The unfiltered view pages rows in from the database on demand, filtered views are
+        // answered by the snapshot or by an in-memory index that is built on first use
+        pagedModel = paged;
+        tableModel = new BookTableModel(List.of(), dao);
+        pagedModel.setUpdateQueue(updateQueue);
+        tableModel.setUpdateQueue(updateQueue);
+        pagedModel.addTableModelListener(this::reindexEditedBook);
+        tableModel.addTableModelListener(this::reindexEditedBook);
+
+        // Writes from any source reach the views as change events instead of reloads
+        dao.getChangeBus().subscribe(bookListener, changeLoader);
+        GenreLoader.getChangeBus().subscribe(genreListener, SwingUtilities::invokeLater);
+
+        setControlsEnabled(true);
+        searchBooks();
+        startup.milestone("first page shown");
+    }
+
+    /**
+     * Enables or disables the controls that need the database.
+     *
+     * @param enabled true to enable them
+     */
+    private void setControlsEnabled(boolean enabled) {
+        for (JComponent component : new JComponent[] {searchField, favoriteFilter, resetButton, titleField,
+                authorField, deleteButton, importItem, bookTable}) {
+            component.setEnabled(enabled);
+        }
+    }
+
+    /**
+     * Enables or disables the controls that need the genres.
+     *
+     * @param enabled true to enable them
+     */
+    private void setGenreControlsEnabled(boolean enabled) {
+        // Adding a book needs the database as well, which is loaded first
+        for (JComponent component : new JComponent[] {genreFilterBox, genreInputBox, addButton, manageGenresButton}) {
+            component.setEnabled(enabled);
+        }
+    }
+
+    /**
+     * Stops the background work and closes the database. Parts that are not loaded yet are skipped.
+     */
+    private void shutDown() {
+        if (dao == null) return;
+        dao.getChangeBus().unsubscribe(bookListener);
+        GenreLoader.getChangeBus().unsubscribe(genreListener);
+        changeLoader.shutdown();
+        try {
+            // Let adds and deletes that were already submitted reach the database
+            changeLoader.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchScheduler.close();
+        if (snapshots != null) snapshots.close();
+        updateQueue.close();
+        pagedModel.close();
+        dao.close();
+    }
+
+    /**
+     * Adds a new book to the database. The row appears through the change bus.
      *
      * @param e the action event from the button
      */
@@ -127,8 +384,8 @@ public class BookManagerGUI extends JFrame {
         String author = authorField.getText().trim();
         String genre = (String) genreInputBox.getSelectedItem();
         if (!title.isEmpty() && !author.isEmpty()) {
-            dao.addBook(new Book(title, author, genre));
-            refreshBookList();
+            Book book = new Book(title, author, genre);
+            changeLoader.execute(() -> dao.addBook(book));
             titleField.setText("");
             authorField.setText("");
             genreInputBox.setSelectedIndex(0);
@@ -138,55 +395,341 @@ public class BookManagerGUI extends JFrame {
     }
 
     /**
-     * Deletes the selected book from the table and database.
+     * Deletes the selected books from the database in one transaction, off the event dispatch
+     * thread. The rows disappear through the change bus. Selected rows that are still loading
+     * are skipped, since their book is not known yet.
      *
      * @param e the action event from the button
      */
     private void deleteSelectedBook(ActionEvent e) {
-        int selectedRow = bookTable.getSelectedRow();
-        if (selectedRow >= 0) {
-            Book book = tableModel.getBookAt(selectedRow);
-            dao.deleteBook(book.getId());
-            refreshBookList();
+        int[] selectedRows = bookTable.getSelectedRows();
+        if (selectedRows.length > 0) {
+            AbstractBookTableModel model = (AbstractBookTableModel) bookTable.getModel();
+            List<Integer> ids = new ArrayList<>(selectedRows.length);
+            for (int row : selectedRows) {
+                Book book = model.peekBookAt(bookTable.convertRowIndexToModel(row));
+                if (book != null) ids.add(book.getId());
+            }
+            if (ids.isEmpty()) return;
+            changeLoader.execute(() -> {
+                // Write pending edits first so that none of them lands after the delete
+                updateQueue.flush();
+                dao.deleteBooks(ids);
+            });
         } else {
             JOptionPane.showMessageDialog(this, "Please select a book to delete.");
         }
     }
 
+    /**
+     * Imports a CSV or JSONL catalog file chosen by the user in the background,
+     * showing progress and a summary of rejected rows.
+     *
+     * @param e the action event from the menu item
+     */
+    private void importCatalog(ActionEvent e) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("Catalog files (CSV, JSONL)", "csv", "jsonl", "ndjson", "json"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        Path file = chooser.getSelectedFile().toPath();
+        CatalogImporter importer = new CatalogImporter(dao);
+        ProgressMonitor monitor = new ProgressMonitor(this, "Importing " + file.getFileName(), "", 0, 1000);
+        monitor.setMillisToDecideToPopup(200);
+
+        new SwingWorker<ImportReport, ImportReport>() {
+            @Override
+            protected ImportReport doInBackground() throws Exception {
+                return importer.importFile(file, report -> publish(report));
+            }
+
+            @Override
+            protected void process(List<ImportReport> reports) {
+                if (monitor.isCanceled()) {
+                    importer.cancel();
+                }
+                ImportReport latest = reports.get(reports.size() - 1);
+                monitor.setProgress((int) (latest.getFractionDone() * 1000));
+                monitor.setNote(latest.toString());
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                try {
+                    ImportReport report = get();
+                    StringBuilder message = new StringBuilder("Import finished: ").append(report);
+                    report.getErrors().stream().limit(10)
+                        .forEach(err -> message.append("\n  rejected ").append(err));
+                    JOptionPane.showMessageDialog(BookManagerGUI.this, message.toString());
+                } catch (InterruptedException | ExecutionException ex) {
+                    JOptionPane.showMessageDialog(BookManagerGUI.this, "Import failed: " + ex.getMessage(),
+                        "Import", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
     /**
      * Filters the book list based on keyword, genre, and favorite flag.
+     * <p>
+     * Without any filter the table shows the paged model. Otherwise the filter is handed to
+     * the search scheduler, which debounces typing and evaluates it off the event dispatch thread;
+     * the books are only loaded and indexed once the user actually filters.
      */
     private void searchBooks() {
-        String keyword = searchField.getText().trim().toLowerCase();
         String genre = (String) genreFilterBox.getSelectedItem();
-        if (genre == null) return;
+        if (genre == null || searchScheduler == null) return;
+
+        BookFilter filter = new BookFilter(searchField.getText(), genre, favoriteFilter.isSelected(), order);
+        activeFilter = filter;
+        if (filter.isEmpty()) {
+            searchScheduler.cancel();
+            showModel(pagedModel);
+            updateStatus();
+            return;
+        }
+        searchScheduler.submit(filter);
+    }
 
-        boolean onlyFav = favoriteFilter.isSelected();
+    /**
+     * Sorts the table by a column, cycling through ascending, descending and insertion order
+     * on repeated clicks. The unfiltered view reads its rows from the database in the new
+     * order once the queued edits are written, which happens off the event dispatch thread;
+     * a filtered view is searched again.
+     *
+     * @param column the model index of the clicked column
+     */
+    private void sortBy(int column) {
+        if (pagedModel == null || column < 0) return;
+        BookQuery.SortKey key = COLUMN_SORT_KEYS[column];
+        if (order.getSortKey() != key) {
+            order = new BookOrder(key, false);
+        } else if (!order.isDescending()) {
+            order = new BookOrder(key, true);
+        } else {
+            order = BookOrder.ID;
+        }
+        bookTable.getTableHeader().repaint();
+        BookOrder next = order;
+        // Queued edits must reach the database before it is read in the new order
+        changeLoader.execute(() -> {
+            updateQueue.flush();
+            SwingUtilities.invokeLater(() -> {
+                pagedModel.setOrder(next);
+                searchBooks();
+            });
+        });
+    }
 
-        List<Book> filtered = allBooks.stream()
-            .filter(b -> b.getTitle().toLowerCase().contains(keyword)
-                      || b.getAuthor().toLowerCase().contains(keyword)
-                      || b.getGenre().toLowerCase().contains(keyword))
-            .filter(b -> genre.equals("-") || b.getGenre().equals(genre))
-            .filter(b -> !onlyFav || b.isFavorite())
-            .collect(Collectors.toList());
+    /**
+     * Sorts by a column when its header is clicked and marks the sorted column with the
+     * look and feel's sort icon. The table has no row sorter: rows arrive sorted from the
+     * database or the search index.
+     *
+     * @param header the table header
+     */
+    private void installSortableHeader(JTableHeader header) {
+        header.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                sortBy(bookTable.convertColumnIndexToModel(header.columnAtPoint(e.getPoint())));
+            }
+        });
+        TableCellRenderer renderer = header.getDefaultRenderer();
+        header.setDefaultRenderer((table, value, selected, focused, row, column) -> {
+            Component component = renderer.getTableCellRendererComponent(table, value, selected, focused, row, column);
+            if (component instanceof JLabel label) {
+                int modelColumn = table.convertColumnIndexToModel(column);
+                boolean sorted = order.getSortKey() == COLUMN_SORT_KEYS[modelColumn];
+                label.setIcon(!sorted ? null
+                    : UIManager.getIcon(order.isDescending() ? "Table.descendingSortIcon" : "Table.ascendingSortIcon"));
+                label.setHorizontalTextPosition(SwingConstants.LEADING);
+            }
+            return component;
+        });
+    }
 
-        tableModel.setBooks(filtered);
+    /**
+     * Shows the result of the latest filter. Runs on the event dispatch thread.
+     *
+     * @param books the matching books
+     */
+    private void showFilteredBooks(List<Book> books) {
+        tableModel.setBooks(books, activeFilter.getOrder());
+        showModel(tableModel);
+        statusLabel.setText(String.format("%d matches (%.0f ms)",
+            books.size(), searchScheduler.getLastLatencyNanos() / 1e6));
     }
 
     /**
-     * Reloads all books from the database and updates the table.
+     * Reads back the books of updates that are only known by ID, such as favorite changes, and
+     * hands the changes to {@link #applyChanges} on the event dispatch thread. Runs on the
+     * change loader thread, so the reads do not block the UI; changes keep their commit order.
+     *
+     * @param events the changes in commit order
+     */
+    private void loadChanges(List<DataChangeEvent> events) {
+        List<DataChangeEvent> loaded = new ArrayList<>(events.size());
+        for (DataChangeEvent event : events) {
+            if (event.getType() == DataChangeEvent.Type.UPDATED && event.getBooks().isEmpty()) {
+                List<Book> books = new ArrayList<>();
+                for (int id : event.getIds()) {
+                    Book book = dao.getBook(id);
+                    if (book != null) books.add(book);
+                }
+                event = DataChangeEvent.ofBooks(DataChangeEvent.Type.UPDATED, books);
+            }
+            loaded.add(event);
+        }
+        SwingUtilities.invokeLater(() -> applyChanges(loaded));
+    }
+
+    /**
+     * Applies committed writes to the search index and both table models without reloading them.
+     * Runs on the event dispatch thread.
+     * <p>
+     * Updates of books that have a newer edit waiting in the update queue are skipped, since the
+     * models already show that edit.
+     *
+     * @param events the changes in commit order, with the books of every update
+     */
+    private void applyChanges(List<DataChangeEvent> events) {
+        BookSearchIndex index = searcher.getIndex();
+        if (index == null) {
+            searcher.invalidate();
+        }
+        if (snapshots != null) snapshots.changed();
+        boolean filtered = activeFilter != null && !activeFilter.isEmpty();
+        for (DataChangeEvent event : events) {
+            switch (event.getType()) {
+                case INSERTED -> {
+                    List<Book> matching = new ArrayList<>();
+                    for (Book book : event.getBooks()) {
+                        if (index != null) index.add(book);
+                        if (filtered && activeFilter.matches(book)) matching.add(book);
+                    }
+                    pagedModel.booksAdded(event.getBooks());
+                    tableModel.addBooks(matching);
+                }
+                case DELETED -> {
+                    if (index != null) event.getIds().forEach(index::remove);
+                    pagedModel.booksDeleted(event.getIds());
+                    tableModel.removeBooks(event.getIds());
+                }
+                case UPDATED -> {
+                    for (Book book : event.getBooks()) {
+                        if (updateQueue.isPending(book.getId())) continue;
+                        if (index != null) index.update(book);
+                        pagedModel.bookUpdated(book);
+                        tableModel.updateBook(book);
+                    }
+                }
+                default -> { }
+            }
+        }
+        updateStatus();
+    }
+
+    /**
+     * Lets the searcher scan a newly written snapshot until the index is loaded, provided no
+     * write has been committed or queued since it was read. Runs on the event dispatch thread.
+     *
+     * @param snapshot the snapshot that was written
+     * @param current  true if the database change count still matched the snapshot's when it
+     *                 was compared on the background thread
+     */
+    private void snapshotSaved(BookSnapshot snapshot, boolean current) {
+        if (current && searcher.getIndex() == null && updateQueue.getPendingCount() == 0) {
+            searcher.setSnapshot(snapshot);
+        }
+    }
+
+    /**
+     * Shows the number of books in the displayed model after an incremental change.
+     */
+    private void updateStatus() {
+        if (bookTable.getModel() == pagedModel) {
+            statusLabel.setText(pagedModel.getRowCount() + " books");
+        } else {
+            statusLabel.setText(tableModel.getRowCount() + " matches");
+        }
+    }
+
+    /**
+     * Reloads all books from the database and updates the table. The queued edits are written
+     * and the books counted off the event dispatch thread.
      */
     private void refreshBookList() {
-        allBooks = dao.getAllBooks();
-        searchBooks();
+        changeLoader.execute(() -> {
+            updateQueue.flush();
+            int count = dao.countBooks();
+            SwingUtilities.invokeLater(() -> {
+                searcher.invalidate();
+                pagedModel.refresh(count);
+                searchBooks();
+            });
+        });
+    }
+
+    /**
+     * Tells the user that queued edits could not be saved and reloads the books from the database.
+     * Runs on the event dispatch thread.
+     *
+     * @param books the books whose update failed
+     */
+    private void reportFailedUpdates(List<Book> books) {
+        JOptionPane.showMessageDialog(this, "Could not save changes to " + books.size() + " book(s).",
+            "Save failed", JOptionPane.ERROR_MESSAGE);
+        refreshBookList();
+    }
+
+    /**
+     * Keeps the search index in sync after a cell edit in either table model.
+     *
+     * @param e the table model event
+     */
+    private void reindexEditedBook(TableModelEvent e) {
+        // Cell edits are single-column updates; block loads and refreshes cover all columns
+        if (e.getType() != TableModelEvent.UPDATE || e.getColumn() == TableModelEvent.ALL_COLUMNS) return;
+        BookSearchIndex index = searcher.getIndex();
+        if (index == null) {
+            searcher.invalidate();
+            return;
+        }
+        AbstractBookTableModel model = (AbstractBookTableModel) e.getSource();
+        index.update(model.getBookAt(e.getFirstRow()));
+    }
+
+    /**
+     * Switches the table to the given model if it is not already shown.
+     *
+     * @param model the model to display
+     */
+    private void showModel(AbstractBookTableModel model) {
+        if (bookTable.getModel() != model) {
+            bookTable.setModel(model);
+        }
+    }
+
+    /**
+     * Asks the paged model to load the rows around the visible part of the table.
+     */
+    private void prefetchVisibleRows() {
+        if (bookTable.getModel() != pagedModel) return;
+        Rectangle visible = bookTable.getVisibleRect();
+        int first = bookTable.rowAtPoint(visible.getLocation());
+        int last = bookTable.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        if (first < 0) return;
+        pagedModel.prefetch(first, last < 0 ? pagedModel.getRowCount() - 1 : last);
     }
 
     /**
-     * Reloads genres from the XML file and updates the combo boxes.
+     * Reloads genres from the genre cache, which re-reads the XML file only if it changed,
+     * and updates the combo boxes.
      */
     public void reloadGenres() {
-        List<String> genres = GenreLoader.loadGenres();
+        List<String> genres = GenreLoader.getGenres();
 
         genreFilterBox.removeAllItems();
         genreFilterBox.addItem("-");
@@ -0,0 +1,186 @@
+package com.example;
+
+import java.text.Collator;
+import java.text.RuleBasedCollator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The order of a book list: a {@link BookQuery.SortKey} and a direction, with the book ID as
+ * tie-breaker in the same direction.
+ * <p>
+ * Text columns are compared by their collation keys ({@link #collationKey(String)}), which
+ * compare as unsigned bytes in the same order as the collator compares the strings. The
+ * database stores the same keys in indexed columns, so a list sorted in memory with
+ * {@link #comparator()} has the order that {@link BookDAO#findBooks(BookQuery)} returns.
+ * The collation is fixed, independent of the default locale, since the stored keys must not
+ * change between runs: case-insensitive, but accents matter. The key bytes still depend on
+ * the JDK's collation tables, so {@link #KEY_VERSION} identifies them and the stored keys are
+ * rebuilt when it changes.
+ */
+public final class BookOrder {
+    /** Insertion order, ascending. */
+    public static final BookOrder ID = new BookOrder(BookQuery.SortKey.ID, false);
+
+    private static final Collator COLLATOR = Collator.getInstance(Locale.ROOT);
+    private static final byte[] NO_KEY = new byte[0];
+    private static final byte[] FAVORITE_KEY = {1};
+
+    static {
+        COLLATOR.setStrength(Collator.SECONDARY);
+        COLLATOR.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+    }
+
+    /**
+     * Identifies the function behind {@link #collationKey(String)}: the collator settings, the
+     * Java feature release and a hash of the collation rules. Keys written under a different
+     * version may not sort consistently with new ones.
+     */
+    public static final String KEY_VERSION = keyVersion();
+
+    private final BookQuery.SortKey sortKey;
+    private final boolean descending;
+
+    /**
+     * Constructs an order.
+     *
+     * @param sortKey    the column to sort by; {@link BookQuery.SortKey#RELEVANCE} is not supported
+     * @param descending true for descending order
+     */
+    public BookOrder(BookQuery.SortKey sortKey, boolean descending) {
+        if (sortKey == BookQuery.SortKey.RELEVANCE) {
+            throw new IllegalArgumentException("relevance is not a column order");
+        }
+        this.sortKey = sortKey;
+        this.descending = descending;
+    }
+
+    /** @return the column sorted by */
+    public BookQuery.SortKey getSortKey() {
+        return sortKey;
+    }
+
+    /** @return true for descending order */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /** @return true for ascending ID order, in which books are stored and appended */
+    public boolean isNatural() {
+        return sortKey == BookQuery.SortKey.ID && !descending;
+    }
+
+    /**
+     * Returns the collation key of a text as stored in the {@code *_key} columns of the books table.
+     *
+     * @param text the text, may be null
+     * @return the key bytes; empty for null, so books without a genre sort first
+     */
+    public static byte[] collationKey(String text) {
+        // RuleBasedCollator.getCollationKey is synchronized, so the collator can be shared
+        return text == null ? NO_KEY : COLLATOR.getCollationKey(text).toByteArray();
+    }
+
+    /**
+     * Returns the key of a book's sort column. Keys compare with {@link Arrays#compareUnsigned(byte[], byte[])}.
+     *
+     * @param book the book
+     * @return the collation key of the title, author or genre, a single byte for the favorite
+     *         flag, or an empty key for ID order
+     */
+    public byte[] keyOf(Book book) {
+        return switch (sortKey) {
+            case TITLE -> collationKey(book.getTitle());
+            case AUTHOR -> collationKey(book.getAuthor());
+            case GENRE -> collationKey(book.getGenre());
+            case FAVORITE -> book.isFavorite() ? FAVORITE_KEY : NO_KEY;
+            default -> NO_KEY;
+        };
+    }
+
+    /**
+     * Returns a comparator for this order. It computes keys on every comparison, so it suits
+     * binary searches and small lists; use {@link #sort(List)} for whole lists.
+     *
+     * @return the comparator
+     */
+    public Comparator<Book> comparator() {
+        Comparator<Book> ascending = (a, b) -> {
+            int c = Arrays.compareUnsigned(keyOf(a), keyOf(b));
+            return c != 0 ? c : Integer.compare(a.getId(), b.getId());
+        };
+        return descending ? ascending.reversed() : ascending;
+    }
+
+    /**
+     * Sorts books into this order, computing each book's key once.
+     *
+     * @param books the books
+     * @return a new sorted list
+     */
+    public List<Book> sort(List<Book> books) {
+        if (sortKey == BookQuery.SortKey.ID) {
+            List<Book> sorted = new ArrayList<>(books);
+            sorted.sort(Comparator.comparingInt(Book::getId));
+            if (descending) Collections.reverse(sorted);
+            return sorted;
+        }
+        Keyed[] keyed = new Keyed[books.size()];
+        for (int i = 0; i < keyed.length; i++) {
+            Book book = books.get(i);
+            keyed[i] = new Keyed(keyOf(book), book);
+        }
+        Arrays.sort(keyed);
+        List<Book> sorted = new ArrayList<>(keyed.length);
+        for (Keyed k : keyed) {
+            sorted.add(k.book);
+        }
+        if (descending) Collections.reverse(sorted);
+        return sorted;
+    }
+
+    private static String keyVersion() {
+        String rules = COLLATOR instanceof RuleBasedCollator rbc ? rbc.getRules() : COLLATOR.getClass().getName();
+        return "root/secondary/canonical;java " + Runtime.version().feature()
+            + ";rules " + Integer.toHexString(rules.hashCode());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BookOrder other && sortKey == other.sortKey && descending == other.descending;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sortKey, descending);
+    }
+
+    @Override
+    public String toString() {
+        return sortKey + (descending ? " desc" : "");
+    }
+
+    /**
+     * A book decorated with its key for sorting.
+     */
+    private static final class Keyed implements Comparable<Keyed> {
+        final byte[] key;
+        final Book book;
+
+        Keyed(byte[] key, Book book) {
+            this.key = key;
+            this.book = book;
+        }
+
+        @Override
+        public int compareTo(Keyed other) {
+            int c = Arrays.compareUnsigned(key, other.key);
+            return c != 0 ? c : Integer.compare(book.getId(), other.book.getId());
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A combined book filter that {@link BookDAO#findBooks(BookQuery)} runs as one SQL statement.
+ * <p>
+ * Every criterion is optional: a keyword matched according to a {@link SearchMode}, an exact
+ * genre, and a favorites-only flag. Results are ordered by a {@link SortKey} and can be paged
+ * with a limit and an offset, or with a keyset cursor after a given book. Genre and favorite
+ * conditions are served by the composite {@code (genre_id, favorite)} index and the
+ * {@code favorite} index; token and prefix keywords by the full-text index. Column orders are
+ * served by the indexes on the stored collation keys (see {@link BookOrder}) and on
+ * {@code favorite}, with the ID as tie-breaker. Only the matching rows are read from the database.
+ */
+public class BookQuery {
+    /** Result order of a query. */
+    public enum SortKey {
+        /** Insertion order. */
+        ID,
+        /** Alphabetically by title. */
+        TITLE,
+        /** Alphabetically by author. */
+        AUTHOR,
+        /** Alphabetically by genre, books without genre first. */
+        GENRE,
+        /** Non-favorites first. */
+        FAVORITE,
+        /** Best full-text matches first; the same as {@link #ID} without a token or prefix keyword. */
+        RELEVANCE
+    }
+
+    private static final String COLUMNS = "b.id, b.title, b.author, b.genre_id, b.favorite";
+
+    private String keyword;
+    private SearchMode searchMode = SearchMode.SUBSTRING;
+    private String genre;
+    private boolean favoritesOnly;
+    private SortKey sortKey = SortKey.ID;
+    private boolean descending;
+    private int limit = -1;
+    private int offset;
+    private Book after;
+
+    /** @return the keyword, or null for any */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /** @param keyword text to match in title, author or genre; null or blank for any */
+    public void setKeyword(String keyword) {
+        this.keyword = keyword == null || keyword.isBlank() ? null : keyword.trim();
+    }
+
+    /** @return how the keyword is matched */
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    /** @param searchMode how the keyword is matched */
+    public void setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+    }
+
+    /** @return the genre to match exactly, or null for any */
+    public String getGenre() {
+        return genre;
+    }
+
+    /** @param genre the genre to match exactly, or null for any */
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    /** @return true if only favorite books are returned */
+    public boolean isFavoritesOnly() {
+        return favoritesOnly;
+    }
+
+    /** @param favoritesOnly true to return only favorite books */
+    public void setFavoritesOnly(boolean favoritesOnly) {
+        this.favoritesOnly = favoritesOnly;
+    }
+
+    /** @return the result order */
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    /** @param sortKey the result order */
+    public void setSortKey(SortKey sortKey) {
+        this.sortKey = sortKey;
+    }
+
+    /** @return true if the order is reversed */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /** @param descending true to reverse the order */
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+
+    /** @return the maximum number of results, or -1 for no limit */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the maximum number of results.
+     *
+     * @param limit the maximum, or -1 for no limit
+     * @throws IllegalArgumentException if the limit is below -1
+     */
+    public void setLimit(int limit) {
+        if (limit < -1) throw new IllegalArgumentException("limit must be -1 or more");
+        this.limit = limit;
+    }
+
+    /** @return the number of leading results skipped */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Sets the number of leading results to skip.
+     *
+     * @param offset the number of skipped results
+     * @throws IllegalArgumentException if the offset is negative
+     */
+    public void setOffset(int offset) {
+        if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+        this.offset = offset;
+    }
+
+    /** @return the book after which results start, or null */
+    public Book getAfter() {
+        return after;
+    }
+
+    /**
+     * Starts the results after the given book in the query's order, so that consecutive pages
+     * are read with an index seek instead of skipping rows with an offset. Not supported for
+     * {@link SortKey#RELEVANCE} order with a full-text keyword.
+     *
+     * @param after the last book of the previous page, or null to start at the first result
+     */
+    public void setAfter(Book after) {
+        this.after = after;
+    }
+
+    /**
+     * Sets the sort key and direction of an order.
+     *
+     * @param order the order
+     */
+    public void setOrder(BookOrder order) {
+        this.sortKey = order.getSortKey();
+        this.descending = order.isDescending();
+    }
+
+    /**
+     * Compiles the query into a parameterised {@code SELECT} of the book columns.
+     *
+     * @param genres dictionary to translate the genre name into its ID
+     * @return the statement and its parameters
+     */
+    Sql toSelect(GenreDictionary genres) {
+        Sql sql = from(genres, "SELECT " + COLUMNS, true);
+        StringBuilder text = new StringBuilder(sql.text);
+        String direction = descending ? " DESC" : "";
+        String column = sortColumn();
+        if (sortKey == SortKey.RELEVANCE && sql.fullText) {
+            if (after != null) throw new IllegalStateException("relevance order cannot start after a book");
+            text.append(" ORDER BY rank").append(direction);
+        } else {
+            text.append(" ORDER BY ");
+            if (column != null) text.append(column).append(direction).append(", ");
+            text.append("b.id").append(direction);
+        }
+        text.append(" LIMIT ? OFFSET ?");
+        sql.params.add(limit);
+        sql.params.add(offset);
+        return new Sql(text.toString(), sql.params, sql.fullText);
+    }
+
+    /**
+     * @return the indexed column of the sort key, or null if the ID alone decides the order
+     */
+    private String sortColumn() {
+        return switch (sortKey) {
+            case TITLE -> "b.title_key";
+            case AUTHOR -> "b.author_key";
+            case GENRE -> "b.genre_key";
+            case FAVORITE -> "b.favorite";
+            default -> null;
+        };
+    }
+
+    /**
+     * Compiles the query into a parameterised {@code SELECT COUNT(*)}, ignoring order and paging.
+     *
+     * @param genres dictionary to translate the genre name into its ID
+     * @return the statement and its parameters
+     */
+    Sql toCount(GenreDictionary genres) {
+        return from(genres, "SELECT COUNT(*)", false);
+    }
+
+    private Sql from(GenreDictionary genres, String select, boolean paged) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        String match = keyword == null || searchMode == SearchMode.SUBSTRING
+            ? null : BookDAO.toFtsQuery(keyword, searchMode == SearchMode.PREFIX);
+
+        StringBuilder text = new StringBuilder(select);
+        if (match != null) {
+            text.append(" FROM books_fts JOIN books b ON b.id = books_fts.rowid");
+            conditions.add("books_fts MATCH ?");
+            params.add(match);
+        } else {
+            text.append(" FROM books b");
+            if (keyword != null) {
+                String like = "%" + escapeLike(keyword) + "%";
+                conditions.add("(b.title LIKE ? ESCAPE '\\' OR b.author LIKE ? ESCAPE '\\' " +
+                               "OR b.genre_id IN (SELECT id FROM genres WHERE name LIKE ? ESCAPE '\\'))");
+                params.add(like);
+                params.add(like);
+                params.add(like);
+            }
+        }
+        if (genre != null) {
+            // An unknown genre binds NULL, which matches no row
+            conditions.add("b.genre_id = ?");
+            params.add(genres.idOf(genre));
+        }
+        if (favoritesOnly) {
+            conditions.add("b.favorite = 1");
+        }
+        if (paged && after != null && !(sortKey == SortKey.RELEVANCE && match != null)) {
+            // Row values compare column by column, which matches the index order
+            String comparison = descending ? " < " : " > ";
+            String column = sortColumn();
+            if (column == null) {
+                conditions.add("b.id" + comparison + "?");
+            } else {
+                conditions.add("(" + column + ", b.id)" + comparison + "(?, ?)");
+                params.add(sortKey == SortKey.FAVORITE ? (Object) (after.isFavorite() ? 1 : 0)
+                                                       : new BookOrder(sortKey, false).keyOf(after));
+            }
+            params.add(after.getId());
+        }
+        if (!conditions.isEmpty()) {
+            text.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        return new Sql(text.toString(), params, match != null);
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * A compiled statement: SQL text with {@code ?} placeholders and the values to bind.
+     */
+    static class Sql {
+        final String text;
+        final List<Object> params;
+        final boolean fullText;
+
+        Sql(String text, List<Object> params, boolean fullText) {
+            this.text = text;
+            this.params = params;
+            this.fullText = fullText;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.example;
+
+import java.util.*;
+
+/**
+ * In-memory trigram index answering case-insensitive substring queries over
+ * the title, author and genre of a collection of books.
+ * <p>
+ * Each book occupies a slot; slots are handed out in insertion order, so results keep the
+ * order in which books were added. For every three-character sequence of a book's lower-cased
+ * text the index keeps a sorted posting list of slots. A query of three or more characters
+ * intersects the posting lists of its trigrams, starting with the shortest, and verifies the few
+ * remaining candidates with {@link String#contains}; shorter queries scan the cached lower-cased
+ * texts. Nothing is lower-cased per book at query time.
+ * <p>
+ * Results can be returned in any {@link BookOrder}. For each sort key that has been asked for,
+ * the index keeps a permutation of the slots sorted by that key; it is built once, by sorting
+ * with each book's collation key computed once, and afterwards kept sorted by inserting and
+ * removing single slots at the position found by binary search. A large result is put in order
+ * by walking the permutation and keeping the matching slots, a small one by sorting it.
+ * <p>
+ * The index is updated incrementally with {@link #add}, {@link #update} and {@link #remove}.
+ * All public methods are synchronized, so the GUI can search on a background thread while
+ * edits are applied on the event dispatch thread.
+ */
+public class BookSearchIndex {
+    /** Separates the fields so that no trigram spans two of them. */
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final List<Book> books = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<BookQuery.SortKey, SortedSlots> orders = new EnumMap<>(BookQuery.SortKey.class);
+    private int removed;
+
+    /**
+     * Constructs an empty index.
+     */
+    public BookSearchIndex() {
+    }
+
+    /**
+     * Constructs an index over the given books.
+     *
+     * @param books the books to index, in display order
+     */
+    public BookSearchIndex(Collection<Book> books) {
+        for (Book book : books) {
+            add(book);
+        }
+    }
+
+    /**
+     * Adds a book after all books already in the index.
+     * A book whose ID is already indexed is updated instead.
+     *
+     * @param book the book to add
+     */
+    public synchronized void add(Book book) {
+        if (slotById.containsKey(book.getId())) {
+            update(book);
+            return;
+        }
+        int slot = books.size();
+        String text = textOf(book);
+        books.add(book);
+        texts.add(text);
+        slotById.put(book.getId(), slot);
+        forEachTrigram(text, key -> postings.computeIfAbsent(key, k -> new IntList()).add(slot));
+        for (SortedSlots sorted : orders.values()) {
+            sorted.insert(slot);
+        }
+    }
+
+    /**
+     * Re-indexes a book after its title, author or genre changed, keeping its position.
+     * The book is identified by its ID; the stored instance is replaced by the given one.
+     *
+     * @param book the changed book
+     */
+    public synchronized void update(Book book) {
+        Integer slot = slotById.get(book.getId());
+        if (slot == null) {
+            add(book);
+            return;
+        }
+        String oldText = texts.get(slot);
+        String newText = textOf(book);
+        for (SortedSlots sorted : orders.values()) {
+            sorted.remove(slot);
+        }
+        books.set(slot, book);
+        for (SortedSlots sorted : orders.values()) {
+            sorted.insert(slot);
+        }
+        if (!oldText.equals(newText)) {
+            unindex(slot, oldText);
+            texts.set(slot, newText);
+            forEachTrigram(newText, key -> postings.computeIfAbsent(key, k -> new IntList()).add(slot));
+        }
+    }
+
+    /**
+     * Removes a book from the index.
+     *
+     * @param id the ID of the book
+     * @return true if the book was indexed
+     */
+    public synchronized boolean remove(int id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) return false;
+        unindex(slot, texts.get(slot));
+        for (SortedSlots sorted : orders.values()) {
+            sorted.remove(slot);
+        }
+        books.set(slot, null);
+        texts.set(slot, null);
+        if (++removed > 1024 && removed > slotById.size()) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the book with the given ID.
+     *
+     * @param id the book ID
+     * @return the indexed book, or null if there is none
+     */
+    public synchronized Book get(int id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? null : books.get(slot);
+    }
+
+    /** @return the number of indexed books */
+    public synchronized int size() {
+        return slotById.size();
+    }
+
+    /**
+     * Finds all books whose title, author or genre contains the keyword, ignoring case.
+     *
+     * @param keyword the substring to look for; an empty keyword matches every book
+     * @return the matching books in index order
+     */
+    public synchronized List<Book> search(String keyword) {
+        int[] slots = match(keyword.toLowerCase(Locale.ROOT));
+        List<Book> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            result.add(books.get(slot));
+        }
+        return result;
+    }
+
+    /**
+     * Finds all books whose title, author or genre contains the keyword, ignoring case, in the given order.
+     * The first search in an order other than ID order sorts the whole index by that key.
+     *
+     * @param keyword the substring to look for; an empty keyword matches every book
+     * @param order   the order of the results
+     * @return the matching books in that order
+     */
+    public synchronized List<Book> search(String keyword, BookOrder order) {
+        if (order.getSortKey() == BookQuery.SortKey.ID) {
+            return order.sort(search(keyword));
+        }
+        int[] slots = match(keyword.toLowerCase(Locale.ROOT));
+        SortedSlots sorted = orders.computeIfAbsent(order.getSortKey(), SortedSlots::new);
+        List<Book> result = new ArrayList<>(slots.length);
+        if ((long) slots.length * 16 < sorted.size) {
+            // Few matches: sorting them is cheaper than walking the whole permutation
+            for (int slot : slots) {
+                result.add(books.get(slot));
+            }
+            return order.sort(result);
+        }
+        BitSet matching = new BitSet(books.size());
+        for (int slot : slots) {
+            matching.set(slot);
+        }
+        for (int i = 0; i < sorted.size; i++) {
+            int slot = sorted.data[order.isDescending() ? sorted.size - 1 - i : i];
+            if (matching.get(slot)) result.add(books.get(slot));
+        }
+        return result;
+    }
+
+    /**
+     * @return the slots of the books containing the lower-cased query, in ascending order
+     */
+    private int[] match(String q) {
+        if (q.length() < 3) {
+            IntList result = new IntList();
+            for (int slot = 0; slot < books.size(); slot++) {
+                String text = texts.get(slot);
+                if (text != null && text.contains(q)) {
+                    result.add(slot);
+                }
+            }
+            return Arrays.copyOf(result.data, result.size);
+        }
+
+        List<IntList> lists = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            long key = trigram(q.charAt(i), q.charAt(i + 1), q.charAt(i + 2));
+            if (!seen.add(key)) continue;
+            IntList list = postings.get(key);
+            if (list == null) return new int[0];
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(l -> l.size));
+
+        int[] candidates = Arrays.copyOf(lists.get(0).data, lists.get(0).size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = intersect(candidates, count, lists.get(i));
+        }
+
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = candidates[i];
+            if (texts.get(slot).contains(q)) {
+                candidates[kept++] = slot;
+            }
+        }
+        return Arrays.copyOf(candidates, kept);
+    }
+
+    /**
+     * Keeps the candidates that also occur in the list, in place.
+     *
+     * @return the new number of candidates
+     */
+    private static int intersect(int[] candidates, int count, IntList list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = candidates[i];
+            j = list.indexFrom(slot, j);
+            if (j < list.size && list.data[j] == slot) {
+                candidates[kept++] = slot;
+            }
+        }
+        return kept;
+    }
+
+    private void unindex(int slot, String text) {
+        forEachTrigram(text, key -> {
+            IntList list = postings.get(key);
+            if (list != null && list.remove(slot) && list.size == 0) {
+                postings.remove(key);
+            }
+        });
+    }
+
+    private void compact() {
+        List<Book> live = new ArrayList<>(slotById.size());
+        int[] newSlots = new int[books.size()];
+        for (int slot = 0; slot < books.size(); slot++) {
+            Book book = books.get(slot);
+            if (book != null) {
+                newSlots[slot] = live.size();
+                live.add(book);
+            }
+        }
+        // The permutations hold live slots only; renumber them instead of sorting again
+        Map<BookQuery.SortKey, SortedSlots> sortedOrders = new EnumMap<>(orders);
+        orders.clear();
+        books.clear();
+        texts.clear();
+        slotById.clear();
+        postings.clear();
+        removed = 0;
+        for (Book book : live) {
+            add(book);
+        }
+        for (SortedSlots sorted : sortedOrders.values()) {
+            for (int i = 0; i < sorted.size; i++) {
+                sorted.data[i] = newSlots[sorted.data[i]];
+            }
+        }
+        orders.putAll(sortedOrders);
+    }
+
+    private static String textOf(Book book) {
+        String genre = book.getGenre() == null ? "" : book.getGenre();
+        return (book.getTitle() + FIELD_SEPARATOR + book.getAuthor() + FIELD_SEPARATOR + genre)
+            .toLowerCase(Locale.ROOT);
+    }
+
+    private interface TrigramConsumer {
+        void accept(long key);
+    }
+
+    private static void forEachTrigram(String text, TrigramConsumer action) {
+        // A text may repeat a trigram; IntList.add ignores the duplicate slot
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            char a = text.charAt(i), b = text.charAt(i + 1), c = text.charAt(i + 2);
+            if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) continue;
+            action.accept(trigram(a, b, c));
+        }
+    }
+
+    private static long trigram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /**
+     * The live slots sorted by one key in ascending order, with the book ID as tie-breaker.
+     */
+    private class SortedSlots {
+        final BookOrder order;
+        int[] data;
+        int size;
+
+        SortedSlots(BookQuery.SortKey sortKey) {
+            order = new BookOrder(sortKey, false);
+            List<Book> live = new ArrayList<>(slotById.size());
+            for (Book book : books) {
+                if (book != null) live.add(book);
+            }
+            List<Book> sorted = order.sort(live);
+            data = new int[Math.max(4, sorted.size())];
+            for (Book book : sorted) {
+                data[size++] = slotById.get(book.getId());
+            }
+        }
+
+        void insert(int slot) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            int pos = position(books.get(slot));
+            System.arraycopy(data, pos, data, pos + 1, size - pos);
+            data[pos] = slot;
+            size++;
+        }
+
+        void remove(int slot) {
+            int pos = position(books.get(slot));
+            if (pos >= size || data[pos] != slot) {
+                // The book was changed in place, so its key no longer finds it
+                pos = 0;
+                while (pos < size && data[pos] != slot) pos++;
+                if (pos == size) return;
+            }
+            System.arraycopy(data, pos + 1, data, pos, size - pos - 1);
+            size--;
+        }
+
+        /**
+         * Returns the first position whose book does not sort before the given one.
+         */
+        private int position(Book book) {
+            byte[] key = order.keyOf(book);
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                Book other = books.get(data[mid]);
+                int c = Arrays.compareUnsigned(order.keyOf(other), key);
+                if (c == 0) c = Integer.compare(other.getId(), book.getId());
+                if (c < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    /**
+     * A sorted, duplicate-free list of slots.
+     */
+    private static class IntList {
+        int[] data = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size > 0 && data[size - 1] >= value) {
+                int pos = Arrays.binarySearch(data, 0, size, value);
+                if (pos >= 0) return;
+                insertAt(-pos - 1, value);
+            } else {
+                insertAt(size, value);
+            }
+        }
+
+        boolean remove(int value) {
+            int pos = Arrays.binarySearch(data, 0, size, value);
+            if (pos < 0) return false;
+            System.arraycopy(data, pos + 1, data, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        /** Returns the first index at or after {@code from} whose value is not less than {@code value}. */
+        int indexFrom(int value, int from) {
+            // Gallop: candidates are usually sparse compared with the list
+            int step = 1;
+            int hi = from;
+            while (hi < size && data[hi] < value) {
+                from = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int pos = Arrays.binarySearch(data, from, Math.min(hi + 1, size), value);
+            return pos >= 0 ? pos : -pos - 1;
+        }
+
+        private void insertAt(int pos, int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            System.arraycopy(data, pos, data, pos + 1, size - pos);
+            data[pos] = value;
+            size++;
+        }
+    }
+}
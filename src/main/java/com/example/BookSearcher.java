@@ -0,0 +1,102 @@
+package com.example;
+
+import java.util.List;
+
+/**
+ * Evaluates {@link BookFilter}s against a {@link BookDAO}, independently of any view.
+ * <p>
+ * Filters without a keyword are pushed down to the database as a {@link BookQuery}, where the
+ * genre and favorite indexes select the matching rows and the sort key indexes order them.
+ * A substring keyword cannot use a B-tree index, so keyword filters load the in-memory trigram
+ * index on first use; once it is loaded it answers every filter without a database round trip.
+ * The owner keeps the index current through {@link #getIndex()} or drops it with
+ * {@link #invalidate()}.
+ * <p>
+ * While no index is loaded, a current {@link BookSnapshot} handed to {@link #setSnapshot}
+ * answers every filter with a scan instead, so the first keyword search after startup does
+ * not wait for the index. The snapshot is dropped by {@link #invalidate()}.
+ */
+public class BookSearcher {
+    private final BookDAO dao;
+    private final Runnable beforeRead;
+    // Written by the owner and by the filtering thread; guarded by lock
+    private final Object lock = new Object();
+    private volatile BookSearchIndex index;
+    private volatile BookSnapshot snapshot;
+    private long generation;
+
+    /**
+     * Constructs a searcher.
+     *
+     * @param dao        the DAO to query
+     * @param beforeRead run before the database is read, e.g. to flush queued edits
+     */
+    public BookSearcher(BookDAO dao, Runnable beforeRead) {
+        this.dao = dao;
+        this.beforeRead = beforeRead;
+    }
+
+    /**
+     * Returns the books matching a filter. May be called from any thread.
+     *
+     * @param filter the filter to apply
+     * @return the matching books
+     */
+    public List<Book> filter(BookFilter filter) {
+        BookSearchIndex current = index;
+        BookSnapshot rows = snapshot;
+        if (current == null && rows != null) {
+            // The snapshot is in ID order
+            List<Book> books = rows.filter(filter);
+            return filter.getOrder().isNatural() ? books : filter.getOrder().sort(books);
+        }
+        if (current == null && filter.getKeyword().isEmpty()) {
+            beforeRead.run();
+            return dao.findBooks(filter.toQuery());
+        }
+        if (current == null) {
+            long start;
+            synchronized (lock) {
+                start = generation;
+            }
+            beforeRead.run();
+            current = new BookSearchIndex(dao.getAllBooks());
+            synchronized (lock) {
+                // Keep the index only if no change happened while it was being built
+                if (start == generation) index = current;
+            }
+        }
+        return filter.apply(current);
+    }
+
+    /**
+     * Returns the loaded search index so that changes can be applied to it.
+     *
+     * @return the index, or null if it is not loaded
+     */
+    public BookSearchIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets the snapshot that answers filters while no index is loaded. The caller must make
+     * sure that it is current, and call {@link #invalidate()} when the database changes.
+     *
+     * @param snapshot the current rows, or null
+     */
+    public void setSnapshot(BookSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Drops the search index and the snapshot so that the next keyword filter rebuilds the
+     * index from the database. An index that is being built concurrently is discarded as well.
+     */
+    public void invalidate() {
+        synchronized (lock) {
+            index = null;
+            snapshot = null;
+            generation++;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A headless JSON API over a {@link BookDAO}, served by the JDK's built-in HTTP server.
+ * <p>
+ * Routes:
+ * <ul>
+ *     <li>{@code GET /books?after=0&limit=100} &ndash; one page in ID order, with the ID to pass as
+ *         {@code after} for the next page in {@code next} (null on the last page)</li>
+ *     <li>{@code GET /books/search?q=&mode=substring|token|prefix&genre=&favorites=true&sort=id|title|author|relevance&desc=true&limit=&offset=}
+ *         &ndash; a {@link BookQuery}</li>
+ *     <li>{@code GET /books/{id}}, {@code DELETE /books/{id}}</li>
+ *     <li>{@code POST /books} with {@code {"title", "author", "genre", "favorite"}} &ndash; returns the stored book</li>
+ *     <li>{@code PUT /books/{id}/favorite} with {@code {"favorite": true}}</li>
+ *     <li>{@code GET /genres}</li>
+ * </ul>
+ * Errors are answered with a status code and {@code {"error": "..."}}.
+ * <p>
+ * Requests block on SQLite, so each one gets its own thread: a virtual thread when the
+ * runtime supports them (Java 21 and later), otherwise a thread from a bounded pool.
+ * <p>
+ * The JDK server leaves Nagle's algorithm on, so small responses wait for delayed ACKs. It is
+ * turned off with the JVM-wide system property {@code sun.net.httpserver.nodelay=true}, which
+ * is read when the first server starts; {@code Main --server} sets it, embedders set it themselves.
+ */
+public class BookServer implements AutoCloseable {
+    /** Default page size of {@code GET /books}. */
+    public static final int DEFAULT_LIMIT = 100;
+    /** Largest accepted page size. */
+    public static final int MAX_LIMIT = 1000;
+    private static final int MAX_BODY = 64 * 1024;
+
+    private final BookDAO dao;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server on the given port. Call {@link #start()} to accept requests.
+     *
+     * @param dao  the DAO to serve
+     * @param port the TCP port, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public BookServer(BookDAO dao, int port) throws IOException {
+        this.dao = dao;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/books", exchange -> handle(exchange, this::route));
+        server.createContext("/genres", exchange -> handle(exchange, this::listGenres));
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /** @return the port the server listens on */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, gives running ones a second to finish and stops the request threads.
+     * The DAO is left open.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(HttpExchange exchange, HttpHandler handler) throws IOException {
+        try (exchange) {
+            try {
+                handler.handle(exchange);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                sendError(exchange, 500, "internal error");
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        // path[0] is empty and path[1] is "books"
+        String method = exchange.getRequestMethod();
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (path.length == 2) {
+            switch (method) {
+                case "GET" -> listBooks(exchange, params);
+                case "POST" -> addBook(exchange);
+                default -> sendError(exchange, 405, "method not allowed");
+            }
+        } else if (path.length == 3 && path[2].equals("search")) {
+            if (method.equals("GET")) findBooks(exchange, params);
+            else sendError(exchange, 405, "method not allowed");
+        } else if (path.length == 3) {
+            int id = parseInt(path[2], "id");
+            switch (method) {
+                case "GET" -> getBook(exchange, id);
+                case "DELETE" -> deleteBook(exchange, id);
+                default -> sendError(exchange, 405, "method not allowed");
+            }
+        } else if (path.length == 4 && path[3].equals("favorite")) {
+            if (method.equals("PUT")) setFavorite(exchange, parseInt(path[2], "id"));
+            else sendError(exchange, 405, "method not allowed");
+        } else {
+            sendError(exchange, 404, "not found");
+        }
+    }
+
+    private void listGenres(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendError(exchange, 405, "method not allowed");
+            return;
+        }
+        StringBuilder json = new StringBuilder("[");
+        for (String genre : GenreLoader.getGenres()) {
+            if (json.length() > 1) json.append(',');
+            Json.appendString(json, genre);
+        }
+        send(exchange, 200, json.append(']'));
+    }
+
+    private void listBooks(HttpExchange exchange, Map<String, String> params) throws IOException {
+        int after = parseInt(params.getOrDefault("after", "0"), "after");
+        int limit = limitOf(params);
+        List<Book> books = dao.getBooksAfter(after, limit);
+        StringBuilder json = appendBooks(new StringBuilder("{\"books\":"), books).append(",\"next\":");
+        json.append(books.size() < limit ? "null" : String.valueOf(books.get(books.size() - 1).getId()));
+        send(exchange, 200, json.append('}'));
+    }
+
+    private void findBooks(HttpExchange exchange, Map<String, String> params) throws IOException {
+        BookQuery query = new BookQuery();
+        query.setKeyword(params.get("q"));
+        if (params.containsKey("mode")) query.setSearchMode(enumOf(SearchMode.class, params.get("mode"), "mode"));
+        query.setGenre(params.get("genre"));
+        query.setFavoritesOnly(Boolean.parseBoolean(params.get("favorites")));
+        if (params.containsKey("sort")) query.setSortKey(enumOf(BookQuery.SortKey.class, params.get("sort"), "sort"));
+        query.setDescending(Boolean.parseBoolean(params.get("desc")));
+        query.setLimit(limitOf(params));
+        query.setOffset(parseInt(params.getOrDefault("offset", "0"), "offset"));
+        send(exchange, 200, appendBooks(new StringBuilder("{\"books\":"), dao.findBooks(query)).append('}'));
+    }
+
+    private void getBook(HttpExchange exchange, int id) throws IOException {
+        Book book = dao.getBook(id);
+        if (book == null) {
+            sendError(exchange, 404, "no book " + id);
+        } else {
+            send(exchange, 200, Json.appendBook(new StringBuilder(), book));
+        }
+    }
+
+    private void addBook(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        Book book = new Book(stringOf(body, "title"), stringOf(body, "author"), optionalStringOf(body, "genre"));
+        if (book.getTitle().isBlank() || book.getAuthor().isBlank()) {
+            throw new IllegalArgumentException("title and author are required");
+        }
+        book.setFavorite(Boolean.TRUE.equals(body.get("favorite")));
+        dao.addBook(book);
+        if (book.getId() <= 0) {
+            sendError(exchange, 500, "book could not be stored");
+        } else {
+            send(exchange, 201, Json.appendBook(new StringBuilder(), book));
+        }
+    }
+
+    private void deleteBook(HttpExchange exchange, int id) throws IOException {
+        if (dao.deleteBooks(List.of(id)) == 0) {
+            sendError(exchange, 404, "no book " + id);
+        } else {
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    private void setFavorite(HttpExchange exchange, int id) throws IOException {
+        Object favorite = readBody(exchange).get("favorite");
+        if (!(favorite instanceof Boolean)) {
+            throw new IllegalArgumentException("favorite must be true or false");
+        }
+        if (dao.getBook(id) == null) {
+            sendError(exchange, 404, "no book " + id);
+            return;
+        }
+        dao.setFavorite(id, (Boolean) favorite);
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private static StringBuilder appendBooks(StringBuilder json, List<Book> books) {
+        json.append('[');
+        for (int i = 0; i < books.size(); i++) {
+            if (i > 0) json.append(',');
+            Json.appendBook(json, books.get(i));
+        }
+        return json.append(']');
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY + 1);
+            if (body.length > MAX_BODY) throw new IllegalArgumentException("request body too large");
+            return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, Json.appendString(new StringBuilder("{\"error\":"), message).append('}'));
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) return params;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static int limitOf(Map<String, String> params) {
+        int limit = parseInt(params.getOrDefault("limit", String.valueOf(DEFAULT_LIMIT)), "limit");
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+    }
+
+    private static <E extends Enum<E>> E enumOf(Class<E> type, String value, String name) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown " + name + " '" + value + "'");
+        }
+    }
+
+    private static String stringOf(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof String)) throw new IllegalArgumentException(name + " must be a string");
+        return (String) value;
+    }
+
+    private static String optionalStringOf(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof String)) throw new IllegalArgumentException(name + " must be a string");
+        return (String) value;
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor when the runtime has one, else a bounded pool.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Before Java 21; requests mostly wait for SQLite, so allow a few threads per core
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors() * 4), r -> {
+                Thread thread = new Thread(r, "http-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
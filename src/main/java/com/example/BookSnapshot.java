@@ -0,0 +1,637 @@
+package com.example;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * An immutable, column-oriented copy of a book list for read-mostly, in-process searching.
+ * <p>
+ * A {@code List<Book>} costs one object per book plus one {@code String} per title and author,
+ * and object headers and repeated strings make up most of that heap. The snapshot stores the
+ * same rows as parallel columns instead:
+ * <ul>
+ *     <li>IDs in an {@code int[]} and favorite flags in a bit set</li>
+ *     <li>authors and genres dictionary-encoded: an {@code int[]} of codes per column and
+ *         each distinct value stored once</li>
+ *     <li>titles as UTF-8 bytes packed into one {@code byte[]} with an {@code int[]} of offsets</li>
+ * </ul>
+ * {@link #scan(BookFilter)} evaluates a filter row by row without creating objects: the
+ * keyword is tested once per distinct author and genre, and against titles directly on their
+ * bytes, decoding only titles that contain non-ASCII characters. Only the rows that are finally
+ * asked for are turned back into {@link Book}s, sharing the dictionary strings.
+ * <p>
+ * A snapshot can be saved with {@link #write(Path)} and loaded again with {@link #read(Path)}.
+ * The file holds the columns as they are in memory, so loading reads it into one buffer and
+ * bulk-copies each column, without parsing or creating per-row objects. The file is not
+ * memory-mapped: a mapping stays open until it is garbage collected, and on Windows an open
+ * mapping keeps the file from being replaced by the next save. A snapshot read from the database carries the database's change counter
+ * ({@link BookDAO#getChangeCount()}) at the time it was read, so a saved file can be checked
+ * for staleness with one query.
+ * <p>
+ * A null title is stored as an empty one. A snapshot is safe for concurrent use.
+ */
+public class BookSnapshot {
+    private static final int[] NO_ROWS = new int[0];
+    /** "BKS1": identifies a snapshot file. */
+    private static final int MAGIC = 0x424B5331;
+    private static final int FORMAT_VERSION = 1;
+    // magic, format, change count, CRC, rows, authors, genres, dictionary bytes, title bytes
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 * 5;
+    // Largest single channel transfer, since the JDK stages heap buffers in a cached direct buffer
+    private static final int IO_CHUNK = 1 << 20;
+
+    private final long changeCount;
+
+    private final int size;
+    private final int[] ids;
+    private final long[] favorites;
+    private final int[] authorCodes;
+    private final String[] authors;
+    private final int[] genreCodes;
+    private final String[] genres;
+    private final byte[] titleBytes;
+    private final int[] titleOffsets;
+    private final long[] nonAsciiTitles;
+    private final boolean idsAscending;
+
+    /**
+     * Constructs a snapshot of the given books, keeping their order.
+     *
+     * @param books the books to copy
+     */
+    public BookSnapshot(Collection<Book> books) {
+        this(builderOf(books));
+    }
+
+    private BookSnapshot(Builder builder) {
+        changeCount = builder.changeCount;
+        size = builder.size;
+        ids = Arrays.copyOf(builder.ids, size);
+        favorites = Arrays.copyOf(builder.favorites, words(size));
+        authorCodes = Arrays.copyOf(builder.authorCodes, size);
+        authors = builder.authors.values.toArray(new String[0]);
+        genreCodes = Arrays.copyOf(builder.genreCodes, size);
+        genres = builder.genres.values.toArray(new String[0]);
+        titleBytes = Arrays.copyOf(builder.titleBytes, builder.titleLength);
+        titleOffsets = Arrays.copyOf(builder.titleOffsets, size + 1);
+        nonAsciiTitles = Arrays.copyOf(builder.nonAsciiTitles, words(size));
+        idsAscending = builder.idsAscending;
+    }
+
+    private BookSnapshot(long changeCount, int size, int[] ids, long[] favorites, int[] authorCodes,
+                         String[] authors, int[] genreCodes, String[] genres, byte[] titleBytes,
+                         int[] titleOffsets, long[] nonAsciiTitles) {
+        this.changeCount = changeCount;
+        this.size = size;
+        this.ids = ids;
+        this.favorites = favorites;
+        this.authorCodes = authorCodes;
+        this.authors = authors;
+        this.genreCodes = genreCodes;
+        this.genres = genres;
+        this.titleBytes = titleBytes;
+        this.titleOffsets = titleOffsets;
+        this.nonAsciiTitles = nonAsciiTitles;
+        boolean ascending = true;
+        for (int row = 1; row < size && ascending; row++) {
+            ascending = ids[row - 1] < ids[row];
+        }
+        this.idsAscending = ascending;
+    }
+
+    private static Builder builderOf(Collection<Book> books) {
+        Builder builder = new Builder(books.size());
+        for (Book book : books) {
+            builder.add(book);
+        }
+        return builder;
+    }
+
+    /**
+     * @return the database change counter the rows were read at, or -1 if the snapshot was
+     *         not read from a database
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    /** @return the number of rows */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param row the row, from 0 to {@link #size()} - 1
+     * @return the book ID of the row
+     */
+    public int getId(int row) {
+        return ids[check(row)];
+    }
+
+    /**
+     * @param row the row
+     * @return the title of the row, decoded from its UTF-8 bytes
+     */
+    public String getTitle(int row) {
+        check(row);
+        int from = titleOffsets[row];
+        return new String(titleBytes, from, titleOffsets[row + 1] - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param row the row
+     * @return the author of the row, or null
+     */
+    public String getAuthor(int row) {
+        int code = authorCodes[check(row)];
+        return code < 0 ? null : authors[code];
+    }
+
+    /**
+     * @param row the row
+     * @return the genre of the row, or null
+     */
+    public String getGenre(int row) {
+        int code = genreCodes[check(row)];
+        return code < 0 ? null : genres[code];
+    }
+
+    /**
+     * @param row the row
+     * @return true if the book of the row is a favorite
+     */
+    public boolean isFavorite(int row) {
+        return bit(favorites, check(row));
+    }
+
+    /**
+     * Creates a {@link Book} with the values of a row. Authors and genres are shared instances.
+     *
+     * @param row the row
+     * @return a new book
+     */
+    public Book getBook(int row) {
+        return new Book(getId(row), getTitle(row), getAuthor(row), getGenre(row), isFavorite(row));
+    }
+
+    /**
+     * Finds the row of a book.
+     *
+     * @param id the book ID
+     * @return the row, or -1 if the snapshot has no such book
+     */
+    public int rowOf(int id) {
+        if (idsAscending) {
+            int row = Arrays.binarySearch(ids, id);
+            return row < 0 ? -1 : row;
+        }
+        for (int row = 0; row < size; row++) {
+            if (ids[row] == id) return row;
+        }
+        return -1;
+    }
+
+    /** @return the distinct genres, in order of first appearance */
+    public List<String> getGenres() {
+        return List.of(genres);
+    }
+
+    /** @return the number of distinct authors */
+    public int getAuthorCount() {
+        return authors.length;
+    }
+
+    /**
+     * Returns the rows that pass a filter, with the same semantics as {@link BookFilter#matches}.
+     *
+     * @param filter the filter to apply
+     * @return the matching rows in ascending order
+     */
+    public int[] scan(BookFilter filter) {
+        int genre = -1;
+        if (!filter.getGenre().equals(BookFilter.ANY_GENRE)) {
+            genre = Arrays.asList(genres).indexOf(filter.getGenre());
+            if (genre < 0) return NO_ROWS;
+        }
+        String keyword = filter.getKeyword().toLowerCase(Locale.ROOT);
+        boolean[] authorMatches = keyword.isEmpty() ? null : matching(authors, keyword);
+        boolean[] genreMatches = keyword.isEmpty() ? null : matching(genres, keyword);
+        byte[] needle = keyword.getBytes(StandardCharsets.UTF_8);
+        boolean asciiKeyword = needle.length == keyword.length();
+
+        int[] rows = new int[Math.min(size, 1024)];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (filter.isFavoritesOnly() && !bit(favorites, row)) continue;
+            if (genre >= 0 && genreCodes[row] != genre) continue;
+            if (authorMatches != null && !matches(authorMatches, authorCodes[row])
+                && !matches(genreMatches, genreCodes[row]) && !titleContains(row, keyword, needle, asciiKeyword)) {
+                continue;
+            }
+            if (count == rows.length) rows = Arrays.copyOf(rows, Math.min(size, count * 2));
+            rows[count++] = row;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Returns the books that pass a filter, with the same semantics as {@link BookFilter#matches}.
+     *
+     * @param filter the filter to apply
+     * @return new books for the matching rows, in snapshot order
+     */
+    public List<Book> filter(BookFilter filter) {
+        int[] rows = scan(filter);
+        List<Book> books = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            books.add(getBook(row));
+        }
+        return books;
+    }
+
+    /**
+     * Saves the snapshot to a file, replacing it atomically so that readers never see a
+     * partly written file.
+     *
+     * @param file the target file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        byte[][] dictionary = new byte[authors.length + genres.length][];
+        int dictionaryBytes = 0;
+        for (int i = 0; i < dictionary.length; i++) {
+            String value = i < authors.length ? authors[i] : genres[i - authors.length];
+            dictionary[i] = value.getBytes(StandardCharsets.UTF_8);
+            dictionaryBytes += 4 + dictionary[i].length;
+        }
+        int length = (int) fileLength(size, dictionaryBytes, titleBytes.length);
+
+        Path temp = AtomicFiles.createTempSibling(file);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer out = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+                out.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(changeCount).putLong(0);
+                out.putInt(size).putInt(authors.length).putInt(genres.length).putInt(dictionaryBytes)
+                    .putInt(titleBytes.length);
+                for (byte[] value : dictionary) {
+                    out.putInt(value.length).put(value);
+                }
+                out.position(align(out.position()));
+                out.asIntBuffer().put(ids).put(authorCodes).put(genreCodes).put(titleOffsets);
+                out.position(align(out.position() + 4 * (3 * size + size + 1)));
+                out.asLongBuffer().put(favorites).put(nonAsciiTitles);
+                out.position(out.position() + 8 * (favorites.length + nonAsciiTitles.length));
+                out.put(titleBytes);
+
+                CRC32C crc = new CRC32C();
+                crc.update(out.duplicate().position(HEADER_BYTES).limit(length));
+                out.putLong(16, crc.getValue());
+                writeFully(channel, out.flip());
+                channel.force(false);
+            }
+            AtomicFiles.replace(temp, file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Loads a snapshot saved with {@link #write(Path)}. The file is closed when this returns.
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read, is not a snapshot file or is corrupt
+     */
+    public static BookSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            ByteBuffer in = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, in);
+            in.flip();
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a snapshot file of this version: " + file);
+            }
+            long changeCount = in.getLong();
+            long checksum = in.getLong();
+            int size = in.getInt();
+            int authorCount = in.getInt();
+            int genreCount = in.getInt();
+            int dictionaryBytes = in.getInt();
+            int titleLength = in.getInt();
+            if (size < 0 || authorCount < 0 || genreCount < 0 || dictionaryBytes < 0 || titleLength < 0
+                || fileLength(size, dictionaryBytes, titleLength) != length) {
+                throw new IOException("Truncated snapshot file: " + file);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(in.duplicate().position(HEADER_BYTES));
+            if (crc.getValue() != checksum) {
+                throw new IOException("Corrupt snapshot file: " + file);
+            }
+
+            String[] authors = new String[authorCount];
+            String[] genres = new String[genreCount];
+            for (int i = 0; i < authorCount + genreCount; i++) {
+                byte[] value = new byte[in.getInt()];
+                in.get(value);
+                String text = new String(value, StandardCharsets.UTF_8);
+                if (i < authorCount) authors[i] = text;
+                else genres[i - authorCount] = text;
+            }
+            in.position(align(in.position()));
+            int[] ids = new int[size];
+            int[] authorCodes = new int[size];
+            int[] genreCodes = new int[size];
+            int[] titleOffsets = new int[size + 1];
+            in.asIntBuffer().get(ids).get(authorCodes).get(genreCodes).get(titleOffsets);
+            in.position(align(in.position() + 4 * (3 * size + size + 1)));
+            long[] favorites = new long[words(size)];
+            long[] nonAsciiTitles = new long[words(size)];
+            in.asLongBuffer().get(favorites).get(nonAsciiTitles);
+            in.position(in.position() + 8 * 2 * words(size));
+            byte[] titleBytes = new byte[titleLength];
+            in.get(titleBytes);
+            return new BookSnapshot(changeCount, size, ids, favorites, authorCodes, authors, genreCodes,
+                genres, titleBytes, titleOffsets, nonAsciiTitles);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Corrupt snapshot file: " + file, e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int end = buffer.limit();
+        while (buffer.position() < end) {
+            buffer.limit(Math.min(buffer.position() + IO_CHUNK, end));
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int end = buffer.limit();
+        while (buffer.position() < end) {
+            buffer.limit(Math.min(buffer.position() + IO_CHUNK, end));
+            if (channel.read(buffer) < 0) throw new EOFException();
+        }
+    }
+
+    private static long fileLength(int rows, int dictionaryBytes, int titleBytes) {
+        long length = align(HEADER_BYTES + (long) dictionaryBytes);
+        length = align(length + 4L * (4L * rows + 1));
+        length += 8L * 2 * words(rows);
+        return length + titleBytes;
+    }
+
+    private static int align(int position) {
+        return (position + 7) & ~7;
+    }
+
+    /**
+     * Estimates the heap used by the snapshot, assuming compressed references and
+     * compact (Latin-1) strings where possible.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateHeapBytes() {
+        long bytes = align(12 + 4 * 11 + 1);
+        bytes += arrayBytes(ids.length, 4) + arrayBytes(authorCodes.length, 4) + arrayBytes(genreCodes.length, 4);
+        bytes += arrayBytes(favorites.length, 8) + arrayBytes(nonAsciiTitles.length, 8);
+        bytes += arrayBytes(titleBytes.length, 1) + arrayBytes(titleOffsets.length, 4);
+        bytes += arrayBytes(authors.length, 4) + arrayBytes(genres.length, 4);
+        for (String author : authors) {
+            bytes += stringBytes(author);
+        }
+        for (String genre : genres) {
+            bytes += stringBytes(genre);
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimates the heap used by a list of books on the same assumptions as
+     * {@link #estimateHeapBytes()}, counting each distinct string instance once.
+     *
+     * @param books the books
+     * @return the estimated size in bytes
+     */
+    public static long estimateHeapBytes(List<Book> books) {
+        long bytes = align(12 + 4 + 4 + 4) + arrayBytes(books.size(), 4);
+        Map<String, Boolean> seen = new IdentityHashMap<>();
+        for (Book book : books) {
+            bytes += align(12 + 4 + 4 * 3 + 1);
+            for (String value : new String[] {book.getTitle(), book.getAuthor(), book.getGenre()}) {
+                if (value != null && seen.put(value, Boolean.TRUE) == null) bytes += stringBytes(value);
+            }
+        }
+        return bytes;
+    }
+
+    private boolean titleContains(int row, String keyword, byte[] needle, boolean asciiKeyword) {
+        int from = titleOffsets[row];
+        int to = titleOffsets[row + 1];
+        if (asciiKeyword && containsIgnoreAsciiCase(titleBytes, from, to, needle)) return true;
+        // Titles without non-ASCII characters were fully answered by the byte search
+        if (!bit(nonAsciiTitles, row)) return false;
+        return new String(titleBytes, from, to - from, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT).contains(keyword);
+    }
+
+    /**
+     * Tests whether bytes contain a lower-case ASCII needle, folding ASCII upper case. Bytes of
+     * multi-byte UTF-8 sequences are negative and so never match an ASCII needle byte.
+     */
+    static boolean containsIgnoreAsciiCase(byte[] bytes, int from, int to, byte[] needle) {
+        int last = to - needle.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                int b = bytes[i + j];
+                if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+                if (b != needle[j]) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean[] matching(String[] values, String keyword) {
+        boolean[] matches = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            matches[i] = values[i].toLowerCase(Locale.ROOT).contains(keyword);
+        }
+        return matches;
+    }
+
+    private static boolean matches(boolean[] matches, int code) {
+        return code >= 0 && matches[code];
+    }
+
+    private int check(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        return row;
+    }
+
+    private static boolean bit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static long arrayBytes(int length, int elementBytes) {
+        return align(16 + (long) length * elementBytes);
+    }
+
+    private static long stringBytes(String value) {
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return align(12 + 4 + 4 + 1 + 1) + arrayBytes(value.length(), latin1 ? 1 : 2);
+    }
+
+    /**
+     * Collects rows for a snapshot, e.g. straight from a result set without creating books.
+     */
+    public static class Builder {
+        private int size;
+        private int[] ids;
+        private long[] favorites;
+        private int[] authorCodes;
+        private int[] genreCodes;
+        private byte[] titleBytes;
+        private int titleLength;
+        private int[] titleOffsets;
+        private long[] nonAsciiTitles;
+        private boolean idsAscending = true;
+        private long changeCount = -1;
+        private final Dictionary authors = new Dictionary();
+        private final Dictionary genres = new Dictionary();
+
+        /**
+         * Constructs a builder.
+         *
+         * @param expectedRows the expected number of rows; the builder grows as needed
+         */
+        public Builder(int expectedRows) {
+            int capacity = Math.max(16, expectedRows);
+            ids = new int[capacity];
+            favorites = new long[words(capacity)];
+            authorCodes = new int[capacity];
+            genreCodes = new int[capacity];
+            titleBytes = new byte[capacity * 24];
+            titleOffsets = new int[capacity + 1];
+            nonAsciiTitles = new long[words(capacity)];
+        }
+
+        /**
+         * Appends a book.
+         *
+         * @param book the book to append
+         * @return this builder
+         */
+        public Builder add(Book book) {
+            return add(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre(), book.isFavorite());
+        }
+
+        /**
+         * Appends a row.
+         *
+         * @param id       the book ID
+         * @param title    the title; null is stored as empty
+         * @param author   the author, or null
+         * @param genre    the genre, or null
+         * @param favorite true for a favorite
+         * @return this builder
+         */
+        public Builder add(int id, String title, String author, String genre, boolean favorite) {
+            if (size == ids.length) grow();
+            int row = size++;
+            if (row > 0 && ids[row - 1] >= id) idsAscending = false;
+            ids[row] = id;
+            if (favorite) favorites[row >>> 6] |= 1L << row;
+            authorCodes[row] = authors.codeOf(author);
+            genreCodes[row] = genres.codeOf(genre);
+
+            String text = title == null ? "" : title;
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (titleLength + bytes.length > titleBytes.length) {
+                titleBytes = Arrays.copyOf(titleBytes, Math.max(titleBytes.length * 2, titleLength + bytes.length));
+            }
+            System.arraycopy(bytes, 0, titleBytes, titleLength, bytes.length);
+            titleLength += bytes.length;
+            titleOffsets[row + 1] = titleLength;
+            // Every non-ASCII character takes more than one byte per char in UTF-8
+            if (bytes.length != text.length()) nonAsciiTitles[row >>> 6] |= 1L << row;
+            return this;
+        }
+
+        /**
+         * Sets the database change counter the rows are read at.
+         *
+         * @param changeCount the value of {@link BookDAO#getChangeCount()}
+         * @return this builder
+         */
+        public Builder setChangeCount(long changeCount) {
+            this.changeCount = changeCount;
+            return this;
+        }
+
+        /**
+         * Creates the snapshot. The builder must not be used afterwards.
+         *
+         * @return the snapshot of the added rows
+         */
+        public BookSnapshot build() {
+            return new BookSnapshot(this);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            favorites = Arrays.copyOf(favorites, words(capacity));
+            authorCodes = Arrays.copyOf(authorCodes, capacity);
+            genreCodes = Arrays.copyOf(genreCodes, capacity);
+            titleOffsets = Arrays.copyOf(titleOffsets, capacity + 1);
+            nonAsciiTitles = Arrays.copyOf(nonAsciiTitles, words(capacity));
+        }
+    }
+
+    /**
+     * Assigns codes to distinct values in order of first appearance.
+     */
+    private static class Dictionary {
+        final List<String> values = new ArrayList<>();
+        final Map<String, Integer> codes = new HashMap<>();
+
+        int codeOf(String value) {
+            if (value == null) return -1;
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package com.example;
 
-import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Table model for managing and displaying {@link Book} data in a JTable.
  * <p>
- * This model provides editable columns and synchronizes changes with the database
- * through the provided {@link BookDAO}.
+ * This model holds its rows in memory and synchronizes changes with the database
+ * through the provided {@link BookDAO}. Rows set in a {@link BookOrder} keep it: added books
+ * are inserted at the position found by binary search instead of appended, so the list is
+ * never sorted again. An edited book keeps its row until the rows are next set, so that it
+ * does not jump away while it is being edited.
+ * <p>
+ * Rows are found by ID through an index from book ID to row. Inserting or removing a row only
+ * marks the index as stale from that row on; the stale part is renumbered at the next lookup,
+ * once for a whole batch of changes.
  */
-public class BookTableModel extends AbstractTableModel {
+public class BookTableModel extends AbstractBookTableModel {
 
-    private final String[] columnNames = {"Title", "Author", "Genre", "Favorite"};
     private List<Book> books;
-    private final BookDAO dao;
+    private BookOrder order = BookOrder.ID;
+    // Row of each book ID; entries are valid for rows below indexedRows
+    private final Map<Integer, Integer> rowOf = new HashMap<>();
+    private int indexedRows;
 
     /**
      * Constructs a BookTableModel with an initial list of books and a DAO.
@@ -23,8 +36,8 @@ public class BookTableModel extends AbstractTableModel {
      * @param dao   DAO used to persist updates to the database.
      */
     public BookTableModel(List<Book> books, BookDAO dao) {
+        super(dao);
         this.books = new ArrayList<>(books);
-        this.dao = dao;
     }
 
     /**
@@ -33,112 +46,133 @@ public class BookTableModel extends AbstractTableModel {
      * @param books New list of books.
      */
     public void setBooks(List<Book> books) {
-        this.books = new ArrayList<>(books);
-        fireTableDataChanged();
+        setBooks(books, BookOrder.ID);
     }
 
     /**
-     * Returns the {@link Book} object at the specified row.
+     * Updates the internal list of books, which is already sorted, and notifies the table to refresh its data.
      *
-     * @param rowIndex The row index.
-     * @return The corresponding {@link Book}.
+     * @param books New list of books, in the given order.
+     * @param order The order of the books, which added books are inserted in.
      */
-    public Book getBookAt(int rowIndex) {
-        return books.get(rowIndex);
+    public void setBooks(List<Book> books, BookOrder order) {
+        this.books = new ArrayList<>(books);
+        this.order = order;
+        rowOf.clear();
+        indexedRows = 0;
+        fireTableDataChanged();
     }
 
     /**
-     * Returns the number of rows in the table.
+     * Adds a book at the end, or at its position in the order of the rows, and notifies the table of the inserted row only.
      *
-     * @return Number of books in the list.
+     * @param book The book to append.
      */
-    @Override
-    public int getRowCount() {
-        return books == null ? 0 : books.size();
+    public void addBook(Book book) {
+        addBooks(List.of(book));
     }
 
     /**
-     * Returns the number of columns in the table.
+     * Adds books at the end with a single event, or each at its position in the order of the rows.
      *
-     * @return Number of columns (always 4).
+     * @param books The books to append.
      */
-    @Override
-    public int getColumnCount() {
-        return columnNames.length;
+    public void addBooks(List<Book> books) {
+        if (books.isEmpty()) return;
+        if (order.isNatural()) {
+            int row = this.books.size();
+            this.books.addAll(books);
+            fireTableRowsInserted(row, this.books.size() - 1);
+            return;
+        }
+        Comparator<Book> comparator = order.comparator();
+        for (Book book : books) {
+            int row = Collections.binarySearch(this.books, book, comparator);
+            if (row < 0) row = -row - 1;
+            this.books.add(row, book);
+            indexedRows = Math.min(indexedRows, row);
+            fireTableRowsInserted(row, row);
+        }
     }
 
     /**
-     * Returns the name of the column at the specified index.
+     * Removes the books with the given IDs and notifies the table of each run of deleted rows.
      *
-     * @param column The column index.
-     * @return The column name.
+     * @param ids IDs of the books to remove; IDs that are not shown are ignored.
      */
-    @Override
-    public String getColumnName(int column) {
-        return columnNames[column];
+    public void removeBooks(Collection<Integer> ids) {
+        List<Integer> rows = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            int row = rowOf(id);
+            if (row >= 0) rows.add(row);
+        }
+        if (rows.isEmpty()) return;
+        rows.sort(null);
+        for (int i = rows.size() - 1; i >= 0; ) {
+            // Remove one run of consecutive rows at a time, from the bottom up
+            int last = rows.get(i);
+            int first = last;
+            while (--i >= 0 && rows.get(i) == first - 1) {
+                first--;
+            }
+            List<Book> run = books.subList(first, last + 1);
+            for (Book book : run) {
+                rowOf.remove(book.getId());
+            }
+            run.clear();
+            indexedRows = Math.min(indexedRows, first);
+            fireTableRowsDeleted(first, last);
+        }
     }
 
     /**
-     * Returns the value at the specified row and column.
+     * Replaces the shown book that has the same ID and notifies the table of that row only.
      *
-     * @param rowIndex    Row index.
-     * @param columnIndex Column index.
-     * @return The value for the cell.
+     * @param book The changed book.
      */
-    @Override
-    public Object getValueAt(int rowIndex, int columnIndex) {
-        Book book = books.get(rowIndex);
-        return switch (columnIndex) {
-            case 0 -> book.getTitle();
-            case 1 -> book.getAuthor();
-            case 2 -> book.getGenre();
-            case 3 -> book.isFavorite();
-            default -> null;
-        };
+    public void updateBook(Book book) {
+        int row = rowOf(book.getId());
+        if (row >= 0) {
+            books.set(row, book);
+            fireTableRowsUpdated(row, row);
+        }
     }
 
     /**
-     * Specifies that all cells in the table are editable.
+     * Returns the {@link Book} object at the specified row.
      *
-     * @param rowIndex    The row index.
-     * @param columnIndex The column index.
-     * @return true, since all cells are editable.
+     * @param rowIndex The row index.
+     * @return The corresponding {@link Book}.
      */
     @Override
-    public boolean isCellEditable(int rowIndex, int columnIndex) {
-        return true;
+    public Book getBookAt(int rowIndex) {
+        return books.get(rowIndex);
     }
 
     /**
-     * Updates the value in the specified cell and synchronizes the change with the database.
+     * Returns the number of rows in the table.
      *
-     * @param aValue      The new value.
-     * @param rowIndex    The row index.
-     * @param columnIndex The column index.
+     * @return Number of books in the list.
      */
     @Override
-    public void setValueAt(Object aValue, int rowIndex, int columnIndex) {
-        Book book = books.get(rowIndex);
-
-        switch (columnIndex) {
-            case 0 -> book.setTitle(aValue.toString());
-            case 1 -> book.setAuthor(aValue.toString());
-            case 2 -> book.setGenre(aValue.toString());
-            case 3 -> book.setFavorite((Boolean) aValue);
-        }
-
-        dao.updateBook(book);
-        fireTableCellUpdated(rowIndex, columnIndex);
+    public int getRowCount() {
+        return books == null ? 0 : books.size();
     }
 
     /**
-     * Returns the class of data in each column, needed for proper rendering (e.g., checkbox for Boolean).
+     * Returns the row of a book, renumbering the stale part of the index first if needed.
      *
-     * @param columnIndex Column index.
-     * @return Class of the column.
+     * @return the row, or -1 if the book is not shown
      */
-    @Override
-    public Class<?> getColumnClass(int columnIndex) {
-        return (columnIndex == 3) ? Boolean.class : String.class;
+    private int rowOf(int id) {
+        Integer row = rowOf.get(id);
+        if (row != null && row < indexedRows && books.get(row).getId() == id) return row;
+        if (indexedRows == books.size()) return -1;
+        for (int r = indexedRows; r < books.size(); r++) {
+            rowOf.put(books.get(r).getId(), r);
+        }
+        indexedRows = books.size();
+        row = rowOf.get(id);
+        return row != null ? row : -1;
     }
 }
@@ -0,0 +1,161 @@
+package com.example;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind queue for book edits made on the Swing event dispatch thread.
+ * <p>
+ * {@link #enqueue(Book)} stores a copy of the book and returns immediately. Repeated edits
+ * to the same book before the next flush are coalesced into one update of its latest state.
+ * Pending edits are written with {@link BookDAO#updateBooks(java.util.Collection)} in a single
+ * transaction on a background thread, either {@code delayMillis} after the first pending edit or
+ * as soon as {@code flushThreshold} books are pending. Books that updated no row, because the
+ * transaction failed or the book was deleted meanwhile, are handed to the failure handler on
+ * the EDT. {@link #close()} writes everything still pending.
+ */
+public class BookUpdateQueue implements AutoCloseable {
+    private final BookDAO dao;
+    private final long delayMillis;
+    private final int flushThreshold;
+    private final Consumer<List<Book>> failureHandler;
+    private final ScheduledExecutorService executor;
+
+    // Guarded by this
+    private Map<Integer, Book> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    private long enqueued;
+    private long written;
+    private long batches;
+    private long failed;
+
+    /**
+     * Constructs a queue with its own background thread.
+     *
+     * @param dao            DAO to write the edits with
+     * @param delayMillis    maximum time an edit stays pending before it is written
+     * @param flushThreshold number of pending books that triggers an immediate write
+     * @param failureHandler receives the books whose update failed, on the EDT
+     */
+    public BookUpdateQueue(BookDAO dao, long delayMillis, int flushThreshold, Consumer<List<Book>> failureHandler) {
+        this.dao = dao;
+        this.delayMillis = delayMillis;
+        this.flushThreshold = flushThreshold;
+        this.failureHandler = failureHandler;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "book-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queues the current state of a book for writing.
+     *
+     * @param book the edited book; it is copied, so later changes are not picked up
+     */
+    public void enqueue(Book book) {
+        Book copy = new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre(), book.isFavorite());
+        synchronized (this) {
+            pending.put(copy.getId(), copy);
+            enqueued++;
+            if (pending.size() >= flushThreshold) {
+                flushScheduled = true;
+                executor.execute(this::drain);
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                executor.schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes all pending edits and waits until they are committed.
+     */
+    public void flush() {
+        try {
+            executor.submit(this::drain).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+        }
+    }
+
+    /**
+     * Writes all pending edits and stops the background thread.
+     */
+    @Override
+    public void close() {
+        if (executor.isShutdown()) return;
+        flush();
+        executor.shutdown();
+    }
+
+    /**
+     * Tells whether an edit of the given book is waiting to be written.
+     *
+     * @param id the book ID
+     * @return true if the book has an unwritten edit
+     */
+    public synchronized boolean isPending(int id) {
+        return pending.containsKey(id);
+    }
+
+    /** @return number of books waiting to be written */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /** @return number of edits queued, before coalescing */
+    public synchronized long getEnqueuedCount() {
+        return enqueued;
+    }
+
+    /** @return number of book updates written to the database */
+    public synchronized long getWrittenCount() {
+        return written;
+    }
+
+    /** @return number of transactions committed or attempted */
+    public synchronized long getBatchCount() {
+        return batches;
+    }
+
+    /** @return number of book updates that failed */
+    public synchronized long getFailedCount() {
+        return failed;
+    }
+
+    private void drain() {
+        List<Book> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty()) return;
+            batch = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+        }
+
+        int[] updated = dao.updateBooks(batch);
+        List<Book> lost = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) lost.add(batch.get(i));
+        }
+        synchronized (this) {
+            batches++;
+            failed += lost.size();
+            written += batch.size() - lost.size();
+        }
+        if (!lost.isEmpty()) {
+            SwingUtilities.invokeLater(() -> failureHandler.accept(lost));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A {@link BookDAO} that answers repeated reads from memory.
+ * <p>
+ * Query results are kept in a bounded LRU keyed by the method and its arguments, and books
+ * read with {@link #getBook(int)} in a bounded LRU keyed by ID. Every write through this DAO
+ * bumps a global write version once it has committed; a cached result computed under an older
+ * version is treated as a miss and dropped, and the written IDs are removed from the book cache.
+ * This happens before the change is published, so listeners of the {@link ChangeBus} that read
+ * back through this DAO never see a stale entry. A result whose query overlapped a write is
+ * not stored at all.
+ * <p>
+ * Cached {@link Book} instances are shared between callers. List results are returned as new
+ * lists, but the books in them must only be changed together with a write through this DAO,
+ * as the table models do. If such an update fails, the version is bumped and the IDs are
+ * evicted as for a committed write, so the unsaved edits are not served again. Writes made by
+ * other DAOs or processes are not seen until the next write through this one.
+ */
+public class CachingBookDAO extends BookDAO {
+    /** Default number of cached query results. */
+    public static final int DEFAULT_MAX_RESULTS = 128;
+    /** Default number of books cached by ID. */
+    public static final int DEFAULT_MAX_BOOKS = 10_000;
+
+    // All guarded by this
+    private final Map<List<Object>, Result> results;
+    private final Map<Integer, Book> books;
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructs a caching DAO for the given database with the default cache sizes.
+     *
+     * @param config connection and pragma settings
+     */
+    public CachingBookDAO(DatabaseConfig config) {
+        this(config, DEFAULT_MAX_RESULTS, DEFAULT_MAX_BOOKS);
+    }
+
+    /**
+     * Constructs a caching DAO for the given database.
+     *
+     * @param config     connection and pragma settings
+     * @param maxResults number of query results to keep
+     * @param maxBooks   number of books to keep by ID
+     */
+    public CachingBookDAO(DatabaseConfig config, int maxResults, int maxBooks) {
+        super(config);
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Result> eldest) {
+                return evict(size() > maxResults);
+            }
+        };
+        this.books = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Book> eldest) {
+                return evict(size() > maxBooks);
+            }
+        };
+    }
+
+    @Override
+    public Book getBook(int id) {
+        long start;
+        synchronized (this) {
+            Book book = books.get(id);
+            if (book != null) {
+                hits++;
+                return book;
+            }
+            misses++;
+            start = version;
+        }
+        Book book = super.getBook(id);
+        synchronized (this) {
+            if (book != null && start == version) books.put(id, book);
+        }
+        return book;
+    }
+
+    @Override
+    public List<Book> getAllBooks() {
+        return cachedList(() -> super.getAllBooks(), "all");
+    }
+
+    @Override
+    public List<Book> getBooksAfter(int afterId, int limit) {
+        return cachedList(() -> super.getBooksAfter(afterId, limit), "after", afterId, limit);
+    }
+
+    @Override
+    public List<Book> getBooksAt(int offset, int limit) {
+        return cachedList(() -> super.getBooksAt(offset, limit), "at", offset, limit);
+    }
+
+    @Override
+    public int countBooks() {
+        return (Integer) cached(() -> super.countBooks(), "count");
+    }
+
+    @Override
+    public List<Book> searchBooks(String keyword) {
+        return cachedList(() -> super.searchBooks(keyword), "search", keyword);
+    }
+
+    @Override
+    public List<Book> searchBooks(String keyword, SearchMode mode) {
+        return cachedList(() -> super.searchBooks(keyword, mode), "search", keyword, mode);
+    }
+
+    @Override
+    public List<Book> findBooks(BookQuery query) {
+        return cachedList(() -> super.findBooks(query), "find", keyOf(query));
+    }
+
+    @Override
+    public int countBooks(BookQuery query) {
+        return (Integer) cached(() -> super.countBooks(query), "count", keyOf(query));
+    }
+
+    /**
+     * Empties both caches and closes all pooled connections.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            results.clear();
+            books.clear();
+        }
+        super.close();
+    }
+
+    /** @return the number of reads answered from the cache */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /** @return the number of reads that went to the database */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /** @return the number of entries dropped to stay within the cache sizes */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /** @return the number of writes made through this DAO */
+    public synchronized long getWriteVersion() {
+        return version;
+    }
+
+    private List<Book> cachedList(Supplier<List<Book>> query, Object... key) {
+        @SuppressWarnings("unchecked")
+        List<Book> result = (List<Book>) cached(query::get, key);
+        return new ArrayList<>(result);
+    }
+
+    private Object cached(Supplier<Object> query, Object... key) {
+        List<Object> k = Arrays.asList(key);
+        long start;
+        synchronized (this) {
+            Result cached = results.get(k);
+            if (cached != null && cached.version == version) {
+                hits++;
+                return cached.value;
+            }
+            if (cached != null) results.remove(k);
+            misses++;
+            start = version;
+        }
+
+        Object value = query.get();
+        synchronized (this) {
+            // Drop the result if a write completed while the query ran
+            if (start == version) {
+                results.put(k, new Result(value, start));
+            }
+        }
+        return value;
+    }
+
+    @Override
+    protected synchronized void committed(DataChangeEvent event) {
+        version++;
+        for (int id : event.getIds()) {
+            books.remove(id);
+        }
+    }
+
+    @Override
+    protected synchronized void notWritten(List<Integer> ids) {
+        // Callers may have edited the cached instances before the failed write
+        version++;
+        for (int id : ids) {
+            books.remove(id);
+        }
+    }
+
+    private boolean evict(boolean full) {
+        if (full) evictions++;
+        return full;
+    }
+
+    private static List<Object> keyOf(BookQuery query) {
+        return Arrays.asList(query.getKeyword(), query.getSearchMode(), query.getGenre(), query.isFavoritesOnly(),
+            query.getSortKey(), query.isDescending(), query.getLimit(), query.getOffset(), keyOf(query.getAfter()));
+    }
+
+    private static List<Object> keyOf(Book book) {
+        // The cursor book may be edited later, so key on its values rather than the instance
+        return book == null ? null
+            : Arrays.asList(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre(), book.isFavorite());
+    }
+
+    /**
+     * A cached value and the write version it was read under.
+     */
+    private static final class Result {
+        final Object value;
+        final long version;
+
+        Result(Object value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+}
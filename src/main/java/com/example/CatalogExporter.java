@@ -0,0 +1,334 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streams the books table, or the books matching a {@link BookQuery}, into a CSV or JSONL file.
+ * <p>
+ * Rows are read one at a time from {@link BookDAO#streamBooks(BookQuery)}, formatted into a
+ * reused {@link StringBuilder} and encoded straight into a direct buffer that is written to a
+ * {@link FileChannel} whenever it fills up, so memory use does not depend on the number of
+ * rows. With gzip enabled the buffer is compressed by a {@link Deflater} into a second direct
+ * buffer before it reaches the channel. The file is written next to the target and moved into
+ * place when complete, so readers never see a partial export.
+ * <p>
+ * CSV files start with the header {@code id,title,author,genre,favorite}; JSONL files contain
+ * one object per line as written by {@link Json#appendBook}. Both can be read back by
+ * {@link CatalogImporter}.
+ */
+public class CatalogExporter {
+    private static final byte[] NO_INPUT = new byte[0];
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final BookDAO dao;
+    private int bufferSize = 1 << 16;
+    private int progressInterval = 10_000;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs an exporter reading through the given DAO.
+     *
+     * @param dao the DAO to read books with
+     */
+    public CatalogExporter(BookDAO dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Sets the size of the write buffer.
+     *
+     * @param bufferSize bytes per write to the file, at least 1024
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize < 1024) throw new IllegalArgumentException("bufferSize must be at least 1024");
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Sets how often progress is reported.
+     *
+     * @param progressInterval rows between progress reports, at least 1
+     */
+    public void setProgressInterval(int progressInterval) {
+        if (progressInterval < 1) throw new IllegalArgumentException("progressInterval must be at least 1");
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Requests that a running export stops; the target file is then left unchanged.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Exports all books, choosing the format and compression from the file name: a
+     * {@code .gz} suffix enables gzip, and the rest of the name selects the format as for
+     * {@link CatalogImporter.Format#of}.
+     *
+     * @param file     the target file, replaced if it exists
+     * @param progress receives a report every few thousand rows; called on the calling thread
+     * @return the final report
+     * @throws IOException if the file cannot be written
+     */
+    public ExportReport exportFile(Path file, Consumer<ExportReport> progress) throws IOException {
+        return exportFile(file, formatOf(file), isGzip(file), new BookQuery(), progress);
+    }
+
+    /**
+     * Exports the books that match a query, in query order.
+     *
+     * @param file     the target file, replaced if it exists
+     * @param format   the file format
+     * @param gzip     true to compress the file with gzip
+     * @param query    the filter and order; its limit and offset apply as well
+     * @param progress receives a report every few thousand rows; called on the calling thread
+     * @return the final report
+     * @throws IOException if the file cannot be written or the books cannot be read
+     */
+    public ExportReport exportFile(Path file, CatalogImporter.Format format, boolean gzip, BookQuery query,
+                                   Consumer<ExportReport> progress) throws IOException {
+        cancelled = false;
+        long start = System.nanoTime();
+        long rows = 0;
+        Path temp = AtomicFiles.createTempSibling(file);
+        try {
+            ExportReport report;
+            try (ChannelWriter writer = new ChannelWriter(FileChannel.open(temp, StandardOpenOption.WRITE), bufferSize, gzip);
+                 Stream<Book> books = dao.streamBooks(query)) {
+                StringBuilder line = new StringBuilder(256);
+                if (format == CatalogImporter.Format.CSV) {
+                    writer.write("id,title,author,genre,favorite\n");
+                }
+                Iterator<Book> it = books.iterator();
+                while (it.hasNext()) {
+                    if (cancelled) {
+                        return new ExportReport(rows, writer.getBytesWritten(), writer.getFileBytes(),
+                            System.nanoTime() - start, false);
+                    }
+                    line.setLength(0);
+                    if (format == CatalogImporter.Format.JSONL) {
+                        Json.appendBook(line, it.next());
+                    } else {
+                        appendCsv(line, it.next());
+                    }
+                    writer.write(line.append('\n'));
+                    if (++rows % progressInterval == 0) {
+                        progress.accept(new ExportReport(rows, writer.getBytesWritten(), writer.getFileBytes(),
+                            System.nanoTime() - start, false));
+                    }
+                }
+                writer.finish();
+                report = new ExportReport(rows, writer.getBytesWritten(), writer.getFileBytes(),
+                    System.nanoTime() - start, true);
+            } catch (IllegalStateException e) {
+                // Reading from the database failed
+                throw new IOException("export failed: " + e.getMessage(), e);
+            }
+            AtomicFiles.replace(temp, file);
+            progress.accept(report);
+            return report;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Chooses the format from the file name, ignoring a {@code .gz} suffix.
+     *
+     * @param file the target file
+     * @return the format
+     */
+    static CatalogImporter.Format formatOf(Path file) {
+        String name = file.getFileName().toString();
+        return CatalogImporter.Format.of(Paths.get(isGzip(file) ? name.substring(0, name.length() - 3) : name));
+    }
+
+    private static boolean isGzip(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    private static void appendCsv(StringBuilder out, Book book) {
+        out.append(book.getId()).append(',');
+        Csv.appendField(out, book.getTitle()).append(',');
+        Csv.appendField(out, book.getAuthor()).append(',');
+        Csv.appendField(out, book.getGenre()).append(',').append(book.isFavorite());
+    }
+
+    /**
+     * Encodes text as UTF-8 into a direct buffer and writes it to a channel when the buffer
+     * is full, optionally through a raw {@link Deflater} framed as a gzip member.
+     */
+    private static class ChannelWriter implements Closeable {
+        private final FileChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer text;
+        private final Deflater deflater;
+        private final ByteBuffer compressed;
+        private final CRC32 crc;
+        private long bytesWritten;
+
+        ChannelWriter(FileChannel channel, int bufferSize, boolean gzip) throws IOException {
+            this.channel = channel;
+            this.text = ByteBuffer.allocateDirect(bufferSize);
+            if (gzip) {
+                deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+                compressed = ByteBuffer.allocateDirect(bufferSize);
+                crc = new CRC32();
+                writeFully(ByteBuffer.wrap(GZIP_HEADER));
+            } else {
+                deflater = null;
+                compressed = null;
+                crc = null;
+            }
+        }
+
+        long getBytesWritten() {
+            return bytesWritten + text.position();
+        }
+
+        long getFileBytes() throws IOException {
+            return channel.position();
+        }
+
+        void write(CharSequence s) throws IOException {
+            CharBuffer in = CharBuffer.wrap(s);
+            while (encoder.encode(in, text, false).isOverflow()) {
+                drain();
+            }
+        }
+
+        /**
+         * Writes out everything buffered and, for gzip, the end of the compressed stream.
+         */
+        void finish() throws IOException {
+            drain();
+            if (deflater != null) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflater.deflate(compressed);
+                    writeCompressed();
+                }
+                ByteBuffer trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+                trailer.putInt((int) crc.getValue()).putInt((int) bytesWritten).flip();
+                writeFully(trailer);
+            }
+        }
+
+        private void drain() throws IOException {
+            text.flip();
+            bytesWritten += text.remaining();
+            if (deflater == null) {
+                writeFully(text);
+            } else {
+                crc.update(text.duplicate());
+                deflater.setInput(text);
+                while (!deflater.needsInput()) {
+                    deflater.deflate(compressed);
+                    writeCompressed();
+                }
+                // The deflater keeps the buffer; detach it before it is cleared for reuse
+                deflater.setInput(NO_INPUT);
+            }
+            text.clear();
+        }
+
+        private void writeCompressed() throws IOException {
+            compressed.flip();
+            writeFully(compressed);
+            compressed.clear();
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (deflater != null) deflater.end();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Command-line entry point.
+     * <p>
+     * Usage: {@code CatalogExporter <file> [--db <jdbc-url>] [--keyword <text>] [--mode <search-mode>]
+     * [--genre <name>] [--favorites]}. A {@code .gz} suffix on the file name enables gzip.
+     *
+     * @param args command-line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: CatalogExporter <file.csv|file.jsonl>[.gz] [--db <jdbc-url>] [--keyword <text>] " +
+                               "[--mode substring|token|prefix] [--genre <name>] [--favorites]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        DatabaseConfig config = new DatabaseConfig();
+        BookQuery query = new BookQuery();
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--favorites")) {
+                query.setFavoritesOnly(true);
+                continue;
+            }
+            if (i + 1 == args.length) {
+                System.err.println("Missing value for " + option);
+                System.exit(2);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--db" -> config.setUrl(value);
+                case "--keyword" -> query.setKeyword(value);
+                case "--mode" -> query.setSearchMode(SearchMode.valueOf(value.toUpperCase(Locale.ROOT)));
+                case "--genre" -> query.setGenre(value);
+                default -> {
+                    System.err.println("Unknown option " + option);
+                    System.exit(2);
+                }
+            }
+        }
+
+        try (BookDAO dao = new BookDAO(config)) {
+            CatalogExporter exporter = new CatalogExporter(dao);
+            long[] lastPrint = {System.nanoTime()};
+            ExportReport report = exporter.exportFile(file, formatOf(file), isGzip(file), query, r -> {
+                long now = System.nanoTime();
+                if (now - lastPrint[0] > 1_000_000_000L) {
+                    lastPrint[0] = now;
+                    System.out.println(r);
+                }
+            });
+            System.out.println("Done: " + report);
+        } catch (IOException e) {
+            System.err.println("Export failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
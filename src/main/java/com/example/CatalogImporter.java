@@ -0,0 +1,387 @@
+package com.example;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Streams CSV or JSONL catalog files into the books table.
+ * <p>
+ * The calling thread parses the file record by record and hands batches of books to a
+ * writer thread through a bounded queue; the writer stores each batch in one transaction
+ * with {@link BookDAO#addBooks(Collection, int)}. Memory use is therefore bounded by
+ * {@code batchSize * queueCapacity} books regardless of the file size.
+ * Invalid records are counted and skipped without stopping the import.
+ * <p>
+ * CSV files may start with a header naming the columns {@code title}, {@code author},
+ * {@code genre} and {@code favorite}; without a header the columns are taken in that order.
+ * JSONL files contain one flat JSON object per line with the same member names.
+ */
+public class CatalogImporter {
+    private static final List<Book> END = Collections.emptyList();
+
+    /** Supported input formats. */
+    public enum Format {
+        CSV, JSONL;
+
+        /**
+         * Chooses the format from the file extension.
+         *
+         * @param file the input file
+         * @return JSONL for {@code .jsonl}, {@code .ndjson} and {@code .json} files, CSV otherwise
+         */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json") ? JSONL : CSV;
+        }
+    }
+
+    private final BookDAO dao;
+    private int batchSize = 1000;
+    private int queueCapacity = 4;
+    private int maxErrors = 100;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs an importer writing through the given DAO.
+     *
+     * @param dao the DAO to insert books with
+     */
+    public CatalogImporter(BookDAO dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Sets the number of books committed per transaction.
+     *
+     * @param batchSize rows per transaction, at least 1
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be at least 1");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets how many parsed batches may wait for the writer.
+     *
+     * @param queueCapacity number of queued batches, at least 1
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) throw new IllegalArgumentException("queueCapacity must be at least 1");
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Sets how many rejected records are described in the report.
+     *
+     * @param maxErrors maximum number of error messages kept
+     */
+    public void setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Requests that a running import stops after the current batch.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Imports a file, choosing the format from its extension.
+     *
+     * @param file     the CSV or JSONL file
+     * @param progress receives a report after every committed batch; called on the writer thread
+     * @return the final report
+     * @throws IOException if the file cannot be read
+     */
+    public ImportReport importFile(Path file, Consumer<ImportReport> progress) throws IOException {
+        return importFile(file, Format.of(file), progress);
+    }
+
+    /**
+     * Imports a file in the given format.
+     *
+     * @param file     the input file
+     * @param format   the file format
+     * @param progress receives a report after every committed batch; called on the writer thread
+     * @return the final report
+     * @throws IOException if the file cannot be read
+     */
+    public ImportReport importFile(Path file, Format format, Consumer<ImportReport> progress) throws IOException {
+        cancelled = false;
+        long totalBytes = Files.size(file);
+        long start = System.nanoTime();
+        AtomicLong rowsRead = new AtomicLong();
+        AtomicLong imported = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+
+            BlockingQueue<List<Book>> queue = new ArrayBlockingQueue<>(queueCapacity);
+            Thread writer = new Thread(() -> {
+                try {
+                    for (List<Book> batch = queue.take(); batch != END; batch = queue.take()) {
+                        int[] ids = dao.addBooks(batch, batchSize);
+                        if (ids.length == batch.size()) {
+                            imported.addAndGet(batch.size());
+                        } else {
+                            rejected.addAndGet(batch.size());
+                            addError(errors, "batch of " + batch.size() + " rows failed to insert");
+                        }
+                        progress.accept(new ImportReport(rowsRead.get(), imported.get(), rejected.get(),
+                            in.getCount(), totalBytes, System.nanoTime() - start, List.of()));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "catalog-import-writer");
+            writer.start();
+
+            try {
+                RecordParser parser = format == Format.JSONL ? new JsonlParser() : new CsvParser();
+                List<Book> batch = new ArrayList<>(batchSize);
+                long[] line = {0};
+                while (!cancelled) {
+                    long lineNo = line[0] + 1;
+                    Book book;
+                    try {
+                        book = parser.next(reader, line);
+                        if (book == null) break;
+                        validate(book);
+                        rowsRead.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rowsRead.incrementAndGet();
+                        rejected.incrementAndGet();
+                        addError(errors, "line " + lineNo + ": " + e.getMessage());
+                        continue;
+                    }
+                    batch.add(book);
+                    if (batch.size() == batchSize) {
+                        put(queue, batch, writer);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty() && !cancelled) {
+                    put(queue, batch, writer);
+                }
+            } finally {
+                finish(queue, writer);
+            }
+
+            return new ImportReport(rowsRead.get(), imported.get(), rejected.get(),
+                in.getCount(), totalBytes, System.nanoTime() - start, errors);
+        }
+    }
+
+    private void addError(List<String> errors, String message) {
+        synchronized (errors) {
+            if (errors.size() < maxErrors) errors.add(message);
+        }
+    }
+
+    private static void validate(Book book) {
+        if (book.getTitle() == null || book.getTitle().isBlank()) {
+            throw new IllegalArgumentException("missing title");
+        }
+        if (book.getAuthor() == null || book.getAuthor().isBlank()) {
+            throw new IllegalArgumentException("missing author");
+        }
+    }
+
+    private static void put(BlockingQueue<List<Book>> queue, List<Book> batch, Thread writer) throws IOException {
+        try {
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    throw new IOException("import writer stopped unexpectedly");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("import interrupted");
+        }
+    }
+
+    /**
+     * Signals the writer that no more batches follow and waits until it has committed the queued ones.
+     */
+    private static void finish(BlockingQueue<List<Book>> queue, Thread writer) {
+        boolean interrupted = Thread.interrupted();
+        while (writer.isAlive()) {
+            try {
+                if (queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+                    writer.join();
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private static boolean parseFavorite(String value) {
+        if (value == null) return false;
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        return v.equals("1") || v.equals("true") || v.equals("yes");
+    }
+
+    /**
+     * Turns the next record of a catalog file into a book.
+     */
+    private interface RecordParser {
+        /**
+         * @return the next book, or null at end of input
+         * @throws IllegalArgumentException if the record is malformed
+         */
+        Book next(BufferedReader reader, long[] line) throws IOException;
+    }
+
+    private static class CsvParser implements RecordParser {
+        private int titleCol = 0, authorCol = 1, genreCol = 2, favoriteCol = 3;
+        private boolean first = true;
+
+        @Override
+        public Book next(BufferedReader reader, long[] line) throws IOException {
+            List<String> fields = Csv.readRecord(reader, line);
+            if (fields != null && first) {
+                first = false;
+                if (fields.stream().anyMatch(f -> f.trim().equalsIgnoreCase("title"))) {
+                    readHeader(fields);
+                    fields = Csv.readRecord(reader, line);
+                }
+            }
+            while (fields != null && fields.size() == 1 && fields.get(0).isBlank()) {
+                fields = Csv.readRecord(reader, line);
+            }
+            if (fields == null) return null;
+            return new Book(-1, field(fields, titleCol), field(fields, authorCol),
+                field(fields, genreCol), parseFavorite(field(fields, favoriteCol)));
+        }
+
+        private void readHeader(List<String> header) {
+            titleCol = authorCol = genreCol = favoriteCol = -1;
+            for (int i = 0; i < header.size(); i++) {
+                switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "title" -> titleCol = i;
+                    case "author" -> authorCol = i;
+                    case "genre" -> genreCol = i;
+                    case "favorite" -> favoriteCol = i;
+                    default -> { }
+                }
+            }
+        }
+
+        private static String field(List<String> fields, int col) {
+            if (col < 0 || col >= fields.size()) return null;
+            String value = fields.get(col).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    private static class JsonlParser implements RecordParser {
+        @Override
+        public Book next(BufferedReader reader, long[] line) throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) return null;
+                line[0]++;
+            } while (text.isBlank());
+
+            Map<String, Object> obj = Json.parseObject(text);
+            Object favorite = obj.get("favorite");
+            boolean isFavorite = favorite instanceof Boolean b ? b
+                : favorite instanceof Double d ? d != 0
+                : parseFavorite(string(favorite));
+            return new Book(-1, string(obj.get("title")), string(obj.get("author")), string(obj.get("genre")), isFavorite);
+        }
+
+        private static String string(Object value) {
+            return value == null ? null : value.toString().trim();
+        }
+    }
+
+    /**
+     * Counts the bytes read through it so progress can be reported against the file size.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+
+    /**
+     * Command-line entry point.
+     * <p>
+     * Usage: {@code CatalogImporter <file> [--db <jdbc-url>] [--batch <rows>]}
+     *
+     * @param args command-line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: CatalogImporter <file.csv|file.jsonl> [--db <jdbc-url>] [--batch <rows>]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        DatabaseConfig config = new DatabaseConfig();
+        int batch = 1000;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--db" -> config.setUrl(args[i + 1]);
+                case "--batch" -> batch = Integer.parseInt(args[i + 1]);
+                default -> {
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        try (BookDAO dao = new BookDAO(config)) {
+            CatalogImporter importer = new CatalogImporter(dao);
+            importer.setBatchSize(batch);
+            long[] lastPrint = {0};
+            ImportReport report = importer.importFile(file, r -> {
+                long now = System.nanoTime();
+                if (now - lastPrint[0] > 1_000_000_000L) {
+                    lastPrint[0] = now;
+                    System.out.println(r);
+                }
+            });
+            System.out.println("Done: " + report);
+            report.getErrors().forEach(err -> System.out.println("  rejected " + err));
+        } catch (IOException e) {
+            System.err.println("Import failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
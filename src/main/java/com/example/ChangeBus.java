@@ -0,0 +1,104 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * A lightweight publish/subscribe bus for {@link DataChangeEvent}s.
+ * <p>
+ * Each subscriber names the {@link Executor} its listener runs on, e.g.
+ * {@code SwingUtilities::invokeLater} for views. Events published while a delivery to a
+ * subscriber is still pending are appended to that delivery, so a burst of writes reaches
+ * the listener as one batch, in publication order. Publishing never blocks on listeners.
+ */
+public class ChangeBus {
+    /**
+     * Receives batches of change events.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called with the events published since the previous call.
+         *
+         * @param events one or more events in publication order
+         */
+        void changed(List<DataChangeEvent> events);
+    }
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener the listener
+     * @param executor runs the listener; a direct executor such as {@code Runnable::run}
+     *                 delivers each event synchronously on the publishing thread
+     */
+    public void subscribe(Listener listener, Executor executor) {
+        subscriptions.add(new Subscription(listener, executor));
+    }
+
+    /**
+     * Removes a listener. Batches already handed to its executor are still delivered.
+     *
+     * @param listener the listener to remove
+     */
+    public void unsubscribe(Listener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    /**
+     * Publishes an event to all subscribers.
+     *
+     * @param event the event
+     */
+    public void publish(DataChangeEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /** @return the number of subscribers */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    private static final class Subscription {
+        private final Listener listener;
+        private final Executor executor;
+        // Guarded by this; null when no delivery is scheduled
+        private List<DataChangeEvent> pending;
+
+        Subscription(Listener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        void offer(DataChangeEvent event) {
+            synchronized (this) {
+                if (pending != null) {
+                    pending.add(event);
+                    return;
+                }
+                pending = new ArrayList<>();
+                pending.add(event);
+            }
+            executor.execute(this::deliver);
+        }
+
+        private void deliver() {
+            List<DataChangeEvent> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = null;
+            }
+            try {
+                listener.changed(batch);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
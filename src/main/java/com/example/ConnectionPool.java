@@ -0,0 +1,151 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small pool of long-lived SQLite connections: one dedicated writer and
+ * several readers.
+ * <p>
+ * SQLite allows only one writer at a time, so all modifications are funnelled
+ * through a single connection while reads are spread over the reader connections.
+ * With the WAL journal readers never block the writer and vice versa.
+ * Every connection is opened once, configured with the pragmas from
+ * {@link DatabaseConfig}, and kept until {@link #close()} is called.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final DatabaseConfig config;
+    private final BlockingQueue<PooledConnection> writers = new ArrayBlockingQueue<>(1);
+    private final BlockingQueue<PooledConnection> readers;
+    private final Object lock = new Object();
+    private volatile boolean closed;
+
+    /**
+     * Opens the writer and reader connections described by the configuration.
+     *
+     * @param config the database configuration
+     * @throws SQLException if a connection cannot be opened or configured
+     */
+    public ConnectionPool(DatabaseConfig config) throws SQLException {
+        this.config = config;
+        this.readers = new ArrayBlockingQueue<>(config.getReaderCount());
+        try {
+            // The writer is opened first so that journal_mode=WAL is in place before readers attach.
+            PooledConnection writer = open(true);
+            writers.add(writer);
+            for (int i = 0; i < config.getReaderCount(); i++) {
+                readers.add(open(false));
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /** @return the configuration this pool was created with */
+    public DatabaseConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Borrows a read connection, waiting until one is free.
+     *
+     * @return a reader; close it to give it back
+     * @throws SQLException if the pool is closed or the wait is interrupted
+     */
+    public PooledConnection reader() throws SQLException {
+        return take(readers);
+    }
+
+    /**
+     * Borrows the write connection, waiting until it is free.
+     *
+     * @return the writer; close it to give it back
+     * @throws SQLException if the pool is closed or the wait is interrupted
+     */
+    public PooledConnection writer() throws SQLException {
+        return take(writers);
+    }
+
+    /**
+     * Closes every connection and its cached statements.
+     * Connections that are still borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> idle = new ArrayList<>();
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            writers.drainTo(idle);
+            readers.drainTo(idle);
+        }
+        for (PooledConnection pc : idle) {
+            pc.closePhysically();
+        }
+    }
+
+    /** @return true once {@link #close()} has been called */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Gives a borrowed connection back to the pool.
+     *
+     * @param pc the connection to return
+     */
+    void release(PooledConnection pc) {
+        synchronized (lock) {
+            if (!closed) {
+                (pc.isWriter() ? writers : readers).add(pc);
+                return;
+            }
+        }
+        pc.closePhysically();
+    }
+
+    private PooledConnection take(BlockingQueue<PooledConnection> queue) throws SQLException {
+        try {
+            while (!closed) {
+                PooledConnection pc = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (pc != null) {
+                    if (closed) {
+                        pc.closePhysically();
+                        break;
+                    }
+                    return pc;
+                }
+            }
+            throw new SQLException("Connection pool is closed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private PooledConnection open(boolean writer) throws SQLException {
+        Connection conn = DriverManager.getConnection(config.getUrl());
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + config.getBusyTimeoutMillis());
+            stmt.execute("PRAGMA foreign_keys = ON");
+            if (writer) {
+                stmt.execute("PRAGMA journal_mode = " + config.getJournalMode());
+            }
+            stmt.execute("PRAGMA synchronous = " + config.getSynchronous());
+            stmt.execute("PRAGMA cache_size = " + config.getCacheSize());
+            stmt.execute("PRAGMA mmap_size = " + config.getMmapSize());
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return new PooledConnection(this, conn, writer, config.getStatementCacheSize());
+    }
+}
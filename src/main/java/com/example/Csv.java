@@ -0,0 +1,110 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 CSV support used by the catalog import and export.
+ * <p>
+ * Fields are separated by commas and may be enclosed in double quotes; a quoted
+ * field may contain commas, line breaks and doubled quotes ({@code ""}).
+ */
+public class Csv {
+
+    /**
+     * Reads the next record, following quoted fields across line breaks.
+     *
+     * @param reader the source
+     * @param lines  single-element counter that is increased by the number of physical lines consumed
+     * @return the fields of the record, or null at end of input
+     * @throws IOException if reading fails
+     */
+    public static List<String> readRecord(BufferedReader reader, long[] lines) throws IOException {
+        String line = reader.readLine();
+        if (line == null) return null;
+        lines[0]++;
+
+        StringBuilder record = new StringBuilder(line);
+        while (countQuotes(record) % 2 != 0) {
+            String next = reader.readLine();
+            if (next == null) {
+                throw new IllegalArgumentException("unterminated quoted field");
+            }
+            lines[0]++;
+            record.append('\n').append(next);
+        }
+        return parseRecord(record);
+    }
+
+    /**
+     * Splits a complete record into its fields.
+     *
+     * @param record the record text without the trailing line break
+     * @return the unquoted field values
+     */
+    public static List<String> parseRecord(CharSequence record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Appends a field, enclosing it in double quotes if it contains a comma, a quote, a line
+     * break or leading or trailing spaces, so that {@link #parseRecord} reads it back unchanged.
+     *
+     * @param out   the target
+     * @param value the field value; null is written as an empty field
+     * @return the target
+     */
+    public static StringBuilder appendField(StringBuilder out, String value) {
+        if (value == null || value.isEmpty()) return out;
+        boolean quote = value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ';
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) return out.append(value);
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        return out.append('"');
+    }
+
+    private static int countQuotes(CharSequence s) {
+        int count = 0;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == '"') count++;
+        }
+        return count;
+    }
+}
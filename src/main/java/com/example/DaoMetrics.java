@@ -0,0 +1,256 @@
+package com.example;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-operation call counts, error counts, rows and latency histograms of a {@link BookDAO}.
+ * <p>
+ * The DAO brackets each operation with {@link #start()} and {@link #succeeded} or {@link #failed}.
+ * When metrics are disabled these return immediately without reading the clock, so the cost
+ * is one branch per call. When enabled, recording is lock-free: counters are {@link LongAdder}s
+ * and latencies go into a log-linear histogram with eight buckets per power of two, which keeps
+ * percentiles within 12.5% of the true value.
+ * <p>
+ * Enabled metrics are registered as an MXBean named
+ * {@code com.example:type=DaoMetrics,db=<url>,instance=<n>} and can optionally be written to the
+ * {@code com.example.DaoMetrics} logger at a fixed interval. {@link #close()} undoes both.
+ */
+public class DaoMetrics implements DaoMetricsMXBean, AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(DaoMetrics.class.getName());
+    private static final AtomicInteger instances = new AtomicInteger();
+
+    private final boolean enabled;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private ObjectName name;
+    private ScheduledExecutorService logger;
+
+    /**
+     * Constructs metrics that record nothing.
+     */
+    public DaoMetrics() {
+        this.enabled = false;
+    }
+
+    /**
+     * Constructs metrics for a database according to its configuration.
+     *
+     * @param config the settings that enable metrics and the log interval
+     */
+    public DaoMetrics(DatabaseConfig config) {
+        this.enabled = config.isMetricsEnabled();
+        if (!enabled) return;
+        register(config.getUrl());
+        if (config.getMetricsLogIntervalSeconds() > 0) {
+            startLogging(config.getMetricsLogIntervalSeconds());
+        }
+    }
+
+    /**
+     * Marks the start of an operation.
+     *
+     * @return the start time to pass to {@link #succeeded} or {@link #failed}, or 0 if disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a completed operation.
+     *
+     * @param operation the operation name
+     * @param start     the value returned by {@link #start()}
+     * @param rows      the number of rows returned or written
+     */
+    public void succeeded(String operation, long start, int rows) {
+        if (!enabled) return;
+        Operation op = operation(operation);
+        op.latency.record(System.nanoTime() - start);
+        op.rows.add(rows);
+    }
+
+    /**
+     * Records a failed operation.
+     *
+     * @param operation the operation name
+     * @param start     the value returned by {@link #start()}
+     * @param error     the cause of the failure
+     */
+    public void failed(String operation, long start, Exception error) {
+        if (!enabled) return;
+        Operation op = operation(operation);
+        op.latency.record(System.nanoTime() - start);
+        op.errors.increment();
+        op.lastError = error.toString();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Map<String, OperationSnapshot> getOperations() {
+        Map<String, OperationSnapshot> snapshots = new TreeMap<>();
+        operations.forEach((key, op) -> snapshots.put(key, op.snapshot(key)));
+        return snapshots;
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder(String.format("%-18s %9s %6s %10s %9s %9s %9s",
+            "operation", "calls", "errors", "rows", "p50 us", "p99 us", "max us"));
+        for (OperationSnapshot op : getOperations().values()) {
+            summary.append(String.format("%n%-18s %9d %6d %10d %9d %9d %9d", op.getName(), op.getCount(),
+                op.getErrors(), op.getRows(), op.getP50Micros(), op.getP99Micros(), op.getMaxMicros()));
+        }
+        return summary.toString();
+    }
+
+    @Override
+    public void reset() {
+        operations.clear();
+    }
+
+    /**
+     * Stops the periodic log and unregisters the MXBean.
+     */
+    @Override
+    public synchronized void close() {
+        if (logger != null) {
+            logger.shutdownNow();
+            logger = null;
+        }
+        if (name != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+            name = null;
+        }
+    }
+
+    private Operation operation(String name) {
+        Operation op = operations.get(name);
+        return op != null ? op : operations.computeIfAbsent(name, key -> new Operation());
+    }
+
+    private synchronized void register(String url) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            name = new ObjectName("com.example:type=DaoMetrics,db=" + ObjectName.quote(url) +
+                                  ",instance=" + instances.incrementAndGet());
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            e.printStackTrace();
+            name = null;
+        }
+    }
+
+    private synchronized void startLogging(int intervalSeconds) {
+        logger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "dao-metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(() -> {
+            if (!operations.isEmpty()) LOG.log(Level.INFO, "DAO metrics\n{0}", getSummary());
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The counters of one operation.
+     */
+    private static final class Operation {
+        final Histogram latency = new Histogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        volatile String lastError;
+
+        OperationSnapshot snapshot(String name) {
+            return new OperationSnapshot(name, latency.count(), errors.sum(), rows.sum(),
+                latency.percentile(0.5) / 1000, latency.percentile(0.99) / 1000, latency.max() / 1000,
+                lastError);
+        }
+    }
+
+    /**
+     * A lock-free log-linear histogram of nanosecond values.
+     * <p>
+     * Values below 16 have a bucket each; above that, every power of two is split into
+     * eight equal buckets. A percentile is reported as the upper bound of its bucket.
+     */
+    static final class Histogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private static final int LINEAR = SUB_BUCKETS * 2;
+        private final AtomicLongArray counts = new AtomicLongArray(LINEAR + (63 - SUB_BITS - 1) * SUB_BUCKETS);
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            counts.incrementAndGet(bucketOf(value));
+            max.accumulate(value);
+        }
+
+        long count() {
+            long total = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                total += counts.get(i);
+            }
+            return total;
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        long percentile(double q) {
+            long[] snapshot = new long[counts.length()];
+            long total = 0;
+            for (int i = 0; i < snapshot.length; i++) {
+                snapshot[i] = counts.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * total));
+            long seen = 0;
+            for (int i = 0; i < snapshot.length; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) return Math.min(upperBound(i), max());
+            }
+            return max();
+        }
+
+        static int bucketOf(long value) {
+            if (value < LINEAR) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BITS;
+            int sub = (int) (value >>> shift) - SUB_BUCKETS;
+            return LINEAR + (exponent - SUB_BITS - 1) * SUB_BUCKETS + sub;
+        }
+
+        static long upperBound(int bucket) {
+            if (bucket < LINEAR) return bucket;
+            int exponent = (bucket - LINEAR) / SUB_BUCKETS + SUB_BITS + 1;
+            int sub = (bucket - LINEAR) % SUB_BUCKETS;
+            int shift = exponent - SUB_BITS;
+            return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link DaoMetrics}, as seen in JConsole or VisualVM.
+ */
+public interface DaoMetricsMXBean {
+    /** @return true if operations are being recorded */
+    boolean isEnabled();
+
+    /** @return the statistics of every operation called so far, by operation name */
+    Map<String, OperationSnapshot> getOperations();
+
+    /** @return the statistics of every operation as a text table */
+    String getSummary();
+
+    /**
+     * Clears all statistics.
+     */
+    void reset();
+}
@@ -0,0 +1,83 @@
+package com.example;
+
+import java.util.List;
+
+/**
+ * Describes one committed change to the books or the genre list, published on a {@link ChangeBus}.
+ * <p>
+ * Insert and update events carry the written books; a favorite change made with
+ * {@link BookDAO#setFavorite(int, boolean)} carries only the ID. Delete events carry the IDs.
+ * The books are the instances that were passed to the DAO and must not be modified by listeners.
+ */
+public class DataChangeEvent {
+    /** Kind of change. */
+    public enum Type {
+        /** Books were added. */
+        INSERTED,
+        /** Books were changed. */
+        UPDATED,
+        /** Books were deleted. */
+        DELETED,
+        /** The genre list was saved or changed on disk. */
+        GENRES_CHANGED
+    }
+
+    private final Type type;
+    private final List<Book> books;
+    private final List<Integer> ids;
+
+    /**
+     * Constructs an event.
+     *
+     * @param type  the kind of change
+     * @param books the affected books, empty if only IDs are known
+     * @param ids   the IDs of the affected books
+     */
+    public DataChangeEvent(Type type, List<Book> books, List<Integer> ids) {
+        this.type = type;
+        this.books = List.copyOf(books);
+        this.ids = List.copyOf(ids);
+    }
+
+    /**
+     * Creates an event for inserted or updated books.
+     *
+     * @param type  {@link Type#INSERTED} or {@link Type#UPDATED}
+     * @param books the written books
+     * @return the event
+     */
+    public static DataChangeEvent ofBooks(Type type, List<Book> books) {
+        return new DataChangeEvent(type, books, books.stream().map(Book::getId).toList());
+    }
+
+    /**
+     * Creates an event that only knows the IDs of the affected books.
+     *
+     * @param type the kind of change
+     * @param ids  the IDs of the affected books
+     * @return the event
+     */
+    public static DataChangeEvent ofIds(Type type, List<Integer> ids) {
+        return new DataChangeEvent(type, List.of(), ids);
+    }
+
+    /** @return the kind of change */
+    public Type getType() {
+        return type;
+    }
+
+    /** @return the affected books, or an empty list if only IDs are known */
+    public List<Book> getBooks() {
+        return books;
+    }
+
+    /** @return the IDs of the affected books; empty for genre changes */
+    public List<Integer> getIds() {
+        return ids;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + ids;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example;
+
+/**
+ * Connection settings for the SQLite database used by {@link BookDAO}.
+ * <p>
+ * Holds the JDBC URL, the size of the reader pool, the per-connection
+ * prepared-statement cache size and the pragmas applied to every connection
+ * when it is opened. The defaults target the bundled {@code books.db} file and keep its
+ * {@link BookSnapshot} in {@code books.snapshot}.
+ * Operation metrics are off unless the system property {@code bookmanager.metrics} is
+ * {@code true}; {@code bookmanager.metrics.logSeconds} sets the interval of their log dump.
+ */
+public class DatabaseConfig {
+    /** Default JDBC URL of the application database. */
+    public static final String DEFAULT_URL = "jdbc:sqlite:books.db";
+    /** Default snapshot file of the application database. */
+    public static final String DEFAULT_SNAPSHOT_FILE = "books.snapshot";
+
+    private String url = DEFAULT_URL;
+    private int readerCount = 4;
+    private int statementCacheSize = 32;
+    private String journalMode = "WAL";
+    private String synchronous = "NORMAL";
+    private int cacheSize = -8000;
+    private long mmapSize = 64L * 1024 * 1024;
+    private int busyTimeoutMillis = 5000;
+    private int batchSize = 1000;
+    private int maxWriteGroup = 256;
+    private int writeRetries = 3;
+    private boolean metricsEnabled = Boolean.getBoolean("bookmanager.metrics");
+    private int metricsLogIntervalSeconds = Integer.getInteger("bookmanager.metrics.logSeconds", 0);
+    private String snapshotFile;
+
+    /**
+     * Constructs a configuration for the default database file.
+     */
+    public DatabaseConfig() {
+        this.snapshotFile = DEFAULT_SNAPSHOT_FILE;
+    }
+
+    /**
+     * Constructs a configuration for the given JDBC URL.
+     *
+     * @param url the JDBC URL, e.g. {@code jdbc:sqlite:books.db}
+     */
+    public DatabaseConfig(String url) {
+        this.url = url;
+    }
+
+    /** @return the JDBC URL */
+    public String getUrl() {
+        return url;
+    }
+
+    /** @return the number of read-only connections kept in the pool */
+    public int getReaderCount() {
+        return readerCount;
+    }
+
+    /** @return the maximum number of prepared statements cached per connection */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /** @return the {@code journal_mode} pragma value */
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    /** @return the {@code synchronous} pragma value */
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    /** @return the {@code cache_size} pragma value (negative values are KiB) */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /** @return the {@code mmap_size} pragma value in bytes */
+    public long getMmapSize() {
+        return mmapSize;
+    }
+
+    /** @return the {@code busy_timeout} pragma value in milliseconds */
+    public int getBusyTimeoutMillis() {
+        return busyTimeoutMillis;
+    }
+
+    /** @return the default number of rows sent per JDBC batch by the bulk DAO methods */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /** @return the maximum number of queued writes committed in one transaction */
+    public int getMaxWriteGroup() {
+        return maxWriteGroup;
+    }
+
+    /** @return how often a write transaction is retried when the database stays busy */
+    public int getWriteRetries() {
+        return writeRetries;
+    }
+
+    /** @return the path of the catalogue snapshot file, or null if none is kept */
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /** @return true if the DAO records {@link DaoMetrics} */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /** @return the interval at which enabled metrics are logged in seconds, or 0 for never */
+    public int getMetricsLogIntervalSeconds() {
+        return metricsLogIntervalSeconds;
+    }
+
+    /**
+     * Sets the JDBC URL.
+     *
+     * @param url the new JDBC URL
+     */
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Sets the number of read-only connections kept in the pool.
+     *
+     * @param readerCount number of readers, at least 1
+     */
+    public void setReaderCount(int readerCount) {
+        if (readerCount < 1) {
+            throw new IllegalArgumentException("readerCount must be at least 1");
+        }
+        this.readerCount = readerCount;
+    }
+
+    /**
+     * Sets the maximum number of prepared statements cached per connection.
+     *
+     * @param statementCacheSize cache size, at least 1
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        if (statementCacheSize < 1) {
+            throw new IllegalArgumentException("statementCacheSize must be at least 1");
+        }
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Sets the {@code journal_mode} pragma, e.g. {@code WAL} or {@code DELETE}.
+     *
+     * @param journalMode the journal mode
+     */
+    public void setJournalMode(String journalMode) {
+        this.journalMode = journalMode;
+    }
+
+    /**
+     * Sets the {@code synchronous} pragma, e.g. {@code OFF}, {@code NORMAL} or {@code FULL}.
+     *
+     * @param synchronous the synchronous level
+     */
+    public void setSynchronous(String synchronous) {
+        this.synchronous = synchronous;
+    }
+
+    /**
+     * Sets the {@code cache_size} pragma.
+     *
+     * @param cacheSize number of pages, or KiB when negative
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Sets the {@code mmap_size} pragma; 0 disables memory-mapped I/O.
+     *
+     * @param mmapSize the mapping size in bytes
+     */
+    public void setMmapSize(long mmapSize) {
+        this.mmapSize = mmapSize;
+    }
+
+    /**
+     * Sets the {@code busy_timeout} pragma.
+     *
+     * @param busyTimeoutMillis time to wait for a lock in milliseconds
+     */
+    public void setBusyTimeoutMillis(int busyTimeoutMillis) {
+        this.busyTimeoutMillis = busyTimeoutMillis;
+    }
+
+    /**
+     * Sets the default number of rows sent per JDBC batch by the bulk DAO methods.
+     *
+     * @param batchSize rows per batch, at least 1
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets the maximum number of queued writes committed in one transaction.
+     *
+     * @param maxWriteGroup writes per transaction, at least 1
+     */
+    public void setMaxWriteGroup(int maxWriteGroup) {
+        if (maxWriteGroup < 1) {
+            throw new IllegalArgumentException("maxWriteGroup must be at least 1");
+        }
+        this.maxWriteGroup = maxWriteGroup;
+    }
+
+    /**
+     * Sets how often a write transaction is retried when the database is still busy
+     * after the busy timeout, e.g. because another process holds the write lock.
+     *
+     * @param writeRetries number of retries, 0 for none
+     */
+    public void setWriteRetries(int writeRetries) {
+        if (writeRetries < 0) {
+            throw new IllegalArgumentException("writeRetries must not be negative");
+        }
+        this.writeRetries = writeRetries;
+    }
+
+    /**
+     * Turns operation metrics and their MXBean on or off.
+     *
+     * @param metricsEnabled true to record metrics
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Sets the interval at which enabled metrics are written to the log.
+     *
+     * @param metricsLogIntervalSeconds interval in seconds, or 0 for never
+     */
+    public void setMetricsLogIntervalSeconds(int metricsLogIntervalSeconds) {
+        if (metricsLogIntervalSeconds < 0) {
+            throw new IllegalArgumentException("metricsLogIntervalSeconds must not be negative");
+        }
+        this.metricsLogIntervalSeconds = metricsLogIntervalSeconds;
+    }
+
+    /**
+     * Sets where the catalogue snapshot used for fast startup is kept.
+     *
+     * @param snapshotFile the file path, or null to keep no snapshot
+     */
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+}
@@ -0,0 +1,302 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates and upgrades the database schema.
+ * <p>
+ * The schema version is stored in SQLite's {@code user_version} pragma. Each migration
+ * step runs in its own transaction and bumps the version, so existing {@code books.db}
+ * files are upgraded in place the first time a newer version of the application opens them.
+ * Afterwards the stored sort keys are rebuilt if they were computed by a different
+ * {@link BookOrder#KEY_VERSION}, e.g. before a JDK upgrade.
+ */
+public class DatabaseSchema {
+    /** The schema version this code expects. */
+    public static final int CURRENT_VERSION = 6;
+
+    /**
+     * Brings the database on the given connection up to {@link #CURRENT_VERSION}.
+     *
+     * @param conn a connection with auto-commit enabled
+     * @throws SQLException if a migration step fails; that step is rolled back
+     */
+    public static void migrate(Connection conn) throws SQLException {
+        int version = getVersion(conn);
+        while (version < CURRENT_VERSION) {
+            version++;
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                switch (version) {
+                    case 1 -> createBooksTable(stmt);
+                    case 2 -> createFullTextIndex(stmt);
+                    case 3 -> normalizeGenres(stmt);
+                    case 4 -> createFilterIndexes(stmt);
+                    case 5 -> createChangeCounter(stmt);
+                    case 6 -> createSortKeys(stmt);
+                    default -> throw new IllegalStateException("No migration for version " + version);
+                }
+                stmt.execute("PRAGMA user_version = " + version);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        refreshSortKeys(conn);
+    }
+
+    /**
+     * Reads the version of the collation keys stored in the books table.
+     *
+     * @param conn an open connection to a database at {@link #CURRENT_VERSION}
+     * @return the stored {@link BookOrder#KEY_VERSION}, or null if it is not known
+     * @throws SQLException if the version cannot be read
+     */
+    public static String getSortKeyVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT sort_key_version FROM catalog_state WHERE id = 1")) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    /**
+     * Recomputes all sort keys in one transaction if they were written under another key version.
+     */
+    private static void refreshSortKeys(Connection conn) throws SQLException {
+        if (BookOrder.KEY_VERSION.equals(getSortKeyVersion(conn))) return;
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            writeSortKeys(stmt);
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Reads the schema version of the database.
+     *
+     * @param conn an open connection
+     * @return the stored {@code user_version}
+     * @throws SQLException if the pragma cannot be read
+     */
+    public static int getVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /** Version 1: the original books table. */
+    private static void createBooksTable(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS books (" +
+                     "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                     "title TEXT NOT NULL, " +
+                     "author TEXT NOT NULL, " +
+                     "genre TEXT, " +
+                     "favorite INTEGER DEFAULT 0)");
+    }
+
+    /**
+     * Version 2: an FTS5 index over title, author and genre.
+     * <p>
+     * The index is an external-content table that stores only the tokens; triggers keep it
+     * in sync with {@code books}, and the final {@code rebuild} indexes rows that already exist.
+     */
+    private static void createFullTextIndex(Statement stmt) throws SQLException {
+        stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS books_fts USING fts5(" +
+                     "title, author, genre, " +
+                     "content='books', content_rowid='id', " +
+                     "tokenize='unicode61 remove_diacritics 2')");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS books_fts_insert AFTER INSERT ON books BEGIN " +
+                     "INSERT INTO books_fts(rowid, title, author, genre) " +
+                     "VALUES (new.id, new.title, new.author, new.genre); END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS books_fts_delete AFTER DELETE ON books BEGIN " +
+                     "INSERT INTO books_fts(books_fts, rowid, title, author, genre) " +
+                     "VALUES ('delete', old.id, old.title, old.author, old.genre); END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS books_fts_update AFTER UPDATE OF title, author, genre ON books BEGIN " +
+                     "INSERT INTO books_fts(books_fts, rowid, title, author, genre) " +
+                     "VALUES ('delete', old.id, old.title, old.author, old.genre); " +
+                     "INSERT INTO books_fts(rowid, title, author, genre) " +
+                     "VALUES (new.id, new.title, new.author, new.genre); END");
+        stmt.execute("INSERT INTO books_fts(books_fts) VALUES ('rebuild')");
+    }
+
+    /**
+     * Version 3: moves genres into a {@code genres} table referenced by {@code books.genre_id}.
+     * <p>
+     * The genres come from {@code genres.xml} and from the existing books. SQLite cannot
+     * change a column in place, so {@code books} is rebuilt with the same IDs and its
+     * {@code AUTOINCREMENT} counter is carried over. Genre and favorite get indexes. The
+     * full-text index now takes its content from the {@code book_details} view, which joins
+     * the genre name back in, and is rebuilt from it.
+     */
+    private static void normalizeGenres(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS genres (" +
+                     "id INTEGER PRIMARY KEY, " +
+                     "name TEXT NOT NULL UNIQUE)");
+        try (PreparedStatement insert = stmt.getConnection().prepareStatement(
+                "INSERT OR IGNORE INTO genres(name) VALUES (?)")) {
+            for (String genre : GenreLoader.getGenres()) {
+                insert.setString(1, genre);
+                insert.executeUpdate();
+            }
+        }
+        stmt.execute("INSERT OR IGNORE INTO genres(name) " +
+                     "SELECT DISTINCT genre FROM books WHERE genre IS NOT NULL ORDER BY genre");
+
+        stmt.execute("DROP TRIGGER IF EXISTS books_fts_insert");
+        stmt.execute("DROP TRIGGER IF EXISTS books_fts_delete");
+        stmt.execute("DROP TRIGGER IF EXISTS books_fts_update");
+        stmt.execute("DROP TABLE IF EXISTS books_fts");
+
+        stmt.execute("CREATE TABLE books_new (" +
+                     "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                     "title TEXT NOT NULL, " +
+                     "author TEXT NOT NULL, " +
+                     "genre_id INTEGER REFERENCES genres(id), " +
+                     "favorite INTEGER NOT NULL DEFAULT 0)");
+        stmt.execute("INSERT INTO books_new(id, title, author, genre_id, favorite) " +
+                     "SELECT b.id, b.title, b.author, g.id, COALESCE(b.favorite, 0) " +
+                     "FROM books b LEFT JOIN genres g ON g.name = b.genre ORDER BY b.id");
+        // Keep IDs of deleted rows from being reused
+        stmt.execute("INSERT OR REPLACE INTO sqlite_sequence(rowid, name, seq) " +
+                     "SELECT (SELECT rowid FROM sqlite_sequence WHERE name = 'books_new'), 'books_new', seq " +
+                     "FROM sqlite_sequence WHERE name = 'books'");
+        stmt.execute("DROP TABLE books");
+        stmt.execute("ALTER TABLE books_new RENAME TO books");
+
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_books_genre ON books(genre_id)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_books_favorite ON books(favorite)");
+
+        stmt.execute("CREATE VIEW IF NOT EXISTS book_details AS " +
+                     "SELECT b.id, b.title, b.author, g.name AS genre, b.favorite " +
+                     "FROM books b LEFT JOIN genres g ON g.id = b.genre_id");
+        stmt.execute("CREATE VIRTUAL TABLE books_fts USING fts5(" +
+                     "title, author, genre, " +
+                     "content='book_details', content_rowid='id', " +
+                     "tokenize='unicode61 remove_diacritics 2')");
+        String genreOfNew = "(SELECT name FROM genres WHERE id = new.genre_id)";
+        String genreOfOld = "(SELECT name FROM genres WHERE id = old.genre_id)";
+        stmt.execute("CREATE TRIGGER books_fts_insert AFTER INSERT ON books BEGIN " +
+                     "INSERT INTO books_fts(rowid, title, author, genre) " +
+                     "VALUES (new.id, new.title, new.author, " + genreOfNew + "); END");
+        stmt.execute("CREATE TRIGGER books_fts_delete AFTER DELETE ON books BEGIN " +
+                     "INSERT INTO books_fts(books_fts, rowid, title, author, genre) " +
+                     "VALUES ('delete', old.id, old.title, old.author, " + genreOfOld + "); END");
+        stmt.execute("CREATE TRIGGER books_fts_update AFTER UPDATE OF title, author, genre_id ON books BEGIN " +
+                     "INSERT INTO books_fts(books_fts, rowid, title, author, genre) " +
+                     "VALUES ('delete', old.id, old.title, old.author, " + genreOfOld + "); " +
+                     "INSERT INTO books_fts(rowid, title, author, genre) " +
+                     "VALUES (new.id, new.title, new.author, " + genreOfNew + "); END");
+        stmt.execute("CREATE TRIGGER genres_fts_update AFTER UPDATE OF name ON genres BEGIN " +
+                     "INSERT INTO books_fts(books_fts, rowid, title, author, genre) " +
+                     "SELECT 'delete', id, title, author, old.name FROM books WHERE genre_id = old.id; " +
+                     "INSERT INTO books_fts(rowid, title, author, genre) " +
+                     "SELECT id, title, author, new.name FROM books WHERE genre_id = new.id; END");
+        stmt.execute("INSERT INTO books_fts(books_fts) VALUES ('rebuild')");
+    }
+
+    /**
+     * Version 4: replaces the genre index with a composite {@code (genre_id, favorite)} index,
+     * which serves genre filters with and without the favorites flag. Because the row ID is
+     * the implicit last column, rows matching both come out of the index in ID order.
+     */
+    private static void createFilterIndexes(Statement stmt) throws SQLException {
+        stmt.execute("DROP INDEX IF EXISTS idx_books_genre");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_books_genre_favorite ON books(genre_id, favorite)");
+    }
+
+    /**
+     * Version 5: a persistent change counter in {@code catalog_state}, bumped by triggers on
+     * every row written to {@code books} or {@code genres}.
+     * <p>
+     * SQLite's own file change counter is not updated on commits in WAL mode and
+     * {@code PRAGMA data_version} only lives as long as a connection, so a copy of the catalogue
+     * kept outside the database, such as a {@link BookSnapshot} file, is validated against this.
+     */
+    private static void createChangeCounter(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS catalog_state (" +
+                     "id INTEGER PRIMARY KEY CHECK (id = 1), " +
+                     "change_count INTEGER NOT NULL)");
+        stmt.execute("INSERT OR IGNORE INTO catalog_state(id, change_count) VALUES (1, 0)");
+        String bump = " BEGIN UPDATE catalog_state SET change_count = change_count + 1 WHERE id = 1; END";
+        for (String table : new String[] {"books", "genres"}) {
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS " + table + "_count_insert AFTER INSERT ON " + table + bump);
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS " + table + "_count_update AFTER UPDATE ON " + table + bump);
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS " + table + "_count_delete AFTER DELETE ON " + table + bump);
+        }
+    }
+
+    /**
+     * Version 6: indexed collation keys of title, author and genre for sorting.
+     * <p>
+     * SQLite cannot collate the way the application does, so the keys are computed in Java
+     * with {@link BookOrder#collationKey(String)} and stored as BLOBs, which SQLite compares
+     * byte by byte in the same order. The DAO writes them with every insert and update; the
+     * genre key is copied into {@code books} so that sorting by genre is served by one index
+     * like the other columns. To keep that copy valid, genres can no longer be renamed: a
+     * trigger rejects the update, and the trigger that re-indexed renamed genres for full-text
+     * search is dropped. Because the row ID is the implicit last column of each index, rows
+     * with equal keys come out in ID order and {@code ORDER BY key, id} needs no sort step.
+     * <p>
+     * The key bytes depend on the JDK, so {@code catalog_state.sort_key_version} records the
+     * {@link BookOrder#KEY_VERSION} that computed them, and {@link #migrate} rebuilds the keys
+     * whenever it differs.
+     */
+    private static void createSortKeys(Statement stmt) throws SQLException {
+        for (String column : new String[] {"title_key", "author_key", "genre_key"}) {
+            stmt.execute("ALTER TABLE books ADD COLUMN " + column + " BLOB NOT NULL DEFAULT x''");
+        }
+        stmt.execute("ALTER TABLE catalog_state ADD COLUMN sort_key_version TEXT");
+        writeSortKeys(stmt);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_books_title_key ON books(title_key)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_books_author_key ON books(author_key)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_books_genre_key ON books(genre_key)");
+
+        stmt.execute("DROP TRIGGER IF EXISTS genres_fts_update");
+        stmt.execute("CREATE TRIGGER genres_no_rename BEFORE UPDATE OF name ON genres " +
+                     "WHEN new.name IS NOT old.name BEGIN " +
+                     "SELECT RAISE(ABORT, 'genres cannot be renamed'); END");
+    }
+
+    /**
+     * Computes the sort keys of every book in batches of 1000 rows and records their key version.
+     */
+    private static void writeSortKeys(Statement stmt) throws SQLException {
+        Connection conn = stmt.getConnection();
+        try (PreparedStatement update = conn.prepareStatement(
+                 "UPDATE books SET title_key = ?, author_key = ?, genre_key = ? WHERE id = ?");
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT b.id, b.title, b.author, g.name FROM books b LEFT JOIN genres g ON g.id = b.genre_id")) {
+            int pending = 0;
+            while (rs.next()) {
+                update.setBytes(1, BookOrder.collationKey(rs.getString(2)));
+                update.setBytes(2, BookOrder.collationKey(rs.getString(3)));
+                update.setBytes(3, BookOrder.collationKey(rs.getString(4)));
+                update.setInt(4, rs.getInt(1));
+                update.addBatch();
+                if (++pending == 1000) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) update.executeBatch();
+        }
+        try (PreparedStatement version = conn.prepareStatement(
+                "UPDATE catalog_state SET sort_key_version = ? WHERE id = 1")) {
+            version.setString(1, BookOrder.KEY_VERSION);
+            version.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example;
+
+/**
+ * A snapshot of a running or finished catalog export.
+ */
+public class ExportReport {
+    private final long rowsWritten;
+    private final long bytesWritten;
+    private final long fileBytes;
+    private final long elapsedNanos;
+    private final boolean complete;
+
+    /**
+     * Constructs a report.
+     *
+     * @param rowsWritten  number of books written so far
+     * @param bytesWritten number of bytes of CSV or JSONL text produced, before compression
+     * @param fileBytes    number of bytes written to the file, after compression
+     * @param elapsedNanos time since the export started
+     * @param complete     true if the export finished and the file is in place
+     */
+    public ExportReport(long rowsWritten, long bytesWritten, long fileBytes, long elapsedNanos, boolean complete) {
+        this.rowsWritten = rowsWritten;
+        this.bytesWritten = bytesWritten;
+        this.fileBytes = fileBytes;
+        this.elapsedNanos = elapsedNanos;
+        this.complete = complete;
+    }
+
+    /** @return number of books written so far */
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /** @return number of bytes of CSV or JSONL text produced, before compression */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /** @return number of bytes written to the file, after compression */
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    /** @return time since the export started in nanoseconds */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** @return true if the export finished and the file is in place, false while running or if cancelled */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /** @return written rows per second */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsWritten * 1e9 / elapsedNanos;
+    }
+
+    /** @return megabytes (10^6 bytes) of text produced per second, before compression */
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesWritten * 1e3 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows, %.1f MB (%.1f MB on disk), %.0f rows/sec, %.1f MB/sec%s",
+            rowsWritten, bytesWritten / 1e6, fileBytes / 1e6, getRowsPerSecond(), getMegabytesPerSecond(),
+            complete ? "" : " (incomplete)");
+    }
+}
@@ -0,0 +1,132 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the {@code genres} table, mapping genre IDs to names and back.
+ * <p>
+ * Books read through {@link BookDAO} get their genre name from this dictionary, so all books
+ * of a genre share one {@code String} instance instead of each row carrying its own copy.
+ * Lookups are answered from memory; an unknown ID or name is resolved against the database
+ * on the connection passed in and then cached. The dictionary is safe for concurrent use.
+ */
+public class GenreDictionary {
+    private static final String SELECT_ALL_SQL = "SELECT id, name FROM genres";
+    private static final String SELECT_ID_SQL = "SELECT id FROM genres WHERE name = ?";
+    private static final String SELECT_NAME_SQL = "SELECT name FROM genres WHERE id = ?";
+    private static final String INSERT_SQL = "INSERT OR IGNORE INTO genres(name) VALUES (?)";
+
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Replaces the contents of the dictionary with the rows of the {@code genres} table.
+     *
+     * @param conn an open connection
+     * @throws SQLException if the table cannot be read
+     */
+    public void load(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_ALL_SQL)) {
+            names.clear();
+            ids.clear();
+            while (rs.next()) {
+                put(rs.getInt(1), rs.getString(2));
+            }
+        }
+    }
+
+    /**
+     * Returns the name of a genre known to the dictionary.
+     *
+     * @param id the genre ID
+     * @return the shared name instance, or null if the ID is not cached
+     */
+    public String nameOf(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * Returns the ID of a genre known to the dictionary.
+     *
+     * @param name the genre name, may be null
+     * @return the ID, or null if the name is null or not cached
+     */
+    public Integer idOf(String name) {
+        return name == null ? null : ids.get(name);
+    }
+
+    /** @return all genre names ordered by ID */
+    public List<String> names() {
+        return new ArrayList<>(new TreeMap<>(names).values());
+    }
+
+    /** @return the number of cached genres */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Returns the name of a genre, reading it from the database if it is not cached.
+     *
+     * @param id   the genre ID
+     * @param conn connection to read a missing genre from
+     * @return the shared name instance, or null if there is no such genre
+     * @throws SQLException if the lookup fails
+     */
+    public String resolveName(int id, Connection conn) throws SQLException {
+        String name = names.get(id);
+        if (name != null) return name;
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_NAME_SQL)) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? put(id, rs.getString(1)) : null;
+            }
+        }
+    }
+
+    /**
+     * Returns the ID of a genre, adding the genre to the database if it does not exist.
+     * <p>
+     * The new ID is cached at once, before the transaction commits. If the transaction or a
+     * savepoint around the insert rolls back, the caller must {@link #load} the dictionary
+     * again before the next lookup; {@link WriteQueue} does this after every rollback.
+     *
+     * @param name the genre name
+     * @param conn a write connection
+     * @return the genre ID
+     * @throws SQLException if the genre cannot be read or inserted
+     */
+    public int resolveId(String name, Connection conn) throws SQLException {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_SQL)) {
+            insert.setString(1, name);
+            insert.executeUpdate();
+        }
+        try (PreparedStatement select = conn.prepareStatement(SELECT_ID_SQL)) {
+            select.setString(1, name);
+            try (ResultSet rs = select.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Genre not stored: " + name);
+                int newId = rs.getInt(1);
+                put(newId, name);
+                return newId;
+            }
+        }
+    }
+
+    private String put(int id, String name) {
+        String shared = names.computeIfAbsent(id, k -> name);
+        ids.put(shared, id);
+        return shared;
+    }
+}
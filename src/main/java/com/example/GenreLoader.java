@@ -1,43 +1,95 @@
 package com.example;
 
-import org.w3c.dom.*;
-import javax.xml.parsers.*;
-import javax.xml.transform.*;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.File;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Utility class for loading and saving genres from/to genres.xml.
+ * <p>
+ * The parsed list is kept in an immutable in-memory cache. A {@link WatchService} on the
+ * directory of the file drops the cache whenever the file is created, modified or deleted,
+ * so edits made outside the application are picked up on the next lookup while repeated
+ * lookups touch no disk. Where no watcher can be registered, each lookup compares the file's
+ * modification time and size with those of the cached copy instead. Platforms whose watch
+ * service polls may report an outside edit a few seconds late.
+ * <p>
+ * The file is read and written with StAX, so neither direction builds a document tree.
+ * A save writes a temporary file next to genres.xml, forces it to disk and then moves it over
+ * the original, so a crash leaves either the old or the new file, never a truncated one.
+ * <p>
+ * Saves and outside edits noticed by the watcher are published as
+ * {@link DataChangeEvent.Type#GENRES_CHANGED} on {@link #getChangeBus()}. A save caches the
+ * file's attributes together with the list, so the watcher recognises the application's own
+ * move by them and publishes it only once.
  */
 public class GenreLoader {
     private static final String GENRE_FILE = "src/main/resources/genres.xml";
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    static {
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private static final ChangeBus changes = new ChangeBus();
+    private static final Object lock = new Object();
+    // Replaced as a whole; null when the file has to be parsed again
+    private static volatile Snapshot cache;
+    private static volatile boolean watching;
+    private static boolean watchAttempted;
 
     /**
      * Loads genres from genres.xml file.
      *
-     * @return list of genre names
+     * @return a modifiable copy of the cached genre names
      */
     public static List<String> loadGenres() {
-        List<String> genres = new ArrayList<>();
-        try {
-            File file = new File(GENRE_FILE);
-            if (!file.exists()) return genres;
+        return new ArrayList<>(getGenres());
+    }
 
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(file);
+    /**
+     * Returns the genres of genres.xml from the cache, parsing the file only if it changed.
+     *
+     * @return an immutable list of genre names
+     */
+    public static List<String> getGenres() {
+        Path file = Paths.get(GENRE_FILE);
+        Snapshot snapshot = cache;
+        if (snapshot != null && (watching || snapshot.matches(file))) {
+            return snapshot.genres;
+        }
 
-            NodeList nodes = doc.getElementsByTagName("genre");
-            for (int i = 0; i < nodes.getLength(); i++) {
-                genres.add(nodes.item(i).getTextContent());
+        synchronized (lock) {
+            startWatcher(file);
+            snapshot = cache;
+            if (snapshot != null && (watching || snapshot.matches(file))) {
+                return snapshot.genres;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            // Read the attributes first: a change during parsing then shows up as a mismatch
+            BasicFileAttributes attributes = attributesOf(file);
+            snapshot = new Snapshot(List.copyOf(parse(file)), attributes);
+            cache = snapshot;
+            return snapshot.genres;
         }
-        return genres;
     }
 
     /**
@@ -46,27 +98,205 @@ public class GenreLoader {
      * @param genres list of genres to save
      */
     public static void saveGenres(List<String> genres) {
+        Path file = Paths.get(GENRE_FILE);
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.newDocument();
+            // Holding the lock keeps the watcher from comparing the new file with the old cache
+            synchronized (lock) {
+                write(genres, file);
+                cache = new Snapshot(List.copyOf(genres), attributesOf(file));
+            }
+        } catch (IOException | XMLStreamException e) {
+            e.printStackTrace();
+            invalidate();
+            return;
+        }
+        changes.publish(DataChangeEvent.ofIds(DataChangeEvent.Type.GENRES_CHANGED, List.of()));
+    }
 
-            Element root = doc.createElement("genres");
-            doc.appendChild(root);
+    /**
+     * Returns the bus on which saves and outside edits of genres.xml are published.
+     *
+     * @return the change bus
+     */
+    public static ChangeBus getChangeBus() {
+        return changes;
+    }
 
-            for (String genre : genres) {
-                Element genreElement = doc.createElement("genre");
-                genreElement.setTextContent(genre);
-                root.appendChild(genreElement);
+    /**
+     * Reads the genre names of a genres file with a streaming parser.
+     *
+     * @param file the XML file
+     * @return the genre names in file order
+     * @throws IOException        if the file cannot be read
+     * @throws XMLStreamException if the file is not well-formed
+     */
+    static List<String> read(Path file) throws IOException, XMLStreamException {
+        List<String> genres = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("genre")) {
+                        genres.add(reader.getElementText());
+                    }
+                }
+            } finally {
+                reader.close();
             }
+        }
+        return genres;
+    }
 
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+    /**
+     * Writes a genres file with a streaming writer, replacing the target atomically.
+     *
+     * @param genres the genre names
+     * @param file   the XML file to replace
+     * @throws IOException        if the file cannot be written or moved into place
+     * @throws XMLStreamException if the XML cannot be written
+     */
+    static void write(List<String> genres, Path file) throws IOException, XMLStreamException {
+        Path temp = AtomicFiles.createTempSibling(file);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                     StandardCharsets.UTF_8))) {
+                XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out);
+                writer.writeStartDocument("UTF-8", "1.0");
+                writer.writeCharacters("\n");
+                writer.writeStartElement("genres");
+                for (String genre : genres) {
+                    writer.writeCharacters("\n    ");
+                    writer.writeStartElement("genre");
+                    writer.writeCharacters(genre);
+                    writer.writeEndElement();
+                }
+                writer.writeCharacters("\n");
+                writer.writeEndElement();
+                writer.writeCharacters("\n");
+                writer.writeEndDocument();
+                writer.close();
+                out.flush();
+                channel.force(true);
+            }
+            AtomicFiles.replace(temp, file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
 
-            File file = new File(GENRE_FILE);
-            transformer.transform(new DOMSource(doc), new StreamResult(file));
-        } catch (Exception e) {
+    /**
+     * Drops the cached list so that the next lookup parses the file again.
+     */
+    public static void invalidate() {
+        synchronized (lock) {
+            cache = null;
+        }
+    }
+
+    /**
+     * Drops the cached list unless it was read with the file's current attributes, as after
+     * the application's own save.
+     *
+     * @return true if the cache was dropped
+     */
+    private static boolean invalidateIfChanged(Path file) {
+        synchronized (lock) {
+            Snapshot snapshot = cache;
+            if (snapshot != null && snapshot.matches(file)) return false;
+            cache = null;
+            return true;
+        }
+    }
+
+    private static List<String> parse(Path file) {
+        try {
+            if (!Files.exists(file)) return new ArrayList<>();
+            return read(file);
+        } catch (IOException | XMLStreamException e) {
             e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    private static BasicFileAttributes attributesOf(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Registers a watcher on the directory of the file, once. Called with the lock held.
+     */
+    private static void startWatcher(Path file) {
+        if (watchAttempted) return;
+        watchAttempted = true;
+        Path dir = file.toAbsolutePath().getParent();
+        try {
+            WatchService service = dir.getFileSystem().newWatchService();
+            dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            Thread watcher = new Thread(() -> watch(service, file), "genre-file-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+            watching = true;
+        } catch (IOException | UnsupportedOperationException e) {
+            // Fall back to comparing modification times on every lookup
+            watching = false;
+        }
+    }
+
+    private static void watch(WatchService service, Path file) {
+        Path name = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                if (changed && invalidateIfChanged(file)) {
+                    changes.publish(DataChangeEvent.ofIds(DataChangeEvent.Type.GENRES_CHANGED, List.of()));
+                }
+                if (!key.reset()) {
+                    // The directory went away; fall back to modification times
+                    watching = false;
+                    invalidate();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            watching = false;
+            invalidate();
+        }
+    }
+
+    /**
+     * An immutable parsed copy of the file and the attributes it was read with.
+     */
+    private static final class Snapshot {
+        final List<String> genres;
+        final FileTime modified;
+        final long size;
+        // The inode where the platform has one; every save moves a new file into place
+        final Object fileKey;
+
+        Snapshot(List<String> genres, BasicFileAttributes attributes) {
+            this.genres = genres;
+            this.modified = attributes == null ? null : attributes.lastModifiedTime();
+            this.size = attributes == null ? -1 : attributes.size();
+            this.fileKey = attributes == null ? null : attributes.fileKey();
+        }
+
+        boolean matches(Path file) {
+            BasicFileAttributes attributes = attributesOf(file);
+            if (attributes == null) return modified == null;
+            return attributes.lastModifiedTime().equals(modified) && attributes.size() == size
+                && Objects.equals(attributes.fileKey(), fileKey);
         }
     }
 }
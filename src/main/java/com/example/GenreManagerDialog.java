@@ -4,15 +4,20 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * A dialog for managing book genres.
  * Allows the user to add, delete, and save genres stored in genres.xml.
+ * While the dialog is open, changes to the file are shown unless there are unsaved edits.
  */
 public class GenreManagerDialog extends JDialog {
     private DefaultListModel<String> genreListModel;
     private JList<String> genreList;
+    private final ChangeBus.Listener genreListener = events -> reloadIfUnchanged();
+    // True while the list has edits that were not saved
+    private boolean dirty;
 
     /**
      * Constructs the genre manager dialog.
@@ -25,10 +30,8 @@ public class GenreManagerDialog extends JDialog {
 
         // Load existing genres into the list model
         genreListModel = new DefaultListModel<>();
-        List<String> genres = GenreLoader.loadGenres();
-        for (String genre : genres) {
-            genreListModel.addElement(genre);
-        }
+        genreListModel.addAll(GenreLoader.getGenres());
+        GenreLoader.getChangeBus().subscribe(genreListener, SwingUtilities::invokeLater);
 
         // Genre list UI component
         genreList = new JList<>(genreListModel);
@@ -46,6 +49,7 @@ public class GenreManagerDialog extends JDialog {
             String newGenre = JOptionPane.showInputDialog(this, "Enter new genre:");
             if (newGenre != null && !newGenre.trim().isEmpty() && !genreListModel.contains(newGenre.trim())) {
                 genreListModel.addElement(newGenre.trim());
+                dirty = true;
             }
         });
 
@@ -58,6 +62,7 @@ public class GenreManagerDialog extends JDialog {
             for (String s : selected) {
                 genreListModel.removeElement(s);
             }
+            dirty |= !selected.isEmpty();
         });
 
         /**
@@ -69,20 +74,16 @@ public class GenreManagerDialog extends JDialog {
             for (int i = 0; i < genreListModel.getSize(); i++) {
                 updatedGenres.add(genreListModel.getElementAt(i));
             }
+            dirty = false;
             GenreLoader.saveGenres(updatedGenres);
             JOptionPane.showMessageDialog(this, "Genres saved successfully.");
         });
 
         /**
-         * Closes the dialog and reloads genres in the parent GUI.
+         * Closes the dialog. The parent GUI picks up saved genres from the change bus.
          */
         JButton closeButton = new JButton("Close");
-        closeButton.addActionListener((ActionEvent e) -> {
-            if (parent instanceof BookManagerGUI) {
-                ((BookManagerGUI) parent).reloadGenres();
-            }
-            dispose();
-        });
+        closeButton.addActionListener((ActionEvent e) -> dispose());
 
         // Add buttons to panel
         buttonPanel.add(addButton);
@@ -92,7 +93,28 @@ public class GenreManagerDialog extends JDialog {
 
         add(buttonPanel, BorderLayout.SOUTH);
 
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setSize(400, 300);
         setLocationRelativeTo(parent);
     }
+
+    /**
+     * Stops listening for genre changes and closes the dialog.
+     */
+    @Override
+    public void dispose() {
+        GenreLoader.getChangeBus().unsubscribe(genreListener);
+        super.dispose();
+    }
+
+    /**
+     * Shows the current genres after a save or an outside edit, unless that would discard unsaved edits.
+     */
+    private void reloadIfUnchanged() {
+        if (dirty) return;
+        List<String> genres = GenreLoader.getGenres();
+        if (genres.equals(Collections.list(genreListModel.elements()))) return;
+        genreListModel.clear();
+        genreListModel.addAll(genres);
+    }
 }
@@ -0,0 +1,89 @@
+package com.example;
+
+import java.util.List;
+
+/**
+ * A snapshot of a running or finished catalog import.
+ */
+public class ImportReport {
+    private final long rowsRead;
+    private final long rowsImported;
+    private final long rowsRejected;
+    private final long bytesRead;
+    private final long totalBytes;
+    private final long elapsedNanos;
+    private final List<String> errors;
+
+    /**
+     * Constructs a report.
+     *
+     * @param rowsRead     number of records parsed so far
+     * @param rowsImported number of books committed to the database
+     * @param rowsRejected number of records skipped because they were invalid or failed to insert
+     * @param bytesRead    number of bytes consumed from the input file
+     * @param totalBytes   size of the input file
+     * @param elapsedNanos time since the import started
+     * @param errors       descriptions of (at most the first few) rejected records
+     */
+    public ImportReport(long rowsRead, long rowsImported, long rowsRejected,
+                        long bytesRead, long totalBytes, long elapsedNanos, List<String> errors) {
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.rowsRejected = rowsRejected;
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
+        this.elapsedNanos = elapsedNanos;
+        this.errors = List.copyOf(errors);
+    }
+
+    /** @return number of records parsed so far */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /** @return number of books committed to the database */
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    /** @return number of records skipped because they were invalid or failed to insert */
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /** @return number of bytes consumed from the input file */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /** @return size of the input file */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /** @return time since the import started in nanoseconds */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** @return descriptions of rejected records, limited to the first few */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /** @return imported rows per second */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsImported * 1e9 / elapsedNanos;
+    }
+
+    /** @return fraction of the input consumed, between 0 and 1 */
+    public double getFractionDone() {
+        return totalBytes == 0 ? 1 : Math.min(1.0, (double) bytesRead / totalBytes);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d read, %d imported, %d rejected (%.0f%%, %.0f rows/sec)",
+            rowsRead, rowsImported, rowsRejected, getFractionDone() * 100, getRowsPerSecond());
+    }
+}
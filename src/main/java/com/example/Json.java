@@ -0,0 +1,181 @@
+package com.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for flat objects such as one line of a JSONL catalog.
+ * <p>
+ * Values may be strings, numbers, booleans or null; nested objects and arrays
+ * are rejected by the parser. The writer methods append to a {@link StringBuilder}
+ * so that callers can compose arrays and nested objects themselves.
+ */
+public class Json {
+
+    /**
+     * Parses a flat JSON object.
+     *
+     * @param text the JSON text
+     * @return the members in document order; numbers are returned as {@link Double}
+     * @throws IllegalArgumentException if the text is not a flat JSON object
+     */
+    public static Map<String, Object> parseObject(String text) {
+        Parser p = new Parser(text);
+        Map<String, Object> result = new LinkedHashMap<>();
+        p.skipWhitespace();
+        p.expect('{');
+        p.skipWhitespace();
+        if (p.peek() == '}') {
+            p.pos++;
+        } else {
+            while (true) {
+                p.skipWhitespace();
+                String key = p.readString();
+                p.skipWhitespace();
+                p.expect(':');
+                p.skipWhitespace();
+                result.put(key, p.readValue());
+                p.skipWhitespace();
+                char c = p.next();
+                if (c == '}') break;
+                if (c != ',') throw p.error("expected ',' or '}'");
+            }
+        }
+        p.skipWhitespace();
+        if (p.pos != text.length()) {
+            throw p.error("unexpected trailing characters");
+        }
+        return result;
+    }
+
+    /**
+     * Appends a string as a quoted JSON string, or {@code null}.
+     *
+     * @param out   the target
+     * @param value the string, may be null
+     * @return the target
+     */
+    public static StringBuilder appendString(StringBuilder out, String value) {
+        if (value == null) return out.append("null");
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Appends a book as a JSON object with the members {@code id}, {@code title},
+     * {@code author}, {@code genre} and {@code favorite}.
+     *
+     * @param out  the target
+     * @param book the book
+     * @return the target
+     */
+    public static StringBuilder appendBook(StringBuilder out, Book book) {
+        out.append("{\"id\":").append(book.getId()).append(",\"title\":");
+        appendString(out, book.getTitle()).append(",\"author\":");
+        appendString(out, book.getAuthor()).append(",\"genre\":");
+        appendString(out, book.getGenre()).append(",\"favorite\":").append(book.isFavorite());
+        return out.append('}');
+    }
+
+    private static class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        char peek() {
+            if (pos >= text.length()) throw error("unexpected end of input");
+            return text.charAt(pos);
+        }
+
+        char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        void expect(char c) {
+            if (next() != c) throw error("expected '" + c + "'");
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        Object readValue() {
+            char c = peek();
+            if (c == '"') return readString();
+            if (text.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+            if (text.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+            if (text.startsWith("null", pos)) { pos += 4; return null; }
+            if (c == '-' || Character.isDigit(c)) return readNumber();
+            if (c == '{' || c == '[') throw error("nested values are not supported");
+            throw error("unexpected character '" + c + "'");
+        }
+
+        Double readNumber() {
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+            try {
+                return Double.valueOf(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("malformed number");
+            }
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case '"', '\\', '/' -> sb.append(e);
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) throw error("truncated unicode escape");
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("malformed unicode escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> throw error("invalid escape '\\" + e + "'");
+                }
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos);
+        }
+    }
+}
@@ -3,16 +3,37 @@ package com.example;
 /**
  * Entry point of the Book Manager application.
  * <p>
- * Launches the GUI using the Swing event dispatch thread.
+ * Launches the GUI using the Swing event dispatch thread, or with {@code --server [port]}
+ * the headless {@link BookServer} on the default database.
  */
 public class Main {
 
+    /** Default port of the headless server. */
+    public static final int DEFAULT_PORT = 8080;
+
     /**
-     * Main method to launch the Book Manager GUI.
+     * Main method to launch the Book Manager GUI or the headless server.
      *
-     * @param args command-line arguments (not used)
+     * @param args {@code --server [port]} to serve the JSON API instead of opening the GUI
+     * @throws java.io.IOException if the server port cannot be bound
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws java.io.IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+            // Small JSON responses otherwise wait for delayed ACKs; read when the server starts
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            BookDAO dao = new BookDAO(new DatabaseConfig());
+            BookServer server = new BookServer(dao, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                dao.close();
+            }, "server-shutdown"));
+            server.start();
+            System.out.println("Serving books on http://localhost:" + server.getPort() + "/books");
+            return;
+        }
         javax.swing.SwingUtilities.invokeLater(() -> {
             BookManagerGUI gui = new BookManagerGUI();
             gui.setVisible(true);
@@ -0,0 +1,89 @@
+package com.example;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point-in-time statistics of one DAO operation, as reported by {@link DaoMetrics}.
+ * Latencies are in microseconds; percentiles are accurate to within 12.5%.
+ */
+public class OperationSnapshot {
+    private final String name;
+    private final long count;
+    private final long errors;
+    private final long rows;
+    private final long p50Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+    private final String lastError;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param name      the operation name
+     * @param count     the number of calls, including failed ones
+     * @param errors    the number of failed calls
+     * @param rows      the total number of rows returned or written
+     * @param p50Micros the median latency
+     * @param p99Micros the 99th percentile latency
+     * @param maxMicros the highest latency
+     * @param lastError the most recent failure, or null
+     */
+    @ConstructorProperties({"name", "count", "errors", "rows", "p50Micros", "p99Micros", "maxMicros", "lastError"})
+    public OperationSnapshot(String name, long count, long errors, long rows,
+                             long p50Micros, long p99Micros, long maxMicros, String lastError) {
+        this.name = name;
+        this.count = count;
+        this.errors = errors;
+        this.rows = rows;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+        this.lastError = lastError;
+    }
+
+    /** @return the operation name */
+    public String getName() {
+        return name;
+    }
+
+    /** @return the number of calls, including failed ones */
+    public long getCount() {
+        return count;
+    }
+
+    /** @return the number of failed calls */
+    public long getErrors() {
+        return errors;
+    }
+
+    /** @return the total number of rows returned or written */
+    public long getRows() {
+        return rows;
+    }
+
+    /** @return the median latency in microseconds */
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    /** @return the 99th percentile latency in microseconds */
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    /** @return the highest latency in microseconds */
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    /** @return the most recent failure, or null if none */
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + count + " calls, " + errors + " errors, " + rows + " rows, p50 " + p50Micros +
+               " us, p99 " + p99Micros + " us, max " + maxMicros + " us";
+    }
+}
@@ -0,0 +1,420 @@
+package com.example;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Table model that shows the whole books table without loading it into memory.
+ * <p>
+ * The row count comes from a {@code COUNT(*)} query; rows are fetched from {@link BookDAO}
+ * in fixed-size blocks ordered by ID and kept in an LRU cache of blocks. Cells of a block
+ * that is not cached yet render empty while the block is loaded on a background thread,
+ * and {@link #prefetch(int, int)} loads the blocks around the visible viewport ahead of time.
+ * A block is located with a keyset lookup after the last book of the preceding block when that
+ * is known, and with {@code OFFSET} otherwise.
+ * <p>
+ * The rows can be sorted by any column with {@link #setOrder(BookOrder)}. Blocks are then read
+ * with a {@link BookQuery} whose {@code ORDER BY} is served by the index on the column's stored
+ * collation key, so a block costs the same as in ID order. Inserted books are not appended in a
+ * sorted view; since their row is not known without reading the rows before them, the cached
+ * blocks are dropped and reloaded instead.
+ * <p>
+ * Changes made through the GUI are applied as deltas with {@link #bookAdded(Book)},
+ * {@link #booksDeleted(Collection)} and {@link #bookUpdated(Book)}, which fire row-level
+ * events and touch at most the cached blocks, so their cost does not depend on the table size.
+ */
+public class PagedBookTableModel extends AbstractBookTableModel {
+    /** Default number of rows per block. */
+    public static final int DEFAULT_BLOCK_SIZE = 200;
+    /** Default number of blocks kept in the cache. */
+    public static final int DEFAULT_MAX_BLOCKS = 64;
+
+    private final int blockSize;
+    private final ExecutorService loader;
+
+    // Guarded by this; accessed from the EDT and the loader thread
+    private final Map<Integer, List<Book>> blocks;
+    // The last book of each block as it was read, the cursor for the next block
+    private final Map<Integer, Book> blockLast = new HashMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+    private int generation;
+    private BookOrder order = BookOrder.ID;
+
+    // Only accessed on the EDT
+    private int rowCount;
+
+    /**
+     * Constructs a model with the default block and cache sizes.
+     *
+     * @param dao DAO to read rows from and persist updates to.
+     */
+    public PagedBookTableModel(BookDAO dao) {
+        this(dao, DEFAULT_BLOCK_SIZE, DEFAULT_MAX_BLOCKS);
+    }
+
+    /**
+     * Constructs a model.
+     *
+     * @param dao       DAO to read rows from and persist updates to.
+     * @param blockSize number of rows fetched per query
+     * @param maxBlocks number of blocks kept in memory
+     */
+    public PagedBookTableModel(BookDAO dao, int blockSize, int maxBlocks) {
+        super(dao);
+        this.blockSize = blockSize;
+        this.blocks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Book>> eldest) {
+                return size() > maxBlocks;
+            }
+        };
+        this.loader = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "book-table-loader");
+            t.setDaemon(true);
+            return t;
+        });
+        this.rowCount = dao.countBooks();
+    }
+
+    /**
+     * Drops all cached rows, re-reads the row count and repaints the table.
+     */
+    public void refresh() {
+        refresh(dao.countBooks());
+    }
+
+    /**
+     * Drops all cached rows and repaints the table with a row count that was read elsewhere,
+     * so that the count query can run off the event dispatch thread.
+     *
+     * @param rowCount the number of books in the table
+     */
+    public void refresh(int rowCount) {
+        synchronized (this) {
+            clearBlocks();
+        }
+        this.rowCount = rowCount;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Sorts the rows, dropping the cached blocks so that they are read again in the new order.
+     *
+     * @param order the order of the rows
+     */
+    public void setOrder(BookOrder order) {
+        synchronized (this) {
+            if (order.equals(this.order)) return;
+            this.order = order;
+            clearBlocks();
+        }
+        fireTableDataChanged();
+    }
+
+    /** @return the order of the rows */
+    public synchronized BookOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * Adds a newly inserted book. New books have the largest ID, so in ID order they belong at the end.
+     *
+     * @param book the inserted book
+     */
+    public void bookAdded(Book book) {
+        booksAdded(List.of(book));
+    }
+
+    /**
+     * Adds newly inserted books. In ID order they are appended with a single insert event; in a
+     * column order their rows are unknown, so the cached blocks are dropped and reloaded.
+     *
+     * @param books the inserted books
+     */
+    public void booksAdded(List<Book> books) {
+        if (books.isEmpty()) return;
+        int first = rowCount;
+        rowCount += books.size();
+        boolean sorted;
+        synchronized (this) {
+            sorted = !order.isNatural();
+            if (sorted) {
+                clearBlocks();
+            } else {
+                appendToCachedBlock(books, first);
+            }
+        }
+        if (sorted) {
+            fireTableDataChanged();
+        } else {
+            fireTableRowsInserted(first, first + books.size() - 1);
+        }
+    }
+
+    /**
+     * Appends books to the last block if it is cached. Call while holding the lock.
+     */
+    private void appendToCachedBlock(List<Book> books, int first) {
+        int row = first;
+        for (Book book : books) {
+            int block = row / blockSize;
+            List<Book> rows = blocks.get(block);
+            if (rows != null && rows.size() == row % blockSize) {
+                rows.add(book);
+                blockLast.put(block, copyOf(book));
+            }
+            row++;
+        }
+    }
+
+    /**
+     * Removes deleted books from the view.
+     * <p>
+     * The rows are located in the cached blocks; blocks from the first deleted row onwards
+     * are dropped because their rows shift up, and are reloaded when painted. If a book is
+     * not cached its row is unknown: the blocks are then dropped from the first one that may
+     * hold it, judged by the last IDs of the blocks before it in ID order, the row count is
+     * lowered by the number of books and the whole table is repainted. No query is made.
+     *
+     * @param ids IDs of the deleted books, all of which were in the table
+     */
+    public void booksDeleted(Collection<Integer> ids) {
+        if (ids.isEmpty()) return;
+        Set<Integer> remaining = new HashSet<>(ids);
+        List<Integer> rows = new ArrayList<>(ids.size());
+        synchronized (this) {
+            for (Map.Entry<Integer, List<Book>> entry : blocks.entrySet()) {
+                List<Book> block = entry.getValue();
+                for (int i = 0; i < block.size(); i++) {
+                    if (remaining.remove(block.get(i).getId())) {
+                        rows.add(entry.getKey() * blockSize + i);
+                    }
+                }
+            }
+            int firstBlock = remaining.isEmpty() ? Integer.MAX_VALUE : firstBlockOf(remaining);
+            for (int row : rows) {
+                firstBlock = Math.min(firstBlock, row / blockSize);
+            }
+            int dropFrom = firstBlock;
+            blocks.keySet().removeIf(block -> block >= dropFrom);
+            blockLast.keySet().removeIf(block -> block >= dropFrom);
+            pending.clear();
+            generation++;
+        }
+        if (!remaining.isEmpty()) {
+            rowCount -= ids.size();
+            fireTableDataChanged();
+            return;
+        }
+
+        rows.sort(null);
+        for (int i = rows.size() - 1; i >= 0; ) {
+            // Fire one event per run of consecutive rows, from the bottom up
+            int last = rows.get(i);
+            int first = last;
+            while (--i >= 0 && rows.get(i) == first - 1) {
+                first--;
+            }
+            rowCount -= last - first + 1;
+            fireTableRowsDeleted(first, last);
+        }
+    }
+
+    /**
+     * Returns the first block that may hold one of the books. In ID order a block whose last
+     * book has a smaller ID than all of them cannot, nor can the blocks before it; in a column
+     * order nothing is known. Call while holding the lock.
+     */
+    private int firstBlockOf(Set<Integer> ids) {
+        if (!order.isNatural()) return 0;
+        int minId = Collections.min(ids);
+        int first = 0;
+        for (Map.Entry<Integer, Book> entry : blockLast.entrySet()) {
+            if (entry.getValue().getId() < minId) first = Math.max(first, entry.getKey() + 1);
+        }
+        return first;
+    }
+
+    /**
+     * Replaces a cached book with its changed version and repaints its row.
+     *
+     * @param book the changed book
+     */
+    public void bookUpdated(Book book) {
+        int row = -1;
+        synchronized (this) {
+            for (Map.Entry<Integer, List<Book>> entry : blocks.entrySet()) {
+                List<Book> block = entry.getValue();
+                for (int i = 0; i < block.size(); i++) {
+                    if (block.get(i).getId() == book.getId()) {
+                        block.set(i, book);
+                        row = entry.getKey() * blockSize + i;
+                    }
+                }
+            }
+        }
+        if (row >= 0) {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    /**
+     * Loads the blocks covering the given rows plus one block on either side in the background.
+     *
+     * @param firstRow first visible row
+     * @param lastRow  last visible row
+     */
+    public void prefetch(int firstRow, int lastRow) {
+        int first = Math.max(0, firstRow / blockSize - 1);
+        int last = Math.min((rowCount - 1) / blockSize, lastRow / blockSize + 1);
+        for (int block = first; block <= last; block++) {
+            requestBlock(block);
+        }
+    }
+
+    /**
+     * Stops the background loader.
+     */
+    public void close() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * Returns the {@link Book} at the specified row, loading its block synchronously if needed.
+     *
+     * @param rowIndex The row index.
+     * @return The corresponding {@link Book}.
+     */
+    @Override
+    public Book getBookAt(int rowIndex) {
+        int block = rowIndex / blockSize;
+        List<Book> rows = cachedBlock(block);
+        if (rows == null) {
+            int gen;
+            synchronized (this) {
+                gen = generation;
+            }
+            rows = fetch(block);
+            store(block, rows, gen);
+        }
+        return rows.get(rowIndex % blockSize);
+    }
+
+    /**
+     * Returns the {@link Book} at the specified row if its block is cached, and otherwise
+     * schedules the block for loading.
+     *
+     * @param rowIndex The row index.
+     * @return The book, or null while its block is loading.
+     */
+    @Override
+    protected Book peekBookAt(int rowIndex) {
+        int block = rowIndex / blockSize;
+        List<Book> rows = cachedBlock(block);
+        if (rows == null) {
+            requestBlock(block);
+            return null;
+        }
+        int offset = rowIndex % blockSize;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    /**
+     * Returns the number of rows in the books table.
+     *
+     * @return The row count read by the last refresh.
+     */
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    private synchronized List<Book> cachedBlock(int block) {
+        return blocks.get(block);
+    }
+
+    private void requestBlock(int block) {
+        int gen;
+        synchronized (this) {
+            if (blocks.containsKey(block) || !pending.add(block)) return;
+            gen = generation;
+        }
+        loader.execute(() -> {
+            synchronized (this) {
+                if (gen != generation) return;
+            }
+            List<Book> rows = fetch(block);
+            if (store(block, rows, gen)) {
+                SwingUtilities.invokeLater(() -> {
+                    int first = block * blockSize;
+                    int last = Math.min(first + blockSize, rowCount) - 1;
+                    if (currentGeneration() == gen && first <= last) {
+                        fireTableRowsUpdated(first, last);
+                    }
+                });
+            }
+        });
+    }
+
+    private List<Book> fetch(int block) {
+        Book previous;
+        BookOrder rowOrder;
+        synchronized (this) {
+            previous = blockLast.get(block - 1);
+            rowOrder = order;
+        }
+        if (rowOrder.isNatural()) {
+            return block == 0 || previous != null
+                ? dao.getBooksAfter(block == 0 ? 0 : previous.getId(), blockSize)
+                : dao.getBooksAt(block * blockSize, blockSize);
+        }
+        BookQuery query = new BookQuery();
+        query.setOrder(rowOrder);
+        query.setLimit(blockSize);
+        if (block == 0 || previous != null) {
+            query.setAfter(previous);
+        } else {
+            query.setOffset(block * blockSize);
+        }
+        return dao.findBooks(query);
+    }
+
+    private synchronized boolean store(int block, List<Book> rows, int gen) {
+        pending.remove(block);
+        if (gen != generation) return false;
+        blocks.put(block, rows);
+        if (!rows.isEmpty()) {
+            blockLast.put(block, copyOf(rows.get(rows.size() - 1)));
+        }
+        return true;
+    }
+
+    /**
+     * Drops all cached blocks and discards blocks that are being loaded. Call while holding the lock.
+     */
+    private void clearBlocks() {
+        blocks.clear();
+        blockLast.clear();
+        pending.clear();
+        generation++;
+    }
+
+    private static Book copyOf(Book book) {
+        // Cell edits change the cached instance, which must not move the cursor
+        return new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre(), book.isFavorite());
+    }
+
+    private synchronized int currentGeneration() {
+        return generation;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A long-lived SQLite connection owned by a {@link ConnectionPool}.
+ * <p>
+ * Each connection keeps its own LRU cache of prepared statements keyed by SQL text,
+ * so repeated DAO calls skip statement compilation. Statements returned by
+ * {@link #prepare(String)} belong to the cache and must not be closed by callers.
+ * Closing a {@code PooledConnection} returns it to the pool instead of closing
+ * the underlying JDBC connection.
+ */
+public class PooledConnection implements AutoCloseable {
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final boolean writer;
+    private final Map<String, PreparedStatement> statements;
+
+    /**
+     * Wraps a freshly opened JDBC connection.
+     *
+     * @param pool               the owning pool
+     * @param connection         the JDBC connection
+     * @param writer             true if this is the pool's write connection
+     * @param statementCacheSize maximum number of cached statements
+     */
+    PooledConnection(ConnectionPool pool, Connection connection, boolean writer, int statementCacheSize) {
+        this.pool = pool;
+        this.connection = connection;
+        this.writer = writer;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > statementCacheSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** @return the underlying JDBC connection */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /** @return true if this is the pool's write connection */
+    public boolean isWriter() {
+        return writer;
+    }
+
+    /**
+     * Returns a cached prepared statement for the given SQL, preparing it on first use.
+     *
+     * @param sql the SQL text
+     * @return the cached statement with its parameters cleared
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement pstmt = statements.get(sql);
+        if (pstmt == null || pstmt.isClosed()) {
+            pstmt = connection.prepareStatement(sql);
+            statements.put(sql, pstmt);
+        } else {
+            pstmt.clearParameters();
+        }
+        return pstmt;
+    }
+
+    /**
+     * Returns the connection to its pool.
+     */
+    @Override
+    public void close() {
+        pool.release(this);
+    }
+
+    /**
+     * Closes all cached statements and the JDBC connection.
+     */
+    void closePhysically() {
+        for (Iterator<PreparedStatement> it = statements.values().iterator(); it.hasNext(); ) {
+            closeQuietly(it.next());
+            it.remove();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example;
+
+/**
+ * How {@link BookDAO#searchBooks(String, SearchMode)} matches a keyword.
+ */
+public enum SearchMode {
+    /** Case-insensitive substring match on title, author or genre ({@code LIKE '%kw%'}); always scans the table. */
+    SUBSTRING,
+    /** Every word of the keyword must appear as a whole token; served by the full-text index and ranked. */
+    TOKEN,
+    /** Every word of the keyword must start a token, e.g. {@code tolk} finds "Tolkien"; served by the full-text index and ranked. */
+    PREFIX
+}
@@ -0,0 +1,167 @@
+package com.example;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs searches off the Swing event dispatch thread, debouncing bursts of input.
+ * <p>
+ * Each {@link #submit} supersedes the previous query: a query that has not started yet is
+ * cancelled, and the result of one that is already running is dropped when it completes.
+ * Running queries are not interrupted, since an interrupt would abort a JDBC call halfway.
+ * Only the result of the latest query is handed to the publisher, on the EDT. Per-query
+ * latency, from submission to publication, is recorded.
+ *
+ * @param <Q> the query type
+ * @param <R> the result type
+ */
+public class SearchScheduler<Q, R> {
+    private final Function<Q, R> search;
+    private final Consumer<R> publisher;
+    private final long debounceMillis;
+    private final ScheduledExecutorService executor;
+
+    private final Object lock = new Object();
+    private long sequence;
+    private Future<?> pending;
+
+    private volatile long lastLatencyNanos;
+    private volatile long lastSearchNanos;
+    private long completed;
+    private long superseded;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+
+    /**
+     * Constructs a scheduler with its own background thread.
+     *
+     * @param search         the search to run in the background
+     * @param publisher      receives the latest result on the EDT
+     * @param debounceMillis quiet period after the last submission before the search starts
+     */
+    public SearchScheduler(Function<Q, R> search, Consumer<R> publisher, long debounceMillis) {
+        this.search = search;
+        this.publisher = publisher;
+        this.debounceMillis = debounceMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "search-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Schedules a query, superseding any earlier one.
+     *
+     * @param query the query
+     */
+    public void submit(Q query) {
+        long submitted = System.nanoTime();
+        synchronized (lock) {
+            long seq = cancelPending();
+            pending = executor.schedule(() -> run(query, seq, submitted), debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Cancels the pending query, if any, so that no result is published for it.
+     */
+    public void cancel() {
+        synchronized (lock) {
+            cancelPending();
+            pending = null;
+        }
+    }
+
+    /**
+     * Stops the background thread.
+     */
+    public void close() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    /** @return time from submission to publication of the last published query, in nanoseconds */
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    /** @return time spent inside the search function for the last published query, in nanoseconds */
+    public long getLastSearchNanos() {
+        return lastSearchNanos;
+    }
+
+    /** @return number of queries whose result was published */
+    public synchronized long getCompletedCount() {
+        return completed;
+    }
+
+    /** @return number of queries dropped because a newer one was submitted */
+    public synchronized long getSupersededCount() {
+        return superseded;
+    }
+
+    /** @return mean submission-to-publication latency in nanoseconds */
+    public synchronized long getMeanLatencyNanos() {
+        return completed == 0 ? 0 : totalLatencyNanos / completed;
+    }
+
+    /** @return maximum submission-to-publication latency in nanoseconds */
+    public synchronized long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    private long cancelPending() {
+        if (pending != null && !pending.isDone()) {
+            pending.cancel(false);
+            countSuperseded();
+        }
+        return ++sequence;
+    }
+
+    private void run(Q query, long seq, long submitted) {
+        if (!isCurrent(seq)) return;
+        long start = System.nanoTime();
+        R result;
+        try {
+            result = search.apply(query);
+        } catch (RuntimeException e) {
+            if (isCurrent(seq)) e.printStackTrace();
+            return;
+        }
+        long searchNanos = System.nanoTime() - start;
+        if (!isCurrent(seq)) return;
+
+        SwingUtilities.invokeLater(() -> {
+            if (!isCurrent(seq)) {
+                countSuperseded();
+                return;
+            }
+            record(System.nanoTime() - submitted, searchNanos);
+            publisher.accept(result);
+        });
+    }
+
+    private boolean isCurrent(long seq) {
+        synchronized (lock) {
+            return seq == sequence;
+        }
+    }
+
+    private synchronized void countSuperseded() {
+        superseded++;
+    }
+
+    private synchronized void record(long latencyNanos, long searchNanos) {
+        lastLatencyNanos = latencyNanos;
+        lastSearchNanos = searchNanos;
+        completed++;
+        totalLatencyNanos += latencyNanos;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a {@link BookSnapshot} file of a database so that the application can show the
+ * catalogue at launch without reading the database.
+ * <p>
+ * {@link #loadFresh()} maps the file and returns it only if its change counter equals the
+ * database's ({@link BookDAO#getChangeCount()}), which catches writes from any process.
+ * A missing, corrupt or stale file is rewritten on a background thread. After writes,
+ * {@link #changed()} schedules a rewrite once no further change has arrived for a while,
+ * so a burst of edits costs one rewrite.
+ */
+public class SnapshotStore implements AutoCloseable {
+    /** Default quiet period before the file is rewritten after a change. */
+    public static final long DEFAULT_DELAY_MILLIS = 5000;
+
+    private final BookDAO dao;
+    private final Path file;
+    private final long delayMillis;
+    private final Consumer<BookSnapshot> onSaved;
+    private final ScheduledExecutorService writer;
+    // Guarded by this
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Constructs a store.
+     *
+     * @param dao         the database to snapshot
+     * @param file        the snapshot file
+     * @param delayMillis quiet period after a change before the file is rewritten
+     * @param onSaved     called on the writer thread with each snapshot written
+     */
+    public SnapshotStore(BookDAO dao, Path file, long delayMillis, Consumer<BookSnapshot> onSaved) {
+        this.dao = dao;
+        this.file = file;
+        this.delayMillis = delayMillis;
+        this.onSaved = onSaved;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the snapshot file if it matches the database, and otherwise starts rewriting it.
+     *
+     * @return the snapshot, or null if there is no current one
+     */
+    public BookSnapshot loadFresh() {
+        BookSnapshot snapshot = null;
+        if (Files.exists(file)) {
+            try {
+                snapshot = BookSnapshot.read(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (snapshot != null && snapshot.getChangeCount() >= 0 && snapshot.getChangeCount() == dao.getChangeCount()) {
+            return snapshot;
+        }
+        schedule(0);
+        return null;
+    }
+
+    /**
+     * Schedules a rewrite after the quiet period, replacing one that is already scheduled.
+     */
+    public void changed() {
+        schedule(delayMillis);
+    }
+
+    /**
+     * Writes the snapshot now on the calling thread.
+     *
+     * @return the snapshot written, or null if the database or the file could not be accessed
+     */
+    public BookSnapshot save() {
+        BookSnapshot snapshot = dao.getSnapshot();
+        if (snapshot.getChangeCount() < 0) return null;
+        try {
+            snapshot.write(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        onSaved.accept(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Cancels a scheduled rewrite and stops the writer thread. A stale file is rewritten
+     * at the next {@link #loadFresh()}.
+     */
+    @Override
+    public synchronized void close() {
+        writer.shutdownNow();
+    }
+
+    private synchronized void schedule(long delay) {
+        if (writer.isShutdown()) return;
+        if (pending != null) pending.cancel(false);
+        pending = writer.schedule(this::save, delay, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records how long each phase of the application's startup takes.
+ * <p>
+ * Phases are timed with try-with-resources around {@link #phase(String)} and may run on any
+ * thread; milestones such as "window shown" are instants recorded with {@link #milestone(String)}.
+ * All times are milliseconds since the timer was created, which is when the GUI starts being
+ * built. A milestone later than the time budget is logged as a warning to the
+ * {@code com.example.StartupTimer} logger, so slow startups show up without a profiler;
+ * {@link #finish()} logs the whole breakdown.
+ */
+public class StartupTimer {
+    private static final Logger LOG = Logger.getLogger(StartupTimer.class.getName());
+
+    private final long budgetMillis;
+    private final long createdNanos = System.nanoTime();
+    private final long createdMillis = System.currentTimeMillis();
+    private final List<Phase> phases = new ArrayList<>();
+
+    /**
+     * Constructs a timer that starts now.
+     *
+     * @param budgetMillis milestones later than this are logged as warnings
+     */
+    public StartupTimer(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Starts timing a phase; close the returned phase when it is done.
+     *
+     * @param name the phase name
+     * @return the running phase
+     */
+    public Phase phase(String name) {
+        Phase phase = new Phase(name, Thread.currentThread().getName(), elapsedMillis());
+        synchronized (this) {
+            phases.add(phase);
+        }
+        return phase;
+    }
+
+    /**
+     * Records a milestone and warns if it was reached after the budget.
+     *
+     * @param name the milestone name
+     * @return the milliseconds since the timer was created
+     */
+    public long milestone(String name) {
+        Phase phase = phase(name);
+        phase.end = phase.start;
+        if (phase.start > budgetMillis) {
+            LOG.log(Level.WARNING, "Startup milestone \"{0}\" reached after {1} ms, budget is {2} ms",
+                new Object[] {name, phase.start, budgetMillis});
+        }
+        return phase.start;
+    }
+
+    /** @return the milliseconds since the timer was created */
+    public long elapsedMillis() {
+        return (System.nanoTime() - createdNanos) / 1_000_000;
+    }
+
+    /** @return the time budget for milestones in milliseconds */
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    /** @return the phases and milestones recorded so far, in the order they started */
+    public synchronized List<Phase> getPhases() {
+        return new ArrayList<>(phases);
+    }
+
+    /**
+     * Returns a table of the recorded phases, preceded by the time from JVM launch to the
+     * creation of the timer.
+     *
+     * @return the summary
+     */
+    public String getSummary() {
+        long launch = createdMillis - ManagementFactory.getRuntimeMXBean().getStartTime();
+        StringBuilder summary = new StringBuilder(String.format("JVM launch to GUI: %d ms%n%-22s %8s %8s  %s",
+            launch, "phase", "at ms", "took ms", "thread"));
+        for (Phase phase : getPhases()) {
+            summary.append(String.format("%n%-22s %8d %8s  %s", phase.name, phase.start,
+                phase.end < 0 ? "running" : String.valueOf(phase.end - phase.start), phase.thread));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Logs the summary once startup is complete.
+     */
+    public void finish() {
+        LOG.log(Level.INFO, "Startup timing\n{0}", getSummary());
+    }
+
+    /**
+     * A timed phase of startup.
+     */
+    public final class Phase implements AutoCloseable {
+        private final String name;
+        private final String thread;
+        private final long start;
+        private volatile long end = -1;
+
+        private Phase(String name, String thread, long start) {
+            this.name = name;
+            this.thread = thread;
+            this.start = start;
+        }
+
+        /** @return the phase name */
+        public String getName() {
+            return name;
+        }
+
+        /** @return the milliseconds since the timer was created at which the phase started */
+        public long getStartMillis() {
+            return start;
+        }
+
+        /** @return the duration in milliseconds, or -1 while the phase is running */
+        public long getDurationMillis() {
+            long finished = end;
+            return finished < 0 ? -1 : finished - start;
+        }
+
+        /**
+         * Ends the phase.
+         */
+        @Override
+        public void close() {
+            if (end < 0) end = elapsedMillis();
+        }
+    }
+}
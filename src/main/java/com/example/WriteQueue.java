@@ -0,0 +1,285 @@
+package com.example;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serialises all writes of a {@link BookDAO} on one thread and commits them in groups.
+ * <p>
+ * Callers of {@link #submit(Write)} block until their write has committed. The writer thread
+ * takes every write that is waiting, up to {@link DatabaseConfig#getMaxWriteGroup()}, and runs
+ * them in a single {@code BEGIN IMMEDIATE} transaction, so concurrent writers share one commit
+ * instead of queueing for the write lock one by one. Each write runs inside its own savepoint:
+ * a failing write is rolled back alone and gets its exception, the others still commit. An
+ * {@link Error} is handed to its caller the same way and does not end the writer thread.
+ * After every rollback, of one write or of the whole group, the {@code afterRollback} work
+ * runs before the next write, so no write sees state cached from rows that were undone.
+ * <p>
+ * {@code BEGIN IMMEDIATE} takes the write lock up front, so another process holding it makes the
+ * transaction wait for the connection's busy timeout rather than fail half-way. If the lock is
+ * still busy after that, or the commit reports {@code SQLITE_BUSY}, the step is retried with
+ * exponential backoff up to {@link DatabaseConfig#getWriteRetries()} times before the whole
+ * group fails.
+ */
+public class WriteQueue implements AutoCloseable {
+    /**
+     * A unit of work run on the write connection inside the group transaction.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface Write<T> {
+        /**
+         * Runs the work.
+         *
+         * @param pc the write connection; do not commit, roll back or change auto-commit
+         * @return the result handed to the caller
+         * @throws SQLException if the work fails; it is then rolled back alone
+         */
+        T run(PooledConnection pc) throws SQLException;
+    }
+
+    private static final int SQLITE_BUSY = 5;
+    private static final long BACKOFF_MILLIS = 10;
+
+    private final ConnectionPool pool;
+    private final int maxGroup;
+    private final int retries;
+    private final Write<?> afterRollback;
+    private final BlockingQueue<Task<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private final Object lock = new Object();
+    private volatile boolean closed;
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder busyRetries = new LongAdder();
+
+    /**
+     * Starts the writer thread.
+     *
+     * @param pool          the pool whose write connection is used
+     * @param afterRollback run on the write connection after each rollback, before the next
+     *                      write, to resynchronise state cached from rows that were undone
+     */
+    public WriteQueue(ConnectionPool pool, Write<?> afterRollback) {
+        this.pool = pool;
+        this.maxGroup = pool.getConfig().getMaxWriteGroup();
+        this.retries = pool.getConfig().getWriteRetries();
+        this.afterRollback = afterRollback;
+        this.thread = new Thread(this::drain, "sqlite-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a write and waits until it has committed.
+     * <p>
+     * If the waiting thread is interrupted the write may still commit later.
+     *
+     * @param write the work to run
+     * @param <T>   the result type
+     * @return the result of the work
+     * @throws SQLException if the work, the transaction or the commit failed, or the queue is closed
+     */
+    public <T> T submit(Write<T> write) throws SQLException {
+        if (Thread.currentThread() == thread) {
+            throw new IllegalStateException("A write cannot submit another write");
+        }
+        Task<T> task = new Task<>(write);
+        synchronized (lock) {
+            if (closed) throw new SQLException("Write queue is closed");
+            queue.add(task);
+        }
+        try {
+            return task.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the writer", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new SQLException(cause);
+        }
+    }
+
+    /**
+     * Commits the queued writes, stops accepting new ones and waits for the writer thread to end.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** @return the number of writes waiting for the writer thread */
+    public int getQueueLength() {
+        return queue.size();
+    }
+
+    /** @return the number of writes run, committed or not */
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    /** @return the number of transactions the writes were grouped into */
+    public long getGroupCount() {
+        return groups.sum();
+    }
+
+    /** @return the number of times a transaction step was retried after {@code SQLITE_BUSY} */
+    public long getBusyRetryCount() {
+        return busyRetries.sum();
+    }
+
+    private void drain() {
+        List<Task<?>> group = new ArrayList<>(maxGroup);
+        while (true) {
+            Task<?> first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                first = null;
+            }
+            if (first == null) {
+                if (closed && queue.isEmpty()) return;
+                continue;
+            }
+            group.add(first);
+            queue.drainTo(group, maxGroup - 1);
+            commit(group);
+            group.clear();
+        }
+    }
+
+    private void commit(List<Task<?>> group) {
+        writes.add(group.size());
+        groups.increment();
+        try (PooledConnection pc = pool.writer()) {
+            retryIfBusy(() -> execute(pc, "BEGIN IMMEDIATE"));
+            try {
+                for (Task<?> task : group) {
+                    execute(pc, "SAVEPOINT task");
+                    try {
+                        task.run(pc);
+                        execute(pc, "RELEASE task");
+                    } catch (Throwable e) {
+                        execute(pc, "ROLLBACK TO task");
+                        execute(pc, "RELEASE task");
+                        afterRollback(pc);
+                        task.error = e;
+                    }
+                }
+                retryIfBusy(() -> execute(pc, "COMMIT"));
+            } catch (Throwable e) {
+                rollbackQuietly(pc);
+                afterRollback(pc);
+                fail(group, e);
+                return;
+            }
+            for (Task<?> task : group) {
+                task.complete();
+            }
+        } catch (Throwable e) {
+            // The connection could not be borrowed, BEGIN failed or the rollback itself threw;
+            // the callers still get an answer and the writer thread stays alive
+            fail(group, e);
+        }
+    }
+
+    private void retryIfBusy(SqlStep step) throws SQLException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                step.run();
+                return;
+            } catch (SQLException e) {
+                if (!isBusy(e) || attempt >= retries) throw e;
+                busyRetries.increment();
+                try {
+                    Thread.sleep(BACKOFF_MILLIS << attempt);
+                } catch (InterruptedException ie) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void afterRollback(PooledConnection pc) {
+        try {
+            afterRollback.run(pc);
+        } catch (SQLException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void rollbackQuietly(PooledConnection pc) {
+        try {
+            execute(pc, "ROLLBACK");
+        } catch (SQLException e) {
+            // No transaction was open
+        }
+    }
+
+    private static void fail(List<Task<?>> group, Throwable e) {
+        for (Task<?> task : group) {
+            task.future.completeExceptionally(task.error != null ? task.error : e);
+        }
+    }
+
+    private static void execute(PooledConnection pc, String sql) throws SQLException {
+        pc.prepare(sql).execute();
+    }
+
+    /**
+     * @return true if the SQLite result code, possibly extended, is {@code SQLITE_BUSY}
+     */
+    static boolean isBusy(SQLException e) {
+        return (e.getErrorCode() & 0xff) == SQLITE_BUSY;
+    }
+
+    @FunctionalInterface
+    private interface SqlStep {
+        void run() throws SQLException;
+    }
+
+    /**
+     * A queued write and its outcome.
+     */
+    private static final class Task<T> {
+        final Write<T> write;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        Throwable error;
+
+        Task(Write<T> write) {
+            this.write = write;
+        }
+
+        void run(PooledConnection pc) throws SQLException {
+            result = write.run(pc);
+        }
+
+        void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -3,9 +3,13 @@ package com.example;
 import org.junit.jupiter.api.*;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -37,6 +41,7 @@ public class BookDAOTest {
         for (Book b : allBooks) {
             dao.deleteBook(b.getId());
         }
+        dao.close();
     }
 
     /** Tests whether a book can be added and retrieved correctly. */
@@ -148,6 +153,127 @@ public class BookDAOTest {
         assertTrue(favs.get(0).isFavorite());
     }
 
+    /** Tests token and prefix search through the full-text index, including updates and deletes. */
+    @Test
+    public void testFullTextSearch() {
+        Book hobbit = new Book("The Hobbit", "J.R.R. Tolkien", "Fantasy");
+        Book dune = new Book("Dune", "Frank Herbert", "Fiction");
+        dao.addBooks(List.of(hobbit, dune));
+
+        assertEquals(List.of("The Hobbit"), titles(dao.searchBooks("hobbit", SearchMode.TOKEN)));
+        assertTrue(dao.searchBooks("hobb", SearchMode.TOKEN).isEmpty());
+        assertEquals(List.of("The Hobbit"), titles(dao.searchBooks("tolk", SearchMode.PREFIX)));
+        assertEquals(List.of("Dune"), titles(dao.searchBooks("frank herb", SearchMode.PREFIX)));
+
+        dune.setTitle("Dune Messiah");
+        dao.updateBook(dune);
+        assertEquals(List.of("Dune Messiah"), titles(dao.searchBooks("messiah", SearchMode.TOKEN)));
+
+        dao.deleteBook(hobbit.getId());
+        assertTrue(dao.searchBooks("hobbit", SearchMode.TOKEN).isEmpty());
+
+        // Input without words falls back to the substring search
+        assertEquals(1, dao.searchBooks("", SearchMode.PREFIX).size());
+    }
+
+    private static List<String> titles(List<Book> books) {
+        return books.stream().map(Book::getTitle).toList();
+    }
+
+    /** Tests walking the table page by page with keyset pagination. */
+    @Test
+    public void testGetBooksAfterPagesInIdOrder() {
+        List<Book> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(new Book("Paged " + i, "Author", "Fiction"));
+        }
+        dao.addBooks(batch);
+
+        List<Integer> seen = new ArrayList<>();
+        int afterId = 0;
+        List<Book> page;
+        do {
+            page = dao.getBooksAfter(afterId, 2);
+            page.forEach(b -> seen.add(b.getId()));
+            if (!page.isEmpty()) afterId = page.get(page.size() - 1).getId();
+        } while (page.size() == 2);
+
+        assertEquals(batch.stream().map(Book::getId).toList(), seen);
+    }
+
+    /** Tests streaming all books and releasing the connection when the stream is closed. */
+    @Test
+    public void testStreamAllBooks() {
+        dao.addBooks(List.of(new Book("Stream A", "Author", "Fiction"), new Book("Stream B", "Author", "Fiction")));
+
+        // More streams than reader connections: each one must give its connection back
+        for (int i = 0; i < 10; i++) {
+            try (Stream<Book> books = dao.streamAllBooks()) {
+                assertEquals(List.of("Stream A", "Stream B"), titles(books.toList()));
+            }
+        }
+    }
+
+    /** Tests that a batch insert stores all books and assigns their generated IDs. */
+    @Test
+    public void testAddBooksAssignsIds() {
+        List<Book> batch = List.of(
+            new Book("Batch One", "Author A", "Fantasy"),
+            new Book("Batch Two", "Author B", "Fiction"),
+            new Book("Batch Three", "Author C", "Mystery")
+        );
+
+        int[] ids = dao.addBooks(batch, 2);
+
+        assertEquals(3, ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            assertEquals(id, batch.get(i).getId());
+            String title = batch.get(i).getTitle();
+            assertTrue(dao.getAllBooks().stream().anyMatch(b -> b.getId() == id && b.getTitle().equals(title)));
+        }
+    }
+
+    /** Tests that committed writes are published in order and failed writes are not. */
+    @Test
+    public void testWritesArePublished() {
+        List<DataChangeEvent> events = new ArrayList<>();
+        dao.getChangeBus().subscribe(events::addAll, Runnable::run);
+
+        Book book = new Book("Event", "Author", "Fiction");
+        dao.addBook(book);
+        dao.setFavorite(book.getId(), true);
+        book.setTitle("Event 2");
+        dao.updateBook(book);
+        dao.deleteBook(book.getId());
+        dao.deleteBook(book.getId());
+        dao.addBook(new Book(null, "Author", "Fiction"));
+
+        assertEquals(List.of(DataChangeEvent.Type.INSERTED, DataChangeEvent.Type.UPDATED,
+            DataChangeEvent.Type.UPDATED, DataChangeEvent.Type.DELETED),
+            events.stream().map(DataChangeEvent::getType).toList());
+        assertEquals(List.of(book), events.get(0).getBooks());
+        assertTrue(events.get(1).getBooks().isEmpty());
+        assertEquals(List.of(book.getId()), events.get(3).getIds());
+    }
+
+    /** Tests batch update and batch delete. */
+    @Test
+    public void testUpdateAndDeleteBooks() {
+        List<Book> batch = List.of(
+            new Book("Old One", "Author A", "Fantasy"),
+            new Book("Old Two", "Author B", "Fiction")
+        );
+        dao.addBooks(batch);
+
+        batch.forEach(b -> b.setTitle(b.getTitle().replace("Old", "New")));
+        assertArrayEquals(new int[] {1, 1}, dao.updateBooks(batch));
+        assertEquals(2, dao.getAllBooks().stream().filter(b -> b.getTitle().startsWith("New")).count());
+
+        assertEquals(2, dao.deleteBooks(List.of(batch.get(0).getId(), batch.get(1).getId())));
+        assertTrue(dao.getAllBooks().isEmpty());
+    }
+
     /** Tests invalid input handling. */
     @Test
     public void testAddInvalidBook() {
@@ -210,6 +336,62 @@ public class BookDAOTest {
         assertFalse(result.contains(toRemove));
     }
 
+    /**
+     * Tests that repeated lookups are served from the same cached list.
+     */
+    @Test
+    public void testGenresAreCached() {
+        List<String> first = GenreLoader.getGenres();
+        assertSame(first, GenreLoader.getGenres());
+        assertThrows(UnsupportedOperationException.class, () -> first.add("Nope"));
+    }
+
+    /**
+     * Tests that an edit made to genres.xml outside the application invalidates the cache.
+     */
+    @Test
+    public void testOutsideEditIsPickedUp() throws Exception {
+        List<String> original = GenreLoader.loadGenres();
+        GenreLoader.getGenres();
+        try {
+            Files.writeString(Path.of("src/main/resources/genres.xml"),
+                "<genres>\n    <genre>Edited Outside</genre>\n</genres>\n");
+            List<String> genres = GenreLoader.getGenres();
+            for (int i = 0; i < 500 && !genres.contains("Edited Outside"); i++) {
+                Thread.sleep(10);
+                genres = GenreLoader.getGenres();
+            }
+            assertEquals(List.of("Edited Outside"), genres);
+        } finally {
+            GenreLoader.saveGenres(original);
+        }
+    }
+
+    /**
+     * Tests that a save is published once, although the watcher also sees the file being replaced.
+     */
+    @Test
+    public void testSaveIsPublishedOnce() throws Exception {
+        List<String> original = GenreLoader.loadGenres();
+        List<DataChangeEvent> events = new CopyOnWriteArrayList<>();
+        ChangeBus.Listener listener = events::addAll;
+        GenreLoader.getChangeBus().subscribe(listener, Runnable::run);
+        try {
+            List<String> updated = new ArrayList<>(original);
+            updated.add("Published Once");
+            GenreLoader.saveGenres(updated);
+            List<String> cached = GenreLoader.getGenres();
+            // Give the watcher time to report the move
+            Thread.sleep(1000);
+
+            assertEquals(1, events.size());
+            assertSame(cached, GenreLoader.getGenres());
+        } finally {
+            GenreLoader.getChangeBus().unsubscribe(listener);
+            GenreLoader.saveGenres(original);
+        }
+    }
+
     /**
      * Tests if genres.xml file exists in the expected location.
      */
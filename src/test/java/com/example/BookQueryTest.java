@@ -0,0 +1,177 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookQuery and BookDAO.findBooks.
+ */
+public class BookQueryTest {
+
+    @TempDir
+    Path dir;
+
+    private BookDAO dao;
+
+    /** Fills a temporary database with a few books. */
+    @BeforeEach
+    public void setUp() {
+        dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("query.db")));
+        List<Book> books = List.of(
+            new Book("The Hobbit", "Tolkien", "Fantasy"),
+            new Book("Emma", "Austen", "Romance"),
+            new Book("Silmarillion", "Tolkien", "Fantasy"),
+            new Book("100% Proof", "Someone", "Mystery"));
+        books.get(2).setFavorite(true);
+        books.get(1).setFavorite(true);
+        dao.addBooks(books);
+    }
+
+    /** Closes the DAO. */
+    @AfterEach
+    public void tearDown() {
+        dao.close();
+    }
+
+    /** Tests that keyword, genre and favorite criteria are combined. */
+    @Test
+    public void testCombinedCriteria() {
+        BookQuery query = new BookQuery();
+        query.setKeyword("tolk");
+        assertEquals(List.of("The Hobbit", "Silmarillion"), titles(dao.findBooks(query)));
+
+        query.setFavoritesOnly(true);
+        assertEquals(List.of("Silmarillion"), titles(dao.findBooks(query)));
+
+        query.setKeyword(null);
+        query.setGenre("Romance");
+        assertEquals(List.of("Emma"), titles(dao.findBooks(query)));
+        assertEquals(1, dao.countBooks(query));
+
+        query.setGenre("No such genre");
+        assertTrue(dao.findBooks(query).isEmpty());
+    }
+
+    /** Tests ordering, paging and literal LIKE wildcards. */
+    @Test
+    public void testSortPageAndEscaping() {
+        BookQuery query = new BookQuery();
+        query.setSortKey(BookQuery.SortKey.TITLE);
+        query.setDescending(true);
+        query.setLimit(2);
+        query.setOffset(1);
+        assertEquals(List.of("Silmarillion", "Emma"), titles(dao.findBooks(query)));
+        assertEquals(4, dao.countBooks(query));
+
+        BookQuery percent = new BookQuery();
+        percent.setKeyword("0%");
+        assertEquals(List.of("100% Proof"), titles(dao.findBooks(percent)));
+    }
+
+    /** Tests that SQLite plans the filters with the intended indexes. */
+    @Test
+    public void testQueryPlansUseIndexes() throws Exception {
+        BookQuery genreAndFavorite = new BookQuery();
+        genreAndFavorite.setGenre("Fantasy");
+        genreAndFavorite.setFavoritesOnly(true);
+        assertPlanContains(genreAndFavorite, "USING INDEX idx_books_genre_favorite (genre_id=? AND favorite=?)");
+
+        BookQuery genre = new BookQuery();
+        genre.setGenre("Fantasy");
+        assertPlanContains(genre, "USING INDEX idx_books_genre_favorite (genre_id=?)");
+
+        BookQuery favorites = new BookQuery();
+        favorites.setFavoritesOnly(true);
+        assertPlanContains(favorites, "USING INDEX idx_books_favorite (favorite=?)");
+
+        BookQuery token = new BookQuery();
+        token.setKeyword("tolkien");
+        token.setSearchMode(SearchMode.TOKEN);
+        assertPlanContains(token, "VIRTUAL TABLE INDEX");
+        assertEquals(2, dao.findBooks(token).size());
+    }
+
+    /** Tests the collation order of each column and that keyset pages join up to the full order. */
+    @Test
+    public void testColumnOrdersAndKeysetPaging() {
+        dao.addBooks(List.of(new Book("apple pie", "Émile", null), new Book("Zebra", "emma", "Fantasy")));
+
+        BookQuery query = new BookQuery();
+        query.setOrder(new BookOrder(BookQuery.SortKey.TITLE, false));
+        assertEquals(List.of("100% Proof", "apple pie", "Emma", "Silmarillion", "The Hobbit", "Zebra"),
+            titles(dao.findBooks(query)));
+        query.setOrder(new BookOrder(BookQuery.SortKey.AUTHOR, false));
+        assertEquals(List.of("Austen", "Émile", "emma", "Someone", "Tolkien", "Tolkien"),
+            dao.findBooks(query).stream().map(Book::getAuthor).collect(Collectors.toList()));
+        query.setOrder(new BookOrder(BookQuery.SortKey.GENRE, true));
+        // Books without genre sort first, so last when descending
+        assertEquals(Arrays.asList("Romance", "Mystery", "Fantasy", "Fantasy", "Fantasy", null),
+            dao.findBooks(query).stream().map(Book::getGenre).collect(Collectors.toList()));
+
+        for (BookQuery.SortKey key : List.of(BookQuery.SortKey.ID, BookQuery.SortKey.TITLE, BookQuery.SortKey.AUTHOR,
+                BookQuery.SortKey.GENRE, BookQuery.SortKey.FAVORITE)) {
+            for (boolean descending : new boolean[] {false, true}) {
+                BookOrder order = new BookOrder(key, descending);
+                BookQuery all = new BookQuery();
+                all.setOrder(order);
+                List<Book> expected = dao.findBooks(all);
+                assertEquals(ids(order.sort(dao.getAllBooks())), ids(expected), order.toString());
+
+                BookQuery page = new BookQuery();
+                page.setOrder(order);
+                page.setLimit(4);
+                List<Book> first = dao.findBooks(page);
+                page.setAfter(first.get(first.size() - 1));
+                List<Book> paged = new ArrayList<>(first);
+                paged.addAll(dao.findBooks(page));
+                assertEquals(ids(expected), ids(paged), order.toString());
+            }
+        }
+    }
+
+    /** Tests that column orders and keyset pages are read from an index without a sort step. */
+    @Test
+    public void testSortedQueriesUseIndexes() throws Exception {
+        BookQuery title = new BookQuery();
+        title.setOrder(new BookOrder(BookQuery.SortKey.TITLE, true));
+        title.setAfter(new Book(2, "Emma", "Austen", "Romance", true));
+        assertPlanContains(title, "USING INDEX idx_books_title_key");
+        assertPlanLacks(title, "TEMP B-TREE");
+
+        BookQuery genre = new BookQuery();
+        genre.setOrder(new BookOrder(BookQuery.SortKey.GENRE, false));
+        assertPlanContains(genre, "USING INDEX idx_books_genre_key");
+        assertPlanLacks(genre, "TEMP B-TREE");
+
+        BookQuery favorite = new BookQuery();
+        favorite.setOrder(new BookOrder(BookQuery.SortKey.FAVORITE, false));
+        assertPlanContains(favorite, "USING INDEX idx_books_favorite");
+        assertPlanLacks(favorite, "TEMP B-TREE");
+    }
+
+    private void assertPlanLacks(BookQuery query, String step) throws Exception {
+        List<String> plan = dao.explainQueryPlan(query);
+        assertTrue(plan.stream().noneMatch(line -> line.contains(step)), () -> "Unexpected " + step + " in " + plan);
+    }
+
+    private static List<Integer> ids(List<Book> books) {
+        return books.stream().map(Book::getId).collect(Collectors.toList());
+    }
+
+    private void assertPlanContains(BookQuery query, String step) throws Exception {
+        List<String> plan = dao.explainQueryPlan(query);
+        assertTrue(plan.stream().anyMatch(line -> line.contains(step)), () -> "Expected " + step + " in " + plan);
+    }
+
+    private static List<String> titles(List<Book> books) {
+        return books.stream().map(Book::getTitle).collect(Collectors.toList());
+    }
+}
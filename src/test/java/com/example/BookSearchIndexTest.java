@@ -0,0 +1,116 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookSearchIndex.
+ * <p>
+ * Results are compared with the plain substring filter the index replaces.
+ */
+public class BookSearchIndexTest {
+
+    private List<Book> books;
+    private BookSearchIndex index;
+
+    /** Builds an index over a reproducible set of books. */
+    @BeforeEach
+    public void setUp() {
+        books = new ArrayList<>();
+        SyntheticBooks generator = new SyntheticBooks(7);
+        for (int i = 1; i <= 2000; i++) {
+            Book book = generator.next();
+            book.setId(i);
+            books.add(book);
+        }
+        index = new BookSearchIndex(books);
+    }
+
+    /** Tests that the index finds exactly what a linear substring scan finds, in the same order. */
+    @Test
+    public void testMatchesLinearScan() {
+        for (String keyword : List.of("", "a", "Dr", "dragon", "GARDEN", "n ", "the storm", "ito", "zzz", "fantasy")) {
+            assertEquals(scan(keyword), ids(index.search(keyword)), "keyword: " + keyword);
+        }
+    }
+
+    /** Tests incremental add, update and remove. */
+    @Test
+    public void testIncrementalUpdates() {
+        Book added = new Book(5000, "Quixotic Voyages", "Ada Lovelace", "Fiction", false);
+        index.add(added);
+        assertEquals(List.of(5000), ids(index.search("quixotic")));
+
+        Book changed = new Book(5000, "Plain Voyages", "Ada Lovelace", null, false);
+        index.update(changed);
+        assertTrue(index.search("quixotic").isEmpty());
+        assertEquals(List.of(5000), ids(index.search("plain voy")));
+        assertSame(changed, index.get(5000));
+
+        assertTrue(index.remove(5000));
+        assertTrue(index.search("lovelace").isEmpty());
+        assertEquals(2000, index.size());
+    }
+
+    /** Tests that many removals (which trigger compaction) leave the index consistent. */
+    @Test
+    public void testRemoveMany() {
+        for (int i = 1; i <= 1500; i++) {
+            index.remove(i);
+        }
+        books.subList(0, 1500).clear();
+        assertEquals(500, index.size());
+        assertEquals(scan("garden"), ids(index.search("garden")));
+    }
+
+    /** Tests that sorted results match a full sort, also after incremental changes and compaction. */
+    @Test
+    public void testSortedSearchStaysSorted() {
+        List<BookOrder> orders = new ArrayList<>();
+        for (BookQuery.SortKey key : List.of(BookQuery.SortKey.ID, BookQuery.SortKey.TITLE, BookQuery.SortKey.AUTHOR,
+                BookQuery.SortKey.GENRE, BookQuery.SortKey.FAVORITE)) {
+            orders.add(new BookOrder(key, false));
+            orders.add(new BookOrder(key, true));
+        }
+        assertSorted(orders);
+
+        index.add(new Book(5000, "aardvark garden", "Zoe", "Fantasy", true));
+        index.update(new Book(3, "Zzz garden", "Aaron", null, false));
+        for (int i = 10; i <= 1500; i++) {
+            index.remove(i);
+        }
+        books.removeIf(b -> b.getId() >= 10 && b.getId() <= 1500);
+        books.add(new Book(5000, "aardvark garden", "Zoe", "Fantasy", true));
+        books.set(2, new Book(3, "Zzz garden", "Aaron", null, false));
+        assertSorted(orders);
+    }
+
+    private void assertSorted(List<BookOrder> orders) {
+        for (BookOrder order : orders) {
+            for (String keyword : List.of("", "garden", "a")) {
+                List<Integer> matching = scan(keyword);
+                List<Book> expected = order.sort(books.stream().filter(b -> matching.contains(b.getId())).toList());
+                assertEquals(ids(expected), ids(index.search(keyword, order)), order + "/" + keyword);
+            }
+        }
+    }
+
+    private List<Integer> scan(String keyword) {
+        String q = keyword.toLowerCase(Locale.ROOT);
+        return books.stream()
+            .filter(b -> b.getTitle().toLowerCase(Locale.ROOT).contains(q)
+                      || b.getAuthor().toLowerCase(Locale.ROOT).contains(q)
+                      || (b.getGenre() != null && b.getGenre().toLowerCase(Locale.ROOT).contains(q)))
+            .map(Book::getId)
+            .toList();
+    }
+
+    private static List<Integer> ids(List<Book> books) {
+        return books.stream().map(Book::getId).toList();
+    }
+}
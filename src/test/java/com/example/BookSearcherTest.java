@@ -0,0 +1,61 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookSearcher.
+ */
+public class BookSearcherTest {
+
+    @TempDir
+    Path dir;
+
+    private BookDAO dao;
+    private BookSearcher searcher;
+    private int reads;
+
+    /** Opens a DAO on a temporary database with a few books. */
+    @BeforeEach
+    public void setUp() {
+        dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("search.db")));
+        Book favorite = new Book("Dragon Song", "Anna Abe", "Fantasy");
+        favorite.setFavorite(true);
+        dao.addBooks(List.of(favorite, new Book("Dragon Tales", "Ben Brown", "Fantasy"),
+            new Book("Silent River", "Clara Costa", "Mystery")));
+        searcher = new BookSearcher(dao, () -> reads++);
+    }
+
+    /** Closes the DAO. */
+    @AfterEach
+    public void tearDown() {
+        dao.close();
+    }
+
+    /** Tests that filters without a keyword are answered by the database without loading the index. */
+    @Test
+    public void testFilterWithoutKeywordIsPushedDown() {
+        List<Book> books = searcher.filter(new BookFilter("", "Fantasy", true));
+
+        assertEquals(List.of("Dragon Song"), books.stream().map(Book::getTitle).toList());
+        assertNull(searcher.getIndex());
+        assertEquals(1, reads);
+    }
+
+    /** Tests that a keyword filter loads the index once and that invalidation drops it. */
+    @Test
+    public void testKeywordFilterLoadsIndexOnce() {
+        assertEquals(2, searcher.filter(new BookFilter("dragon", BookFilter.ANY_GENRE, false)).size());
+        assertNotNull(searcher.getIndex());
+        assertEquals(1, searcher.filter(new BookFilter("dragon", BookFilter.ANY_GENRE, true)).size());
+        assertEquals(1, reads);
+
+        searcher.invalidate();
+        assertNull(searcher.getIndex());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop load test of the {@link BookServer} JSON API: a number of clients send requests
+ * back to back for a fixed time and the throughput and latency percentiles are reported.
+ * <p>
+ * The request mix is mostly page reads and searches with a share of adds, favorite changes
+ * and deletes. Not a unit test; run it manually, e.g.
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.example.BookServerLoadBenchmark -Dexec.classpathScope=test -Dexec.args="16 20"}.
+ * Arguments: number of clients (default 8), seconds (default 10), write percentage (default 10)
+ * and the base URL of a running server; without a URL an in-process server on a temporary
+ * database of 100,000 books is used.
+ */
+public class BookServerLoadBenchmark {
+    private static final String[] WORDS = {"dragon", "river", "nakamura", "the silent", "ocean"};
+
+    /**
+     * Runs the load test.
+     *
+     * @param args optional clients, seconds, write percentage and base URL
+     * @throws Exception if the server cannot be started or a client fails
+     */
+    public static void main(String[] args) throws Exception {
+        // As Main --server does; the server leaves the JVM-wide setting alone
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int writePercent = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        if (args.length > 3) {
+            run(args[3], clients, seconds, writePercent);
+            return;
+        }
+        Path dir = Files.createTempDirectory("server-load");
+        try (BookDAO dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("books.db")))) {
+            new SyntheticBooks(42).fill(dao, 100_000);
+            try (BookServer server = new BookServer(dao, 0)) {
+                server.start();
+                run("http://localhost:" + server.getPort(), clients, seconds, writePercent);
+            }
+        }
+        for (File f : dir.toFile().listFiles()) {
+            f.delete();
+        }
+        dir.toFile().delete();
+    }
+
+    private static void run(String baseUrl, int clients, int seconds, int writePercent) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<Client>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Client client = new Client(http, baseUrl, writePercent, i);
+            futures.add(pool.submit(() -> client.run(deadline)));
+        }
+
+        long[] latencies = new long[0];
+        long errors = 0;
+        for (Future<Client> future : futures) {
+            Client client = future.get();
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + client.count);
+            System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+            errors += client.errors;
+        }
+        pool.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("%d clients, %d s, %d%% writes against %s%n", clients, seconds, writePercent, baseUrl);
+        System.out.printf("%d requests, %d errors, %.0f req/s%n", latencies.length, errors, latencies.length / (double) seconds);
+        System.out.printf("latency ms: p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+            percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99),
+            percentile(latencies, 0.999), latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(q * sorted.length) - 1)] / 1e6;
+    }
+
+    /**
+     * One client that sends requests back to back and records their latencies.
+     */
+    private static final class Client {
+        private final HttpClient http;
+        private final String baseUrl;
+        private final int writePercent;
+        private final Random random;
+        private final List<Integer> added = new ArrayList<>();
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        Client(HttpClient http, String baseUrl, int writePercent, long seed) {
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.writePercent = writePercent;
+            this.random = new Random(seed);
+        }
+
+        Client run(long deadline) {
+            while (System.nanoTime() < deadline) {
+                HttpRequest request = next();
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() >= 400) {
+                        errors++;
+                    } else if (response.statusCode() == 201) {
+                        Object id = Json.parseObject(response.body()).get("id");
+                        added.add(((Double) id).intValue());
+                    }
+                } catch (Exception e) {
+                    errors++;
+                }
+                if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                latencies[count++] = System.nanoTime() - start;
+            }
+            return this;
+        }
+
+        private HttpRequest next() {
+            if (random.nextInt(100) < writePercent) {
+                int kind = random.nextInt(3);
+                if (kind == 0 || added.isEmpty()) {
+                    return request("POST", "/books",
+                        "{\"title\": \"Load " + random.nextInt() + "\", \"author\": \"Load Client\", \"genre\": \"Fiction\"}");
+                }
+                if (kind == 1) {
+                    return request("PUT", "/books/" + added.get(random.nextInt(added.size())) + "/favorite",
+                        "{\"favorite\": " + random.nextBoolean() + "}");
+                }
+                return request("DELETE", "/books/" + added.remove(added.size() - 1), null);
+            }
+            if (random.nextBoolean()) {
+                return request("GET", "/books?after=" + random.nextInt(100_000) + "&limit=100", null);
+            }
+            String word = WORDS[random.nextInt(WORDS.length)].replace(" ", "%20");
+            return request("GET", "/books/search?q=" + word + "&mode=token&limit=50", null);
+        }
+
+        private HttpRequest request(String method, String path, String body) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the JSON API of BookServer over HTTP.
+ */
+public class BookServerTest {
+
+    @TempDir
+    Path dir;
+
+    private BookDAO dao;
+    private BookServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    /** Starts a server on a free port over a temporary database. */
+    @BeforeEach
+    public void setUp() throws Exception {
+        dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("server.db")));
+        server = new BookServer(dao, 0);
+        server.start();
+    }
+
+    /** Stops the server and closes the DAO. */
+    @AfterEach
+    public void tearDown() {
+        server.close();
+        dao.close();
+    }
+
+    /** Tests adding, reading, marking and deleting a book. */
+    @Test
+    public void testBookLifecycle() throws Exception {
+        HttpResponse<String> added = send("POST", "/books",
+            "{\"title\": \"Say \\\"Hi\\\"\", \"author\": \"Anna Abe\", \"genre\": \"Fiction\"}");
+        assertEquals(201, added.statusCode());
+        int id = Json.parseObject(added.body()).get("id") instanceof Double d ? d.intValue() : -1;
+        assertTrue(id > 0);
+
+        assertEquals("Say \"Hi\"", Json.parseObject(send("GET", "/books/" + id, null).body()).get("title"));
+        assertEquals(204, send("PUT", "/books/" + id + "/favorite", "{\"favorite\": true}").statusCode());
+        assertTrue(dao.getBook(id).isFavorite());
+        assertTrue(send("GET", "/books/search?favorites=true&q=hi", null).body().contains("\"id\":" + id));
+
+        assertEquals(204, send("DELETE", "/books/" + id, null).statusCode());
+        assertEquals(404, send("GET", "/books/" + id, null).statusCode());
+        assertEquals(404, send("DELETE", "/books/" + id, null).statusCode());
+    }
+
+    /** Tests keyset paging of the book list. */
+    @Test
+    public void testPaging() throws Exception {
+        dao.addBooks(new SyntheticBooks(1).next(5));
+
+        String first = send("GET", "/books?limit=3", null).body();
+        assertTrue(first.endsWith("\"next\":3}"), first);
+        String last = send("GET", "/books?after=3&limit=3", null).body();
+        assertTrue(last.contains("\"id\":5") && last.endsWith("\"next\":null}"), last);
+    }
+
+    /** Tests that invalid requests are rejected with a JSON error. */
+    @Test
+    public void testBadRequests() throws Exception {
+        HttpResponse<String> response = send("GET", "/books?limit=0", null);
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().startsWith("{\"error\":"));
+        assertEquals(400, send("POST", "/books", "{\"title\": \"No author\"}").statusCode());
+        assertEquals(400, send("POST", "/books", "{\"title\": \"T\", \"author\": \"A\", \"genre\": 5}").statusCode());
+        assertEquals(400, send("GET", "/books/search?mode=fuzzy", null).statusCode());
+        assertEquals(405, send("PUT", "/books", "{}").statusCode());
+        assertEquals(200, send("GET", "/genres", null).statusCode());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+            .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
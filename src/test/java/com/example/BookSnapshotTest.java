@@ -0,0 +1,128 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookSnapshot.
+ */
+public class BookSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private List<Book> books;
+    private BookSnapshot snapshot;
+
+    /** Builds a snapshot of a few books, including non-ASCII titles and a missing genre. */
+    @BeforeEach
+    public void setUp() {
+        books = new ArrayList<>(List.of(
+            new Book(1, "Dragon Song", "Anna Abe", "Fantasy", true),
+            new Book(2, "DRAGON tales", "Ben Brown", "Fantasy", false),
+            new Book(3, "Silent River", "Clara Costa", "Mystery", false),
+            new Book(4, "Über den Fluß", "Anna Abe", null, true),
+            new Book(5, "東京の夜", "Dana Dragonfly", "Mystery", false),
+            new Book(6, "KELVIN King", "Ed Eng", "Science", false)
+        ));
+        snapshot = new BookSnapshot(books);
+    }
+
+    /** Tests that rows keep their values and that authors and genres are dictionary-encoded. */
+    @Test
+    public void testColumnsRoundTrip() {
+        assertEquals(books.size(), snapshot.size());
+        for (int row = 0; row < books.size(); row++) {
+            Book expected = books.get(row);
+            Book actual = snapshot.getBook(row);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getAuthor(), actual.getAuthor());
+            assertEquals(expected.getGenre(), actual.getGenre());
+            assertEquals(expected.isFavorite(), actual.isFavorite());
+        }
+        assertEquals(List.of("Fantasy", "Mystery", "Science"), snapshot.getGenres());
+        assertEquals(5, snapshot.getAuthorCount());
+        assertSame(snapshot.getAuthor(0), snapshot.getAuthor(3));
+        assertEquals(3, snapshot.rowOf(4));
+        assertEquals(-1, snapshot.rowOf(99));
+    }
+
+    /** Tests that scanning gives the same rows as testing each book with BookFilter.matches. */
+    @Test
+    public void testScanMatchesBookFilter() {
+        String[] keywords = {"", "dragon", "DRAGON", "über", "fluß", "東京", "river", "fantasy", "abe", "king", "x"};
+        String[] genres = {BookFilter.ANY_GENRE, "Fantasy", "Mystery", "Unknown"};
+        for (String keyword : keywords) {
+            for (String genre : genres) {
+                for (boolean favorites : new boolean[] {false, true}) {
+                    BookFilter filter = new BookFilter(keyword, genre, favorites);
+                    List<Integer> expected = books.stream().filter(filter::matches).map(Book::getId).toList();
+                    List<Integer> actual = snapshot.filter(filter).stream().map(Book::getId).toList();
+                    assertEquals(expected, actual, keyword + "/" + genre + "/" + favorites);
+                }
+            }
+        }
+    }
+
+    /** Tests the byte-level case-insensitive search. */
+    @Test
+    public void testContainsIgnoreAsciiCase() {
+        byte[] text = "xxHello World".getBytes();
+        assertTrue(BookSnapshot.containsIgnoreAsciiCase(text, 2, text.length, "world".getBytes()));
+        assertFalse(BookSnapshot.containsIgnoreAsciiCase(text, 2, 7, "world".getBytes()));
+        assertFalse(BookSnapshot.containsIgnoreAsciiCase(text, 3, text.length, "hello".getBytes()));
+    }
+
+    /** Tests that a saved snapshot reads back to the same rows and that damaged files are rejected. */
+    @Test
+    public void testWriteAndRead() throws Exception {
+        Path file = dir.resolve("books.snapshot");
+        snapshot.write(file);
+        BookSnapshot loaded = BookSnapshot.read(file);
+
+        assertEquals(snapshot.size(), loaded.size());
+        assertEquals(snapshot.getChangeCount(), loaded.getChangeCount());
+        for (int row = 0; row < snapshot.size(); row++) {
+            assertEquals(snapshot.getTitle(row), loaded.getTitle(row));
+            assertEquals(snapshot.getAuthor(row), loaded.getAuthor(row));
+            assertEquals(snapshot.getGenre(row), loaded.getGenre(row));
+            assertEquals(snapshot.isFavorite(row), loaded.isFavorite(row));
+        }
+        assertArrayEquals(snapshot.scan(new BookFilter("über", BookFilter.ANY_GENRE, false)),
+            loaded.scan(new BookFilter("über", BookFilter.ANY_GENRE, false)));
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> BookSnapshot.read(file));
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> BookSnapshot.read(file));
+    }
+
+    /** Tests that the DAO loads the same rows as getAllBooks and that the snapshot is smaller. */
+    @Test
+    public void testSnapshotFromDao() {
+        try (BookDAO dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("snapshot.db")))) {
+            new SyntheticBooks(7).fill(dao, 2000);
+            List<Book> all = dao.getAllBooks();
+            BookSnapshot loaded = dao.getSnapshot();
+
+            assertEquals(all.size(), loaded.size());
+            for (int row = 0; row < all.size(); row += 97) {
+                assertEquals(all.get(row).getTitle(), loaded.getTitle(loaded.rowOf(all.get(row).getId())));
+            }
+            assertTrue(loaded.estimateHeapBytes() < BookSnapshot.estimateHeapBytes(all) / 2);
+            assertEquals(dao.getChangeCount(), loaded.getChangeCount());
+        }
+    }
+}
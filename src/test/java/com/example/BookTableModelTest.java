@@ -0,0 +1,70 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookTableModel.
+ */
+public class BookTableModelTest {
+
+    /** Tests that rows are found by ID after inserts and removals shifted them. */
+    @Test
+    public void testRowsFoundAfterShifts() {
+        List<Book> books = new ArrayList<>();
+        for (int id = 1; id <= 6; id++) {
+            books.add(new Book(id, "Book " + id, "Author", "Fiction", false));
+        }
+        BookTableModel model = new BookTableModel(books, null);
+        List<TableModelEvent> events = new ArrayList<>();
+        model.addTableModelListener(events::add);
+
+        model.updateBook(new Book(6, "Six", "Author", "Fiction", false));
+        model.removeBooks(List.of(2, 3, 5, 42));
+        assertEquals(List.of(1, 4, 6), ids(model));
+        assertEquals(3, events.size(), "one update, then one event per run of rows");
+        assertEquals(4, events.get(1).getFirstRow());
+        assertEquals(1, events.get(2).getFirstRow());
+        assertEquals(2, events.get(2).getLastRow());
+
+        model.addBook(new Book(7, "Book 7", "Author", "Fiction", false));
+        model.updateBook(new Book(6, "Six again", "Author", "Fiction", false));
+        model.updateBook(new Book(7, "Seven", "Author", "Fiction", false));
+        assertEquals("Six again", model.getValueAt(2, 0));
+        assertEquals("Seven", model.getValueAt(3, 0));
+
+        model.setBooks(List.of(new Book(9, "Nine", "Author", "Fiction", false)));
+        model.removeBooks(List.of(1));
+        model.updateBook(new Book(9, "Nine!", "Author", "Fiction", false));
+        assertEquals(List.of(9), ids(model));
+        assertEquals("Nine!", model.getValueAt(0, 0));
+    }
+
+    /** Tests that books added to sorted rows go to their position and can be found there. */
+    @Test
+    public void testSortedInsertsAreIndexed() {
+        BookTableModel model = new BookTableModel(List.of(), null);
+        BookOrder order = new BookOrder(BookQuery.SortKey.TITLE, false);
+        model.setBooks(List.of(new Book(1, "b", "A", null, false), new Book(2, "d", "A", null, false)), order);
+        model.addBooks(List.of(new Book(3, "c", "A", null, false), new Book(4, "a", "A", null, false)));
+        assertEquals(List.of(4, 1, 3, 2), ids(model));
+
+        model.removeBooks(List.of(1));
+        model.updateBook(new Book(2, "D", "A", null, true));
+        assertEquals(List.of(4, 3, 2), ids(model));
+        assertEquals(true, model.getValueAt(2, 3));
+    }
+
+    private static List<Integer> ids(BookTableModel model) {
+        List<Integer> ids = new ArrayList<>();
+        for (int row = 0; row < model.getRowCount(); row++) {
+            ids.add(model.getBookAt(row).getId());
+        }
+        return ids;
+    }
+}
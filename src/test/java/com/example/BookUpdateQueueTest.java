@@ -0,0 +1,128 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.SwingUtilities;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookUpdateQueue.
+ */
+public class BookUpdateQueueTest {
+
+    @TempDir
+    Path dir;
+
+    private BookDAO dao;
+    private List<Book> failures;
+
+    /** Opens a DAO on a temporary database. */
+    @BeforeEach
+    public void setUp() {
+        dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("queue.db")));
+        failures = new ArrayList<>();
+    }
+
+    /** Closes the DAO. */
+    @AfterEach
+    public void tearDown() {
+        dao.close();
+    }
+
+    /** Tests that repeated edits of one book are written once, with the latest state. */
+    @Test
+    public void testCoalescesEditsOfTheSameBook() {
+        Book book = new Book("Draft", "Author", "Fiction");
+        dao.addBook(book);
+
+        BookUpdateQueue queue = new BookUpdateQueue(dao, 60_000, 100, failures::addAll);
+        try {
+            for (int i = 1; i <= 3; i++) {
+                book.setTitle("Draft " + i);
+                queue.enqueue(book);
+            }
+            book.setTitle("Not queued");
+            assertEquals(1, queue.getPendingCount());
+
+            queue.flush();
+            assertEquals(3, queue.getEnqueuedCount());
+            assertEquals(1, queue.getBatchCount());
+            assertEquals("Draft 3", dao.getAllBooks().get(0).getTitle());
+        } finally {
+            queue.close();
+        }
+    }
+
+    /** Tests that reaching the threshold writes without an explicit flush, and close writes the rest. */
+    @Test
+    public void testThresholdAndCloseFlush() throws Exception {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            books.add(new Book("Book " + i, "Author", "Fiction"));
+        }
+        dao.addBooks(books);
+
+        BookUpdateQueue queue = new BookUpdateQueue(dao, 60_000, 3, failures::addAll);
+        for (Book book : books.subList(0, 3)) {
+            book.setFavorite(true);
+            queue.enqueue(book);
+        }
+        for (int i = 0; i < 100 && queue.getWrittenCount() < 3; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, queue.getWrittenCount());
+
+        for (Book book : books.subList(3, 5)) {
+            book.setFavorite(true);
+            queue.enqueue(book);
+        }
+        assertEquals(2, queue.getPendingCount());
+
+        queue.close();
+        assertEquals(5, queue.getWrittenCount());
+        assertTrue(dao.getAllBooks().stream().allMatch(Book::isFavorite));
+    }
+
+    /** Tests that a batch that updates nothing is reported to the failure handler on the EDT. */
+    @Test
+    public void testReportsFailedBatch() throws Exception {
+        BookUpdateQueue queue = new BookUpdateQueue(dao, 60_000, 100, failures::addAll);
+        queue.enqueue(new Book(4242, "Gone", "Author", "Fiction", false));
+        queue.close();
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(1, queue.getFailedCount());
+        assertEquals(1, failures.size());
+        assertEquals(4242, failures.get(0).getId());
+    }
+
+    /** Tests that only the deleted book of a partly written batch is reported. */
+    @Test
+    public void testReportsLostBooksOfMixedBatch() throws Exception {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            books.add(new Book("Book " + i, "Author", "Fiction"));
+        }
+        dao.addBooks(books);
+        dao.deleteBook(books.get(1).getId());
+
+        BookUpdateQueue queue = new BookUpdateQueue(dao, 60_000, 100, failures::addAll);
+        for (Book book : books) {
+            book.setTitle(book.getTitle() + " (edited)");
+            queue.enqueue(book);
+        }
+        queue.close();
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(2, queue.getWrittenCount());
+        assertEquals(1, queue.getFailedCount());
+        assertEquals(List.of(books.get(1).getId()), failures.stream().map(Book::getId).toList());
+        assertEquals(List.of("Book 0 (edited)", "Book 2 (edited)"),
+            dao.getAllBooks().stream().map(Book::getTitle).toList());
+    }
+}
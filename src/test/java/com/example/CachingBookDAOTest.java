@@ -0,0 +1,113 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CachingBookDAO.
+ */
+public class CachingBookDAOTest {
+
+    @TempDir
+    Path dir;
+
+    private CachingBookDAO dao;
+
+    /** Opens a caching DAO with room for two results on a temporary database. */
+    @BeforeEach
+    public void setUp() {
+        dao = new CachingBookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("cache.db")), 2, 2);
+        dao.addBooks(List.of(
+            new Book("Dune", "Herbert", "Fiction"),
+            new Book("Emma", "Austen", "Romance"),
+            new Book("Ulysses", "Joyce", "Fiction")));
+    }
+
+    /** Closes the DAO. */
+    @AfterEach
+    public void tearDown() {
+        dao.close();
+    }
+
+    /** Tests that identical reads hit the cache until a write bumps the version. */
+    @Test
+    public void testHitsUntilWrite() {
+        assertEquals(1, dao.searchBooks("Dune").size());
+        assertEquals(1, dao.searchBooks("Dune").size());
+        assertEquals(1, dao.getHitCount());
+        assertEquals(1, dao.getMissCount());
+
+        Book second = new Book("Dune Messiah", "Herbert", "Fiction");
+        dao.addBook(second);
+        assertEquals(2, dao.searchBooks("Dune").size());
+        assertEquals(2, dao.getMissCount());
+
+        dao.setFavorite(second.getId(), true);
+        BookQuery favorites = new BookQuery();
+        favorites.setFavoritesOnly(true);
+        assertEquals("Dune Messiah", dao.findBooks(favorites).get(0).getTitle());
+
+        dao.deleteBooks(List.of(second.getId()));
+        assertTrue(dao.findBooks(favorites).isEmpty());
+    }
+
+    /** Tests the by-ID cache and LRU eviction of results. */
+    @Test
+    public void testByIdCacheAndEviction() {
+        int id = dao.getAllBooks().get(0).getId();
+        Book book = dao.getBook(id);
+        assertSame(book, dao.getBook(id));
+
+        book.setTitle("Dune (revised)");
+        dao.updateBook(book);
+        Book reread = dao.getBook(id);
+        assertNotSame(book, reread);
+        assertEquals("Dune (revised)", reread.getTitle());
+
+        long evictions = dao.getEvictionCount();
+        dao.searchBooks("a");
+        dao.searchBooks("b");
+        dao.searchBooks("c");
+        assertTrue(dao.getEvictionCount() > evictions);
+    }
+
+    /** Tests that an edit whose update failed is not served from the cache. */
+    @Test
+    public void testFailedUpdateEvictsEditedBooks() {
+        Book listed = dao.getAllBooks().get(0);
+        Book byId = dao.getBook(listed.getId());
+        String title = listed.getTitle();
+
+        listed.setTitle(null);
+        byId.setTitle(null);
+        dao.updateBooks(List.of(listed));
+        assertEquals(title, dao.getAllBooks().get(0).getTitle());
+        assertEquals(title, dao.getBook(listed.getId()).getTitle());
+    }
+
+    /** Tests that a favorite change that found no row evicts the book, e.g. one deleted elsewhere. */
+    @Test
+    public void testFavoriteOfMissingBookEvictsIt() {
+        Book book = dao.getBook(dao.getAllBooks().get(0).getId());
+        try (BookDAO other = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("cache.db")))) {
+            other.deleteBook(book.getId());
+        }
+        assertNotNull(dao.getBook(book.getId()), "served from the cache");
+
+        dao.setFavorite(book.getId(), true);
+        assertNull(dao.getBook(book.getId()));
+    }
+
+    /** Tests that callers cannot change a cached result list. */
+    @Test
+    public void testReturnsCopies() {
+        List<Book> first = dao.getAllBooks();
+        first.clear();
+        assertEquals(3, dao.getAllBooks().size());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CatalogExporter.
+ * <p>
+ * Each test exports from a fresh database in a temporary directory.
+ */
+public class CatalogExporterTest {
+
+    @TempDir
+    Path dir;
+
+    private BookDAO dao;
+    private CatalogExporter exporter;
+
+    /** Opens a DAO on a temporary database with a few awkward books and some synthetic ones. */
+    @BeforeEach
+    public void setUp() {
+        dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("export.db")));
+        dao.addBook(new Book("Commas, \"Quotes\"\nand lines", "Ann Author", "Fantasy"));
+        dao.addBook(new Book(" Padded ", "Über Autor", null));
+        new SyntheticBooks(3).fill(dao, 3000);
+        exporter = new CatalogExporter(dao);
+        exporter.setBufferSize(1024);
+        exporter.setProgressInterval(500);
+    }
+
+    /** Closes the DAO. */
+    @AfterEach
+    public void tearDown() {
+        dao.close();
+    }
+
+    /** Tests that CSV, JSONL and gzipped exports import back into the same books. */
+    @Test
+    public void testExportRoundTrips() throws Exception {
+        List<Book> expected = dao.getAllBooks();
+        for (String name : List.of("books.csv", "books.jsonl", "books.csv.gz", "books.jsonl.gz")) {
+            Path file = dir.resolve(name);
+            List<ExportReport> progress = new ArrayList<>();
+            ExportReport report = exporter.exportFile(file, progress::add);
+
+            assertTrue(report.isComplete(), name);
+            assertEquals(expected.size(), report.getRowsWritten(), name);
+            assertEquals(Files.size(file), report.getFileBytes(), name);
+            assertEquals(expected.size() / 500 + 1, progress.size(), name);
+            if (name.endsWith(".gz")) {
+                assertTrue(report.getFileBytes() < report.getBytesWritten() / 2, name);
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                    assertEquals(report.getBytesWritten(), reader.lines().mapToLong(l -> l.getBytes(StandardCharsets.UTF_8).length + 1).sum(), name);
+                }
+                continue;
+            }
+            assertEquals(Files.size(file), report.getBytesWritten(), name);
+
+            try (BookDAO copy = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve(name + ".db")))) {
+                new CatalogImporter(copy).importFile(file, r -> { });
+                List<Book> actual = copy.getAllBooks();
+                assertEquals(expected.size(), actual.size(), name);
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getTitle().trim(), actual.get(i).getTitle(), name);
+                    assertEquals(expected.get(i).getAuthor(), actual.get(i).getAuthor(), name);
+                    assertEquals(expected.get(i).getGenre(), actual.get(i).getGenre(), name);
+                    assertEquals(expected.get(i).isFavorite(), actual.get(i).isFavorite(), name);
+                }
+            }
+        }
+    }
+
+    /** Tests that a query limits the export to the books findBooks returns. */
+    @Test
+    public void testExportWithQuery() throws Exception {
+        BookQuery query = new BookFilter("", "Fantasy", true).toQuery();
+        Path file = dir.resolve("favorites.jsonl");
+        ExportReport report = exporter.exportFile(file, CatalogImporter.Format.JSONL, false, query, r -> { });
+
+        List<Book> expected = dao.findBooks(query);
+        List<String> lines = Files.readAllLines(file);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), report.getRowsWritten());
+        assertEquals(expected.size(), lines.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(Json.appendBook(new StringBuilder(), expected.get(i)).toString(), lines.get(i));
+        }
+    }
+
+    /** Tests that a cancelled export leaves the existing file and no temporary files behind. */
+    @Test
+    public void testCancelKeepsExistingFile() throws Exception {
+        Path file = dir.resolve("books.csv");
+        Files.writeString(file, "old");
+        ExportReport report = exporter.exportFile(file, r -> exporter.cancel());
+
+        assertFalse(report.isComplete());
+        assertEquals(500, report.getRowsWritten());
+        assertEquals("old", Files.readString(file));
+        try (var files = Files.list(dir)) {
+            assertTrue(files.noneMatch(f -> f.toString().endsWith(".tmp")));
+        }
+    }
+
+    /** Tests that a new export gets the default permissions and a replaced file keeps its own. */
+    @Test
+    public void testExportPermissions() throws Exception {
+        Assumptions.assumeTrue(dir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path plain = Files.createFile(dir.resolve("plain.txt"));
+        Path file = dir.resolve("books.csv");
+        exporter.exportFile(file, r -> { });
+        assertEquals(Files.getPosixFilePermissions(plain), Files.getPosixFilePermissions(file));
+
+        Set<PosixFilePermission> shared = PosixFilePermissions.fromString("rw-rw-r--");
+        Files.setPosixFilePermissions(file, shared);
+        exporter.exportFile(file, r -> { });
+        assertEquals(shared, Files.getPosixFilePermissions(file));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CatalogImporter.
+ * <p>
+ * Each test imports into a fresh database in a temporary directory.
+ */
+public class CatalogImporterTest {
+
+    @TempDir
+    Path dir;
+
+    private BookDAO dao;
+
+    /** Opens a DAO on an empty temporary database. */
+    @BeforeEach
+    public void setUp() {
+        dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("import.db")));
+    }
+
+    /** Closes the DAO. */
+    @AfterEach
+    public void tearDown() {
+        dao.close();
+    }
+
+    /** Tests a CSV import with a header, quoted fields and a row without title. */
+    @Test
+    public void testImportCsvSkipsBadRows() throws Exception {
+        Path csv = dir.resolve("catalog.csv");
+        Files.writeString(csv, String.join("\n",
+            "author,title,genre,favorite",
+            "Frank Herbert,Dune,Fiction,1",
+            "Anonymous,,Poetry,0",
+            "\"Tolkien, J.R.R.\",\"The \"\"Hobbit\"\"\",Fantasy,false",
+            ""));
+
+        CatalogImporter importer = new CatalogImporter(dao);
+        importer.setBatchSize(1);
+        ImportReport report = importer.importFile(csv, r -> { });
+
+        assertEquals(3, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(1, report.getRowsRejected());
+        assertTrue(report.getErrors().get(0).contains("missing title"));
+
+        List<Book> books = dao.getAllBooks();
+        assertTrue(books.stream().anyMatch(b -> b.getTitle().equals("Dune") && b.isFavorite()));
+        assertTrue(books.stream().anyMatch(b ->
+            b.getTitle().equals("The \"Hobbit\"") && b.getAuthor().equals("Tolkien, J.R.R.")));
+    }
+
+    /** Tests a JSONL import with a malformed line in the middle. */
+    @Test
+    public void testImportJsonlSkipsMalformedLines() throws Exception {
+        Path jsonl = dir.resolve("catalog.jsonl");
+        Files.writeString(jsonl, String.join("\n",
+            "{\"title\": \"Emma\", \"author\": \"Jane Austen\", \"genre\": \"Romance\", \"favorite\": true}",
+            "{\"title\": \"broken\"",
+            "{\"title\": \"Persuasion\", \"author\": \"Jane Austen\", \"genre\": null}"));
+
+        ImportReport report = new CatalogImporter(dao).importFile(jsonl, r -> { });
+
+        assertEquals(2, report.getRowsImported());
+        assertEquals(1, report.getRowsRejected());
+        assertTrue(report.getErrors().get(0).startsWith("line 2"));
+        assertEquals(2, dao.getAllBooks().size());
+    }
+}
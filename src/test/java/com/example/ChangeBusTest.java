@@ -0,0 +1,63 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChangeBus.
+ */
+public class ChangeBusTest {
+
+    private final ChangeBus bus = new ChangeBus();
+
+    /** Tests that events published before the executor runs are delivered as one batch. */
+    @Test
+    public void testBatchesEventsWhileDeliveryIsPending() {
+        List<Runnable> tasks = new ArrayList<>();
+        List<List<DataChangeEvent>> batches = new ArrayList<>();
+        bus.subscribe(batches::add, tasks::add);
+
+        bus.publish(DataChangeEvent.ofIds(DataChangeEvent.Type.DELETED, List.of(1)));
+        bus.publish(DataChangeEvent.ofIds(DataChangeEvent.Type.DELETED, List.of(2)));
+        assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        bus.publish(DataChangeEvent.ofIds(DataChangeEvent.Type.DELETED, List.of(3)));
+        tasks.remove(0).run();
+
+        assertEquals(2, batches.size());
+        assertEquals(List.of(List.of(1), List.of(2)), batches.get(0).stream().map(DataChangeEvent::getIds).toList());
+        assertEquals(List.of(3), batches.get(1).get(0).getIds());
+    }
+
+    /** Tests that a failing listener does not keep the event from other subscribers. */
+    @Test
+    public void testListenerFailureIsIsolated() {
+        List<DataChangeEvent> received = new ArrayList<>();
+        bus.subscribe(events -> { throw new IllegalStateException("listener failed"); }, Runnable::run);
+        bus.subscribe(received::addAll, Runnable::run);
+
+        bus.publish(DataChangeEvent.ofIds(DataChangeEvent.Type.GENRES_CHANGED, List.of()));
+
+        assertEquals(1, received.size());
+    }
+
+    /** Tests that an unsubscribed listener receives nothing further. */
+    @Test
+    public void testUnsubscribe() {
+        List<DataChangeEvent> received = new ArrayList<>();
+        ChangeBus.Listener listener = received::addAll;
+        bus.subscribe(listener, Runnable::run);
+        bus.publish(DataChangeEvent.ofIds(DataChangeEvent.Type.DELETED, List.of(1)));
+
+        bus.unsubscribe(listener);
+        bus.publish(DataChangeEvent.ofIds(DataChangeEvent.Type.DELETED, List.of(2)));
+
+        assertEquals(0, bus.getSubscriberCount());
+        assertEquals(1, received.size());
+    }
+}
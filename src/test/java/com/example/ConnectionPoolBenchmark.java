@@ -0,0 +1,144 @@
+package com.example;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Compares the throughput of the pooled {@link BookDAO} with the former
+ * connection-per-call behaviour.
+ * <p>
+ * Not a unit test; run it manually, e.g.
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.example.ConnectionPoolBenchmark -Dexec.classpathScope=test}.
+ * An optional argument sets the number of operations per phase.
+ */
+public class ConnectionPoolBenchmark {
+
+    /**
+     * Runs the benchmark against two temporary databases.
+     *
+     * @param args optional number of operations per phase
+     * @throws Exception if the temporary files cannot be created
+     */
+    public static void main(String[] args) throws Exception {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        Path dir = Files.createTempDirectory("pool-bench");
+        String legacyUrl = "jdbc:sqlite:" + dir.resolve("legacy.db");
+        String pooledUrl = "jdbc:sqlite:" + dir.resolve("pooled.db");
+
+        // Only creates the table
+        new BookDAO(legacyConfig(legacyUrl)).close();
+        LegacyDAO legacy = new LegacyDAO(legacyUrl);
+        report("connection-per-call", ops, legacy::addBook, legacy::searchBooks, legacy::setFavorite);
+
+        try (BookDAO pooled = new BookDAO(new DatabaseConfig(pooledUrl))) {
+            report("pooled (WAL)", ops, pooled::addBook, pooled::searchBooks, pooled::setFavorite);
+        }
+
+        for (File f : dir.toFile().listFiles()) {
+            f.delete();
+        }
+        dir.toFile().delete();
+    }
+
+    private static DatabaseConfig legacyConfig(String url) {
+        DatabaseConfig config = new DatabaseConfig(url);
+        config.setJournalMode("DELETE");
+        config.setSynchronous("FULL");
+        config.setReaderCount(1);
+        return config;
+    }
+
+    private static void report(String label, int ops,
+                               Consumer<Book> add,
+                               Function<String, ?> search,
+                               BiConsumer<Integer, Boolean> favorite) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            add.accept(new Book("Title " + i, "Author " + (i % 97), "Genre " + (i % 7)));
+        }
+        print(label, "addBook", ops, start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            search.apply("Author " + (i % 97));
+        }
+        print(label, "searchBooks", ops, start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            favorite.accept(i + 1, i % 2 == 0);
+        }
+        print(label, "setFavorite", ops, start);
+    }
+
+    private static void print(String label, String op, int ops, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%-22s %-12s %10.0f ops/sec%n", label, op, ops / seconds);
+    }
+
+    /**
+     * The original DAO access pattern: a new connection and statement for every call.
+     */
+    private static class LegacyDAO {
+        private final String url;
+        private final GenreDictionary genres = new GenreDictionary();
+
+        LegacyDAO(String url) {
+            this.url = url;
+        }
+
+        void addBook(Book book) {
+            try (Connection conn = DriverManager.getConnection(url);
+                 PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO books(title, author, genre_id, favorite) " +
+                     "VALUES (?, ?, (SELECT id FROM genres WHERE name = ?), ?)")) {
+                pstmt.setString(1, book.getTitle());
+                pstmt.setString(2, book.getAuthor());
+                pstmt.setString(3, book.getGenre());
+                pstmt.setInt(4, book.isFavorite() ? 1 : 0);
+                pstmt.executeUpdate();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        Object searchBooks(String keyword) {
+            try (Connection conn = DriverManager.getConnection(url);
+                 PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT * FROM books WHERE title LIKE ? OR author LIKE ? " +
+                     "OR genre_id IN (SELECT id FROM genres WHERE name LIKE ?)")) {
+                String like = "%" + keyword + "%";
+                pstmt.setString(1, like);
+                pstmt.setString(2, like);
+                pstmt.setString(3, like);
+                int n = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        BookDAO.mapRow(rs, genres);
+                        n++;
+                    }
+                }
+                return n;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void setFavorite(int id, boolean favorite) {
+            try (Connection conn = DriverManager.getConnection(url);
+                 PreparedStatement pstmt = conn.prepareStatement("UPDATE books SET favorite = ? WHERE id = ?")) {
+                pstmt.setInt(1, favorite ? 1 : 0);
+                pstmt.setInt(2, id);
+                pstmt.executeUpdate();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DaoMetrics.
+ */
+public class DaoMetricsTest {
+
+    @TempDir
+    Path dir;
+
+    private DatabaseConfig config;
+
+    /** Prepares a configuration for a temporary database. */
+    @BeforeEach
+    public void setUp() {
+        config = new DatabaseConfig("jdbc:sqlite:" + dir.resolve("metrics.db"));
+    }
+
+    /** Tests that calls, rows and errors are counted per operation. */
+    @Test
+    public void testRecordsOperations() {
+        config.setMetricsEnabled(true);
+        try (BookDAO dao = new BookDAO(config)) {
+            dao.addBooks(List.of(new Book("A", "Author", "Fiction"), new Book("B", "Author", "Fiction")));
+            dao.getAllBooks();
+            dao.getAllBooks();
+            dao.addBook(new Book(null, "Author", "Fiction"));
+
+            Map<String, OperationSnapshot> ops = dao.getMetrics().getOperations();
+            assertEquals(2, ops.get("getAllBooks").getCount());
+            assertEquals(4, ops.get("getAllBooks").getRows());
+            assertEquals(2, ops.get("addBooks").getRows());
+            assertEquals(1, ops.get("addBook").getErrors());
+            assertNotNull(ops.get("addBook").getLastError());
+            OperationSnapshot reads = ops.get("getAllBooks");
+            assertTrue(reads.getP50Micros() <= reads.getP99Micros() && reads.getP99Micros() <= reads.getMaxMicros());
+        }
+    }
+
+    /** Tests that the MXBean is registered while the DAO is open and exposes the operations. */
+    @Test
+    public void testRegisteredAsMXBean() throws Exception {
+        config.setMetricsEnabled(true);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName pattern = new ObjectName("com.example:type=DaoMetrics,db=" + ObjectName.quote(config.getUrl()) + ",*");
+        try (BookDAO dao = new BookDAO(config)) {
+            dao.countBooks();
+            Set<ObjectName> names = server.queryNames(pattern, null);
+            assertEquals(1, names.size());
+            TabularData operations = (TabularData) server.getAttribute(names.iterator().next(), "Operations");
+            CompositeData count = (CompositeData) operations.get(new Object[] {"countBooks"}).get("value");
+            assertEquals(1L, count.get("count"));
+        }
+        assertTrue(server.queryNames(pattern, null).isEmpty());
+    }
+
+    /** Tests that disabled metrics record nothing. */
+    @Test
+    public void testDisabledRecordsNothing() {
+        config.setMetricsEnabled(false);
+        try (BookDAO dao = new BookDAO(config)) {
+            dao.getAllBooks();
+            assertFalse(dao.getMetrics().isEnabled());
+            assertTrue(dao.getMetrics().getOperations().isEmpty());
+        }
+    }
+
+    /** Tests that histogram buckets bound every value within 12.5%. */
+    @Test
+    public void testHistogramPrecision() {
+        for (long value : new long[] {0, 15, 16, 17, 1000, 123_456, 9_999_999_999L, Long.MAX_VALUE / 2}) {
+            int bucket = DaoMetrics.Histogram.bucketOf(value);
+            long upper = DaoMetrics.Histogram.upperBound(bucket);
+            assertTrue(upper >= value, "upper bound of " + value);
+            assertTrue(upper - value <= value / 8, "precision of " + value);
+        }
+
+        DaoMetrics.Histogram histogram = new DaoMetrics.Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(100, histogram.count());
+        assertEquals(100_000, histogram.max());
+        long p50 = histogram.percentile(0.5);
+        assertTrue(p50 >= 50_000 && p50 <= 50_000 * 9 / 8, "p50 " + p50);
+    }
+}
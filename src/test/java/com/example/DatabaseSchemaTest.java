@@ -0,0 +1,124 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DatabaseSchema migrations.
+ */
+public class DatabaseSchemaTest {
+
+    @TempDir
+    Path dir;
+
+    /** Tests that a version 1 database keeps its books, genres and IDs when upgraded. */
+    @Test
+    public void testMigratesFreeTextGenres() throws Exception {
+        String url = "jdbc:sqlite:" + dir.resolve("old.db");
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE books (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT NOT NULL, " +
+                         "author TEXT NOT NULL, genre TEXT, favorite INTEGER DEFAULT 0)");
+            stmt.execute("INSERT INTO books(title, author, genre, favorite) VALUES " +
+                         "('Dune', 'Herbert', 'Sci-Fi', 1), ('Emma', 'Austen', 'Romance', 0), " +
+                         "('Untitled', 'Nobody', NULL, 0), ('Gone', 'Someone', 'Sci-Fi', 0)");
+            stmt.execute("DELETE FROM books WHERE title = 'Gone'");
+            stmt.execute("PRAGMA user_version = 1");
+        }
+
+        try (BookDAO dao = new BookDAO(new DatabaseConfig(url))) {
+            List<Book> books = dao.getAllBooks();
+            assertEquals(3, books.size());
+            assertEquals("Sci-Fi", books.get(0).getGenre());
+            assertTrue(books.get(0).isFavorite());
+            assertNull(books.get(2).getGenre());
+            assertNotNull(dao.getGenres().idOf("Romance"));
+
+            // Books of one genre share the dictionary's name instance
+            Book other = new Book("Hyperion", "Simmons", "Sci-Fi");
+            dao.addBook(other);
+            assertEquals(5, other.getId(), "IDs of deleted rows must not be reused");
+            assertSame(dao.getAllBooks().get(0).getGenre(), dao.getAllBooks().get(3).getGenre());
+
+            assertEquals(2, dao.searchBooks("sci", SearchMode.PREFIX).size());
+            assertEquals(1, dao.searchBooks("Romance").size());
+        }
+
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'index' " +
+                                              "AND name IN ('idx_books_genre_favorite', 'idx_books_favorite')")) {
+            int indexes = 0;
+            while (rs.next()) indexes++;
+            assertEquals(2, indexes);
+            assertEquals(DatabaseSchema.CURRENT_VERSION, DatabaseSchema.getVersion(conn));
+        }
+    }
+
+    /** Tests that the foreign key rejects a genre ID that does not exist. */
+    @Test
+    public void testGenreForeignKey() throws Exception {
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + dir.resolve("fk.db"));
+        new BookDAO(config).close();
+        try (ConnectionPool pool = new ConnectionPool(config);
+             PooledConnection pc = pool.writer();
+             Statement stmt = pc.getConnection().createStatement()) {
+            assertThrows(java.sql.SQLException.class, () -> stmt.execute(
+                "INSERT INTO books(title, author, genre_id) VALUES ('T', 'A', 999)"));
+        }
+    }
+
+    /** Tests that genres cannot be renamed, which would leave the genre sort keys of their books stale. */
+    @Test
+    public void testGenresCannotBeRenamed() throws Exception {
+        String url = "jdbc:sqlite:" + dir.resolve("rename.db");
+        try (BookDAO dao = new BookDAO(new DatabaseConfig(url))) {
+            dao.addBook(new Book("Dune", "Herbert", "Sci-Fi"));
+        }
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            assertThrows(java.sql.SQLException.class, () -> stmt.execute(
+                "UPDATE genres SET name = 'Science Fiction' WHERE name = 'Sci-Fi'"));
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM genres WHERE name = 'Sci-Fi'")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+
+    /** Tests that sort keys written under another key version are rebuilt when the database is opened. */
+    @Test
+    public void testRebuildsSortKeysOfOtherKeyVersion() throws Exception {
+        String url = "jdbc:sqlite:" + dir.resolve("keys.db");
+        try (BookDAO dao = new BookDAO(new DatabaseConfig(url))) {
+            dao.addBook(new Book("Émile", "Rousseau", "Non-fiction"));
+        }
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            assertEquals(BookOrder.KEY_VERSION, DatabaseSchema.getSortKeyVersion(conn));
+            stmt.execute("UPDATE books SET title_key = x'00', author_key = x'00', genre_key = x'00'");
+            stmt.execute("UPDATE catalog_state SET sort_key_version = 'other JDK'");
+        }
+
+        // Opening the database rebuilds the keys
+        new BookDAO(new DatabaseConfig(url)).close();
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT title_key, author_key, genre_key FROM books")) {
+            assertEquals(BookOrder.KEY_VERSION, DatabaseSchema.getSortKeyVersion(conn));
+            assertTrue(rs.next());
+            assertArrayEquals(BookOrder.collationKey("Émile"), rs.getBytes(1));
+            assertArrayEquals(BookOrder.collationKey("Rousseau"), rs.getBytes(2));
+            assertArrayEquals(BookOrder.collationKey("Non-fiction"), rs.getBytes(3));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the StAX load and save of {@link GenreLoader} with the former DOM implementation
+ * on a large taxonomy.
+ * <p>
+ * Not a unit test; run it manually, e.g.
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.example.GenreXmlBenchmark -Dexec.classpathScope=test}.
+ * An optional argument sets the number of genres (default 200,000). Memory is reported as the
+ * bytes allocated by the benchmark thread during each operation.
+ */
+public class GenreXmlBenchmark {
+    private static final int ROUNDS = 5;
+
+    /**
+     * Runs the benchmark in a temporary directory.
+     *
+     * @param args optional number of genres
+     * @throws Exception if the files cannot be written or parsed
+     */
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        List<String> genres = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            genres.add("Subject heading " + i + " -- " + SyntheticBooks.rareWord(i % 5000) + " & history");
+        }
+
+        Path dir = Files.createTempDirectory("genre-bench");
+        Path domFile = dir.resolve("dom.xml");
+        Path staxFile = dir.resolve("stax.xml");
+        System.out.printf("%d genres%n", size);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            boolean print = round == ROUNDS;
+            measure(print, "DOM save", () -> domWrite(genres, domFile));
+            measure(print, "StAX save", () -> GenreLoader.write(genres, staxFile));
+            measure(print, "DOM load", () -> check(domRead(staxFile), size));
+            measure(print, "StAX load", () -> check(GenreLoader.read(domFile), size));
+        }
+        System.out.printf("file size %.1f MB (DOM), %.1f MB (StAX)%n",
+            Files.size(domFile) / 1e6, Files.size(staxFile) / 1e6);
+
+        Files.delete(domFile);
+        Files.delete(staxFile);
+        Files.delete(dir);
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static void measure(boolean print, String label, Task task) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        task.run();
+        long nanos = System.nanoTime() - start;
+        allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+        if (print) {
+            System.out.printf("%-10s %8.1f ms %10.1f MB allocated%n", label, nanos / 1e6, allocated / 1e6);
+        }
+    }
+
+    private static void check(List<String> genres, int size) {
+        if (genres.size() != size) throw new IllegalStateException("Read " + genres.size() + " genres");
+    }
+
+    /** The former GenreLoader.loadGenres: parse the whole document into a DOM tree. */
+    private static List<String> domRead(Path file) throws Exception {
+        List<String> genres = new ArrayList<>();
+        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Document doc = builder.parse(file.toFile());
+        NodeList nodes = doc.getElementsByTagName("genre");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            genres.add(nodes.item(i).getTextContent());
+        }
+        return genres;
+    }
+
+    /** The former GenreLoader.saveGenres: build a DOM tree and transform it over the file. */
+    private static void domWrite(List<String> genres, Path file) throws Exception {
+        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Document doc = builder.newDocument();
+        Element root = doc.createElement("genres");
+        doc.appendChild(root);
+        for (String genre : genres) {
+            Element element = doc.createElement("genre");
+            element.setTextContent(genre);
+            root.appendChild(element);
+        }
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.transform(new DOMSource(doc), new StreamResult(file.toFile()));
+    }
+}
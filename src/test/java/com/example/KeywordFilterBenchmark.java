@@ -0,0 +1,79 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Measures keystroke-to-result latency of the GUI keyword filter: the former stream
+ * filter over all books compared with {@link BookSearchIndex}.
+ * <p>
+ * Each query is "typed" one character at a time and every prefix is searched, as the
+ * document listener does. Not a unit test; run it manually, e.g.
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.example.KeywordFilterBenchmark -Dexec.classpathScope=test}.
+ * Arguments override the collection sizes (default 10000 100000 1000000).
+ */
+public class KeywordFilterBenchmark {
+    private static final String[] TYPED = {"dragon", "nakamura", "the silent", SyntheticBooks.rareWord(321)};
+    private static final int ROUNDS = 5;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional collection sizes
+     */
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+            ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+            : new int[] {10_000, 100_000, 1_000_000};
+
+        System.out.printf("%10s %-8s %10s %10s %12s%n", "books", "filter", "p50 ms", "p99 ms", "build ms");
+        for (int size : sizes) {
+            List<Book> books = new SyntheticBooks(42).next(size);
+            for (int i = 0; i < size; i++) {
+                books.get(i).setId(i + 1);
+            }
+
+            long start = System.nanoTime();
+            BookSearchIndex index = new BookSearchIndex(books);
+            double buildMs = (System.nanoTime() - start) / 1e6;
+
+            measure(size, "stream", 0, keyword -> streamFilter(books, keyword).size());
+            measure(size, "index", buildMs, keyword -> index.search(keyword).size());
+        }
+    }
+
+    private interface Filter {
+        int apply(String keyword);
+    }
+
+    private static void measure(int size, String label, double buildMs, Filter filter) {
+        int keystrokes = Arrays.stream(TYPED).mapToInt(String::length).sum();
+        long[] nanos = new long[keystrokes * ROUNDS];
+        int n = 0;
+        long sink = 0;
+        for (int round = -1; round < ROUNDS; round++) {
+            for (String word : TYPED) {
+                for (int len = 1; len <= word.length(); len++) {
+                    long start = System.nanoTime();
+                    sink += filter.apply(word.substring(0, len));
+                    if (round >= 0) nanos[n++] = System.nanoTime() - start;
+                }
+            }
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%10d %-8s %10.2f %10.2f %12.0f%s%n", size, label,
+            nanos[nanos.length / 2] / 1e6, nanos[(int) (nanos.length * 0.99)] / 1e6, buildMs,
+            sink == 42 ? " " : "");
+    }
+
+    /** The filter formerly used by BookManagerGUI.searchBooks. */
+    private static List<Book> streamFilter(List<Book> allBooks, String keyword) {
+        String k = keyword.toLowerCase();
+        return allBooks.stream()
+            .filter(b -> b.getTitle().toLowerCase().contains(k)
+                      || b.getAuthor().toLowerCase().contains(k)
+                      || b.getGenre().toLowerCase().contains(k))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,181 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.event.TableModelEvent;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PagedBookTableModel.
+ */
+public class PagedBookTableModelTest {
+
+    @TempDir
+    Path dir;
+
+    private BookDAO dao;
+    private List<Book> books;
+
+    /** Fills a temporary database with ten books. */
+    @BeforeEach
+    public void setUp() {
+        dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("paged.db")));
+        books = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            books.add(new Book("Book " + i, "Author " + i, "Fiction"));
+        }
+        dao.addBooks(books);
+    }
+
+    /** Closes the DAO. */
+    @AfterEach
+    public void tearDown() {
+        dao.close();
+    }
+
+    /** Tests that rows are served from blocks in ID order, whatever order the blocks are loaded in. */
+    @Test
+    public void testRowsAcrossBlocks() {
+        PagedBookTableModel model = new PagedBookTableModel(dao, 3, 2);
+        try {
+            assertEquals(10, model.getRowCount());
+            // Jump to the last block first (OFFSET lookup), then walk from the start (keyset lookups)
+            assertEquals("Book 9", model.getBookAt(9).getTitle());
+            for (int row = 0; row < 10; row++) {
+                assertEquals(books.get(row).getId(), model.getBookAt(row).getId());
+                assertEquals("Author " + row, model.getValueAt(row, 1));
+            }
+        } finally {
+            model.close();
+        }
+    }
+
+    /** Tests that a sorted model reads its blocks in the database's order and reloads after inserts. */
+    @Test
+    public void testSortedRows() {
+        PagedBookTableModel model = new PagedBookTableModel(dao, 3, 2);
+        try {
+            model.setOrder(new BookOrder(BookQuery.SortKey.TITLE, true));
+            assertEquals("Book 0", model.getBookAt(9).getTitle());
+            for (int row = 0; row < 10; row++) {
+                assertEquals("Book " + (9 - row), model.getBookAt(row).getTitle());
+            }
+
+            Book added = new Book("Book 45", "Someone", "Fiction");
+            dao.addBook(added);
+            List<TableModelEvent> events = new ArrayList<>();
+            model.addTableModelListener(events::add);
+            model.bookAdded(added);
+            assertEquals(11, model.getRowCount());
+            assertEquals(Integer.MAX_VALUE, events.get(0).getLastRow(), "sorted views reload");
+            assertEquals("Book 45", model.getBookAt(5).getTitle());
+            assertEquals("Book 4", model.getBookAt(6).getTitle());
+
+            model.setOrder(BookOrder.ID);
+            assertEquals(added.getId(), model.getBookAt(10).getId());
+        } finally {
+            model.close();
+        }
+    }
+
+    /** Tests that a refresh picks up deleted rows, with the count read by the model or given to it. */
+    @Test
+    public void testRefreshAfterDelete() {
+        PagedBookTableModel model = new PagedBookTableModel(dao, 4, 8);
+        try {
+            model.getBookAt(0);
+            dao.deleteBook(books.get(0).getId());
+            model.refresh();
+
+            assertEquals(9, model.getRowCount());
+            assertEquals("Book 1", model.getBookAt(0).getTitle());
+
+            dao.deleteBook(books.get(1).getId());
+            model.refresh(dao.countBooks());
+            assertEquals(8, model.getRowCount());
+            assertEquals("Book 2", model.getBookAt(0).getTitle());
+        } finally {
+            model.close();
+        }
+    }
+
+    /** Tests that deleting books that are not cached keeps the blocks before them and reads no count. */
+    @Test
+    public void testDeleteOfUncachedBooks() {
+        int[] counts = {0};
+        BookDAO counting = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("paged.db"))) {
+            @Override
+            public int countBooks() {
+                counts[0]++;
+                return super.countBooks();
+            }
+        };
+        PagedBookTableModel model = new PagedBookTableModel(counting, 3, 8);
+        List<TableModelEvent> events = new ArrayList<>();
+        model.addTableModelListener(events::add);
+        try {
+            Book first = model.getBookAt(0);
+            model.getBookAt(6);
+            List<Integer> ids = List.of(books.get(4).getId(), books.get(5).getId());
+            counting.deleteBooks(ids);
+            model.booksDeleted(ids);
+
+            assertEquals(1, counts[0], "only the constructor counts");
+            assertEquals(8, model.getRowCount());
+            assertEquals(Integer.MAX_VALUE, events.get(0).getLastRow());
+            assertSame(first, model.getBookAt(0), "blocks before the deleted rows stay cached");
+            List<String> titles = new ArrayList<>();
+            for (int row = 0; row < 8; row++) {
+                titles.add(model.getBookAt(row).getTitle());
+            }
+            assertEquals(List.of("Book 0", "Book 1", "Book 2", "Book 3", "Book 6", "Book 7", "Book 8", "Book 9"), titles);
+        } finally {
+            model.close();
+            counting.close();
+        }
+    }
+
+    /** Tests that inserts and deletes fire row-level events and keep the rows in ID order. */
+    @Test
+    public void testIncrementalInsertAndDelete() {
+        PagedBookTableModel model = new PagedBookTableModel(dao, 4, 8);
+        List<TableModelEvent> events = new ArrayList<>();
+        model.addTableModelListener(events::add);
+        try {
+            for (int row = 0; row < 10; row++) {
+                model.getBookAt(row);
+            }
+
+            Book added = new Book("Book 10", "Author 10", "Fiction");
+            dao.addBook(added);
+            model.bookAdded(added);
+            assertEquals(11, model.getRowCount());
+            assertEquals(TableModelEvent.INSERT, events.get(0).getType());
+            assertEquals(10, events.get(0).getFirstRow());
+            assertSame(added, model.getBookAt(10));
+
+            List<Integer> ids = List.of(books.get(2).getId(), books.get(3).getId(), books.get(7).getId());
+            dao.deleteBooks(ids);
+            model.booksDeleted(ids);
+            assertEquals(8, model.getRowCount());
+            // One event per run of consecutive rows, bottom run first
+            assertEquals(3, events.size());
+            assertEquals(TableModelEvent.DELETE, events.get(1).getType());
+            assertEquals(7, events.get(1).getFirstRow());
+            assertEquals(2, events.get(2).getFirstRow());
+            assertEquals(3, events.get(2).getLastRow());
+
+            String[] expected = {"Book 0", "Book 1", "Book 4", "Book 5", "Book 6", "Book 8", "Book 9", "Book 10"};
+            for (int row = 0; row < expected.length; row++) {
+                assertEquals(expected[row], model.getBookAt(row).getTitle());
+            }
+        } finally {
+            model.close();
+        }
+    }
+}
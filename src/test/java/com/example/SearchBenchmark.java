@@ -0,0 +1,76 @@
+package com.example;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Compares {@code LIKE} substring search with FTS5 token and prefix search
+ * at several catalog sizes.
+ * <p>
+ * Not a unit test; run it manually, e.g.
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.example.SearchBenchmark -Dexec.classpathScope=test}.
+ * Arguments override the catalog sizes (default 10000 100000 1000000).
+ */
+public class SearchBenchmark {
+    /** Common words (several percent of rows match) followed by rare subtitle words. */
+    private static final String[] QUERIES = {
+        "garden", "nakamura", "mystery",
+        SyntheticBooks.rareWord(17), SyntheticBooks.rareWord(1234), SyntheticBooks.rareWord(3001)
+    };
+    private static final String[] PREFIXES = {
+        "gard", "naka", "myst",
+        SyntheticBooks.rareWord(17).substring(0, 4), SyntheticBooks.rareWord(1234).substring(0, 4),
+        SyntheticBooks.rareWord(3001).substring(0, 4)
+    };
+    private static final int ROUNDS = 20;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional catalog sizes
+     * @throws Exception if the temporary database cannot be created
+     */
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+            ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+            : new int[] {10_000, 100_000, 1_000_000};
+
+        System.out.printf("%10s %-10s %10s %10s %10s%n", "rows", "mode", "p50 ms", "p99 ms", "hits");
+        for (int size : sizes) {
+            Path dir = Files.createTempDirectory("search-bench");
+            try (BookDAO dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("books.db")))) {
+                new SyntheticBooks(42).fill(dao, size);
+                run(dao, size, SearchMode.SUBSTRING, QUERIES);
+                run(dao, size, SearchMode.TOKEN, QUERIES);
+                run(dao, size, SearchMode.PREFIX, PREFIXES);
+            } finally {
+                for (File f : dir.toFile().listFiles()) {
+                    f.delete();
+                }
+                dir.toFile().delete();
+            }
+        }
+    }
+
+    private static void run(BookDAO dao, int size, SearchMode mode, String[] queries) {
+        // warm-up
+        for (String q : queries) {
+            dao.searchBooks(q, mode);
+        }
+        long[] nanos = new long[ROUNDS * queries.length];
+        long hits = 0;
+        int n = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (String q : queries) {
+                long start = System.nanoTime();
+                hits += dao.searchBooks(q, mode).size();
+                nanos[n++] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%10d %-10s %10.2f %10.2f %10d%n", size, mode,
+            nanos[nanos.length / 2] / 1e6, nanos[(int) (nanos.length * 0.99)] / 1e6, hits / ROUNDS);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SearchScheduler.
+ */
+public class SearchSchedulerTest {
+
+    /** Tests that a burst of queries is debounced and only the latest result is published on the EDT. */
+    @Test
+    public void testOnlyLatestResultIsPublished() throws Exception {
+        List<String> searched = new CopyOnWriteArrayList<>();
+        List<String> published = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        SearchScheduler<String, String> scheduler = new SearchScheduler<>(
+            q -> {
+                searched.add(q);
+                return q.toUpperCase();
+            },
+            r -> {
+                assertTrue(SwingUtilities.isEventDispatchThread());
+                published.add(r);
+                done.countDown();
+            },
+            100);
+        try {
+            scheduler.submit("d");
+            scheduler.submit("du");
+            scheduler.submit("dun");
+            scheduler.submit("dune");
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+
+            assertEquals(List.of("dune"), searched);
+            assertEquals(List.of("DUNE"), published);
+            assertEquals(1, scheduler.getCompletedCount());
+            assertEquals(3, scheduler.getSupersededCount());
+            assertTrue(scheduler.getLastLatencyNanos() >= TimeUnit.MILLISECONDS.toNanos(100));
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    /** Tests that a cancelled query publishes nothing. */
+    @Test
+    public void testCancel() throws Exception {
+        List<String> published = new CopyOnWriteArrayList<>();
+        SearchScheduler<String, String> scheduler = new SearchScheduler<>(q -> q, published::add, 50);
+        try {
+            scheduler.submit("dune");
+            scheduler.cancel();
+            Thread.sleep(300);
+            SwingUtilities.invokeAndWait(() -> { });
+            assertTrue(published.isEmpty());
+        } finally {
+            scheduler.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SnapshotStore.
+ */
+public class SnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private BookDAO dao;
+    private Path file;
+    private SnapshotStore store;
+    private final BlockingQueue<BookSnapshot> saved = new LinkedBlockingQueue<>();
+
+    /** Opens a DAO on a temporary database with two books. */
+    @BeforeEach
+    public void setUp() {
+        dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("store.db")));
+        dao.addBooks(List.of(new Book("Dragon Song", "Anna Abe", "Fantasy"), new Book("Silent River", "Ben Brown", "Mystery")));
+        file = dir.resolve("store.snapshot");
+        store = new SnapshotStore(dao, file, 50, saved::add);
+    }
+
+    /** Closes the store and the DAO. */
+    @AfterEach
+    public void tearDown() {
+        store.close();
+        dao.close();
+    }
+
+    /** Tests that a missing file is written in the background and is then loaded. */
+    @Test
+    public void testMissingFileIsWritten() throws Exception {
+        assertNull(store.loadFresh());
+        BookSnapshot written = saved.poll(10, TimeUnit.SECONDS);
+        assertNotNull(written);
+        assertTrue(Files.exists(file));
+
+        BookSnapshot loaded = store.loadFresh();
+        assertNotNull(loaded);
+        assertEquals(2, loaded.size());
+        assertEquals(written.getChangeCount(), loaded.getChangeCount());
+    }
+
+    /** Tests that a write, even from another connection, makes the file stale until it is rewritten. */
+    @Test
+    public void testWriteMakesFileStale() throws Exception {
+        assertNotNull(store.save());
+        try (BookDAO other = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + dir.resolve("store.db")))) {
+            other.setFavorite(1, true);
+        }
+        assertNull(store.loadFresh());
+        assertNotNull(saved.poll(10, TimeUnit.SECONDS));
+        assertNotNull(saved.poll(10, TimeUnit.SECONDS));
+
+        BookSnapshot loaded = store.loadFresh();
+        assertNotNull(loaded);
+        assertTrue(loaded.isFavorite(0));
+    }
+
+    /** Tests that a burst of changes is written once after the quiet period. */
+    @Test
+    public void testChangesAreCoalesced() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            store.changed();
+        }
+        assertNotNull(saved.poll(10, TimeUnit.SECONDS));
+        assertNull(saved.poll(200, TimeUnit.MILLISECONDS));
+    }
+}
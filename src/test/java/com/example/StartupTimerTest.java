@@ -0,0 +1,35 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StartupTimer.
+ */
+public class StartupTimerTest {
+
+    /** Tests that phases are recorded in order with their durations and appear in the summary. */
+    @Test
+    public void testPhasesAndMilestones() throws Exception {
+        StartupTimer timer = new StartupTimer(0);
+        StartupTimer.Phase open = timer.phase("open database");
+        assertEquals(-1, open.getDurationMillis());
+        Thread.sleep(20);
+        open.close();
+        long shown = timer.milestone("first page shown");
+
+        List<StartupTimer.Phase> phases = timer.getPhases();
+        assertEquals(List.of("open database", "first page shown"), phases.stream().map(StartupTimer.Phase::getName).toList());
+        assertTrue(open.getDurationMillis() >= 20);
+        assertEquals(shown, phases.get(1).getStartMillis());
+        assertEquals(0, phases.get(1).getDurationMillis());
+        assertTrue(shown >= open.getStartMillis() + open.getDurationMillis());
+
+        String summary = timer.getSummary();
+        assertTrue(summary.contains("open database"));
+        assertTrue(summary.contains("first page shown"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible, realistic-looking books for benchmarks.
+ * <p>
+ * Titles are built from a small vocabulary so that keyword searches have a
+ * realistic hit rate, authors repeat with a skewed distribution, and genres
+ * come from the default genre list.
+ */
+public class SyntheticBooks {
+    private static final String[] WORDS = {
+        "shadow", "river", "empire", "garden", "winter", "secret", "journey", "crown", "silent",
+        "night", "stone", "memory", "ocean", "glass", "fire", "letters", "harbor", "forest",
+        "mirror", "storm", "city", "daughter", "kingdom", "light", "machine", "island", "song",
+        "war", "house", "summer", "clock", "dragon", "paper", "iron", "garden", "bridge"
+    };
+    private static final String[] FIRST_NAMES = {
+        "Anna", "Ben", "Clara", "David", "Elena", "Felix", "Grace", "Hugo", "Iris", "Jonas",
+        "Kenji", "Lena", "Marco", "Nora", "Oscar", "Priya", "Quinn", "Rosa", "Sam", "Yuki"
+    };
+    private static final String[] LAST_NAMES = {
+        "Abe", "Brown", "Costa", "Dubois", "Evans", "Fischer", "Garcia", "Hansen", "Ito", "Jensen",
+        "Kowalski", "Lopez", "Meyer", "Nakamura", "Olsen", "Petrov", "Rossi", "Schmidt", "Tanaka", "Weber"
+    };
+    private static final String[] SYLLABLES = {
+        "ka", "lo", "mir", "dan", "ve", "tor", "sil", "ba", "ne", "quo", "ran", "ze", "pha", "lu", "gor", "thi"
+    };
+    /** Number of distinct rare subtitle words; each occurs in about 1 of this many books. */
+    public static final int RARE_WORDS = SYLLABLES.length * SYLLABLES.length * SYLLABLES.length;
+    private static final String[] GENRES = {
+        "Fantasy", "Fiction", "Romance", "Mystery", "Biography", "Non-fiction"
+    };
+
+    private final Random random;
+
+    /**
+     * Constructs a generator.
+     *
+     * @param seed random seed; equal seeds produce equal sequences
+     */
+    public SyntheticBooks(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates the next book.
+     *
+     * @return a new unsaved book
+     */
+    public Book next() {
+        int words = 1 + random.nextInt(4);
+        StringBuilder title = new StringBuilder("The");
+        for (int i = 0; i < words; i++) {
+            String w = WORDS[random.nextInt(WORDS.length)];
+            title.append(' ').append(Character.toUpperCase(w.charAt(0))).append(w, 1, w.length());
+        }
+        title.append(": ").append(rareWord(random.nextInt(RARE_WORDS)));
+        // Squaring skews the distribution so a few authors write many books
+        double r = random.nextDouble();
+        int author = (int) (r * r * FIRST_NAMES.length * LAST_NAMES.length);
+        Book book = new Book(
+            title.toString(),
+            FIRST_NAMES[author % FIRST_NAMES.length] + " " + LAST_NAMES[author / FIRST_NAMES.length],
+            GENRES[random.nextInt(GENRES.length)]
+        );
+        book.setFavorite(random.nextInt(10) == 0);
+        return book;
+    }
+
+    /**
+     * Returns one of the rare words used as subtitles, useful as a selective search term.
+     *
+     * @param index a number between 0 and {@link #RARE_WORDS} - 1
+     * @return the capitalised word
+     */
+    public static String rareWord(int index) {
+        int n = SYLLABLES.length;
+        String w = SYLLABLES[index % n] + SYLLABLES[(index / n) % n] + SYLLABLES[(index / n / n) % n];
+        return Character.toUpperCase(w.charAt(0)) + w.substring(1);
+    }
+
+    /**
+     * Generates a list of books.
+     *
+     * @param count number of books
+     * @return the new unsaved books
+     */
+    public List<Book> next(int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(next());
+        }
+        return books;
+    }
+
+    /**
+     * Fills a database with generated books in batched transactions.
+     *
+     * @param dao   the target DAO
+     * @param count number of books to insert
+     */
+    public void fill(BookDAO dao, int count) {
+        for (int done = 0; done < count; done += 10_000) {
+            dao.addBooks(next(Math.min(10_000, count - done)));
+        }
+    }
+}
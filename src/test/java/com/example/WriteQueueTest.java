@@ -0,0 +1,214 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WriteQueue and concurrent use of BookDAO.
+ */
+public class WriteQueueTest {
+
+    @TempDir
+    Path dir;
+
+    private String url;
+
+    /** Chooses a fresh database file. */
+    @BeforeEach
+    public void setUp() {
+        url = "jdbc:sqlite:" + dir.resolve("writes.db");
+    }
+
+    /**
+     * Tests that writers and readers on 1 to 64 threads lose no writes, see no errors,
+     * and that concurrent writes share transactions.
+     */
+    @Test
+    public void testConcurrentWritersAndReaders() throws Exception {
+        for (int threads = 1; threads <= 64; threads *= 4) {
+            Path file = dir.resolve("stress-" + threads + ".db");
+            try (BookDAO dao = new BookDAO(new DatabaseConfig("jdbc:sqlite:" + file))) {
+                int perThread = 20;
+                AtomicInteger failures = new AtomicInteger();
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<?>> done = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    done.add(pool.submit(() -> {
+                        go.await();
+                        for (int i = 0; i < perThread; i++) {
+                            Book book = new Book("T" + thread + "-" + i, "Author " + thread, "Genre " + (i % 3));
+                            dao.addBook(book);
+                            if (book.getId() <= 0) failures.incrementAndGet();
+                            dao.setFavorite(book.getId(), true);
+                            if (dao.getBook(book.getId()) == null) failures.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                go.countDown();
+                for (Future<?> f : done) {
+                    f.get(60, TimeUnit.SECONDS);
+                }
+                pool.shutdown();
+
+                assertEquals(0, failures.get(), threads + " threads");
+                BookQuery favorites = new BookQuery();
+                favorites.setFavoritesOnly(true);
+                assertEquals(threads * perThread, dao.countBooks(favorites));
+                WriteQueue writes = dao.getWriteQueue();
+                assertEquals(2L * threads * perThread, writes.getWriteCount());
+                if (threads >= 16) {
+                    assertTrue(writes.getGroupCount() < writes.getWriteCount(),
+                        "expected grouped commits with " + threads + " threads");
+                }
+            }
+        }
+    }
+
+    /** Tests that a failing write is rolled back alone and the others in its group commit. */
+    @Test
+    public void testFailedWriteIsRolledBackAlone() throws Exception {
+        try (BookDAO dao = new BookDAO(new DatabaseConfig(url))) {
+            WriteQueue writes = dao.getWriteQueue();
+            // Hold the writer so that the next three writes are committed as one group
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            ExecutorService pool = Executors.newCachedThreadPool();
+            Future<?> blocker = pool.submit(() -> writes.submit(pc -> {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+                return null;
+            }));
+            entered.await();
+
+            Future<?> first = pool.submit(() -> dao.addBook(new Book("First", "A", "Fantasy")));
+            Future<?> invalid = pool.submit(() -> writes.submit(pc -> {
+                pc.prepare("INSERT INTO books (title, author) VALUES ('Gone', 'B')").executeUpdate();
+                return pc.prepare("INSERT INTO books (title, author) VALUES (NULL, NULL)").executeUpdate();
+            }));
+            Future<?> last = pool.submit(() -> dao.addBook(new Book("Last", "C", "Mystery")));
+            while (writes.getQueueLength() < 3) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            blocker.get(10, TimeUnit.SECONDS);
+            first.get(10, TimeUnit.SECONDS);
+            last.get(10, TimeUnit.SECONDS);
+            ExecutionException error = assertThrows(ExecutionException.class, () -> invalid.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(SQLException.class, error.getCause());
+            pool.shutdown();
+
+            assertEquals(List.of("First", "Last"), dao.getAllBooks().stream().map(Book::getTitle).sorted().toList());
+            assertEquals(2, writes.getGroupCount());
+        }
+    }
+
+    /** Tests that an Error thrown by a write reaches its caller and leaves the writer running. */
+    @Test
+    public void testErrorDoesNotStopTheWriter() throws Exception {
+        try (BookDAO dao = new BookDAO(new DatabaseConfig(url))) {
+            WriteQueue writes = dao.getWriteQueue();
+            assertThrows(StackOverflowError.class, () -> writes.submit(pc -> {
+                pc.prepare("INSERT INTO books (title, author) VALUES ('Gone', 'B')").executeUpdate();
+                throw new StackOverflowError();
+            }));
+
+            Future<Integer> next = Executors.newSingleThreadExecutor().submit(() -> writes.submit(pc ->
+                pc.prepare("INSERT INTO books (title, author) VALUES ('Kept', 'C')").executeUpdate()));
+            assertEquals(1, next.get(10, TimeUnit.SECONDS));
+            assertEquals(List.of("Kept"), dao.getAllBooks().stream().map(Book::getTitle).toList());
+        }
+    }
+
+    /** Tests that a genre inserted by a rolled back write is not reused by the next write of its group. */
+    @Test
+    public void testRolledBackGenreIsNotReused() throws Exception {
+        try (BookDAO dao = new BookDAO(new DatabaseConfig(url))) {
+            WriteQueue writes = dao.getWriteQueue();
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            ExecutorService pool = Executors.newCachedThreadPool();
+            Future<?> blocker = pool.submit(() -> writes.submit(pc -> {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+                return null;
+            }));
+            entered.await();
+
+            // The untitled book inserts the genre, then fails and is rolled back
+            Future<?> invalid = pool.submit(() -> dao.addBook(new Book(null, "A", "New")));
+            while (writes.getQueueLength() < 1) {
+                Thread.sleep(10);
+            }
+            Book valid = new Book("T", "A", "New");
+            Future<?> added = pool.submit(() -> dao.addBook(valid));
+            while (writes.getQueueLength() < 2) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            blocker.get(10, TimeUnit.SECONDS);
+            invalid.get(10, TimeUnit.SECONDS);
+            added.get(10, TimeUnit.SECONDS);
+            pool.shutdown();
+
+            assertEquals(2, writes.getGroupCount());
+            assertEquals(List.of("T"), dao.getAllBooks().stream().map(Book::getTitle).toList());
+            assertEquals("New", dao.getBook(valid.getId()).getGenre());
+            assertTrue(dao.getGenres().names().contains("New"));
+        }
+    }
+
+    /** Tests that a write lock held by another connection is waited for with retries. */
+    @Test
+    public void testBusyDatabaseIsRetried() throws Exception {
+        DatabaseConfig config = new DatabaseConfig(url);
+        config.setBusyTimeoutMillis(20);
+        config.setWriteRetries(5);
+        try (BookDAO dao = new BookDAO(config);
+             Connection other = DriverManager.getConnection(url);
+             Statement stmt = other.createStatement()) {
+            stmt.execute("BEGIN IMMEDIATE");
+            Future<?> add = Executors.newSingleThreadExecutor()
+                .submit(() -> dao.addBook(new Book("Waited", "A", "Fantasy")));
+            while (dao.getWriteQueue().getBusyRetryCount() == 0) {
+                Thread.sleep(5);
+            }
+            stmt.execute("COMMIT");
+
+            add.get(10, TimeUnit.SECONDS);
+            assertEquals(1, dao.getAllBooks().size());
+        }
+    }
+
+    /** Tests that WriteQueue recognises primary and extended busy codes. */
+    @Test
+    public void testIsBusy() {
+        assertTrue(WriteQueue.isBusy(new SQLException("busy", null, 5)));
+        assertTrue(WriteQueue.isBusy(new SQLException("busy snapshot", null, 5 | (2 << 8))));
+        assertFalse(WriteQueue.isBusy(new SQLException("locked", null, 6)));
+    }
+}